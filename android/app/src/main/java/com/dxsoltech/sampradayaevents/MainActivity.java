@@ -1,8 +1,10 @@
 package com.dxsoltech.sampradayaevents;
 
+import android.content.res.Configuration;
 import android.os.Bundle;
 import android.webkit.WebSettings;
 import com.getcapacitor.BridgeActivity;
+import com.getcapacitor.PluginHandle;
 import com.dxsoltech.sampradayaevents.videoplayer.IvsVideoPlayerPlugin;
 import java.util.ArrayList;
 
@@ -42,4 +44,29 @@ public class MainActivity extends BridgeActivity {
         super.onResume();
         // Resume WebView timers if needed
     }
+    
+    @Override
+    public void onUserLeaveHint() {
+        super.onUserLeaveHint();
+        // Auto picture-in-picture before Android 12
+        IvsVideoPlayerPlugin videoPlayer = getVideoPlayerPlugin();
+        if (videoPlayer != null) {
+            videoPlayer.onUserLeaveHint();
+        }
+    }
+    
+    @Override
+    public void onPictureInPictureModeChanged(boolean isInPictureInPictureMode, Configuration newConfig) {
+        super.onPictureInPictureModeChanged(isInPictureInPictureMode, newConfig);
+        IvsVideoPlayerPlugin videoPlayer = getVideoPlayerPlugin();
+        if (videoPlayer != null) {
+            videoPlayer.onPictureInPictureModeChanged(isInPictureInPictureMode, newConfig);
+        }
+    }
+    
+    private IvsVideoPlayerPlugin getVideoPlayerPlugin() {
+        if (getBridge() == null) return null;
+        PluginHandle handle = getBridge().getPlugin("IvsVideoPlayer");
+        return handle != null ? (IvsVideoPlayerPlugin) handle.getInstance() : null;
+    }
 }
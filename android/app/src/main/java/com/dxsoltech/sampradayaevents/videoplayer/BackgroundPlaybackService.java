@@ -0,0 +1,101 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.app.Notification;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ServiceInfo;
+import android.os.Build;
+import android.os.IBinder;
+import android.support.v4.media.session.MediaSessionCompat;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+
+import com.google.android.exoplayer2.util.NotificationUtil;
+
+import com.dxsoltech.sampradayaevents.R;
+
+/**
+ * Foreground media service that keeps the process alive while audio plays with
+ * the app in the background. The player itself stays in IvsPlayerManager; this
+ * only owns the notification. Wake and Wi-Fi locks are held by ExoPlayer
+ * (setWakeMode) for as long as the service runs.
+ */
+public class BackgroundPlaybackService extends Service {
+    private static final String TAG = "BackgroundPlaybackSvc";
+    private static final String CHANNEL_ID = "background_playback";
+    private static final int NOTIFICATION_ID = 4301;
+    private static final String EXTRA_SESSION_TOKEN = "sessionToken";
+    private static final String EXTRA_TITLE = "title";
+
+    public static void start(Context context, MediaSessionCompat.Token sessionToken, String title) {
+        Intent intent = new Intent(context, BackgroundPlaybackService.class);
+        intent.putExtra(EXTRA_SESSION_TOKEN, sessionToken);
+        intent.putExtra(EXTRA_TITLE, title);
+        try {
+            ContextCompat.startForegroundService(context, intent);
+        } catch (IllegalStateException e) {
+            // Background start restrictions (Android 12+) when we were already too far in the background
+            Log.w(TAG, "Could not start foreground service: " + e.getMessage());
+        }
+    }
+
+    public static void stop(Context context) {
+        context.stopService(new Intent(context, BackgroundPlaybackService.class));
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        NotificationUtil.createNotificationChannel(
+            this, CHANNEL_ID, R.string.background_playback_channel_name, 0, NotificationUtil.IMPORTANCE_LOW);
+
+        MediaSessionCompat.Token sessionToken = intent != null ? intent.getParcelableExtra(EXTRA_SESSION_TOKEN) : null;
+        String title = intent != null ? intent.getStringExtra(EXTRA_TITLE) : null;
+        Notification notification = buildNotification(sessionToken, title);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            startForeground(NOTIFICATION_ID, notification, ServiceInfo.FOREGROUND_SERVICE_TYPE_MEDIA_PLAYBACK);
+        } else {
+            startForeground(NOTIFICATION_ID, notification);
+        }
+        return START_NOT_STICKY;
+    }
+
+    private Notification buildNotification(MediaSessionCompat.Token sessionToken, String title) {
+        Intent launchIntent = getPackageManager().getLaunchIntentForPackage(getPackageName());
+        PendingIntent contentIntent = launchIntent != null
+            ? PendingIntent.getActivity(this, 0, launchIntent, PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT)
+            : null;
+
+        androidx.media.app.NotificationCompat.MediaStyle style = new androidx.media.app.NotificationCompat.MediaStyle();
+        if (sessionToken != null) {
+            style.setMediaSession(sessionToken);
+        }
+
+        return new NotificationCompat.Builder(this, CHANNEL_ID)
+            .setSmallIcon(android.R.drawable.ic_media_play)
+            .setContentTitle(title != null ? title : getString(R.string.app_name))
+            .setContentText(getString(R.string.background_playback_text))
+            .setContentIntent(contentIntent)
+            .setStyle(style)
+            .setOngoing(true)
+            .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
+            .setCategory(NotificationCompat.CATEGORY_TRANSPORT)
+            .build();
+    }
+
+    @Override
+    public void onDestroy() {
+        ServiceCompat.stopForeground(this, ServiceCompat.STOP_FOREGROUND_REMOVE);
+        super.onDestroy();
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+}
@@ -0,0 +1,191 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
+import com.google.android.exoplayer2.util.NetworkTypeObserver;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * App-wide bandwidth meter seeded with the last good estimate stored per network
+ * type (Wi-Fi, 2G/3G/4G/5G, ...), so a new session starts on a sensible rendition
+ * instead of ExoPlayer's country-based default. Every player and the preloader
+ * share this one meter.
+ */
+public final class BandwidthEstimateStore {
+    private static final String TAG = "BandwidthEstimateStore";
+    private static final String PREFS_NAME = "ivs_player_bandwidth";
+    private static final String KEY_PREFIX = "estimate_";
+    // Write at most this often; estimates change with every segment
+    private static final long SAVE_INTERVAL_MS = 10000;
+    // DefaultBandwidthMeter keeps its initial estimate until this much has been transferred
+    private static final long ELAPSED_MS_FOR_ESTIMATE = 2000;
+    private static final long BYTES_FOR_ESTIMATE = 512 * 1024;
+
+    // Where the meter's current estimate came from
+    public static final String SOURCE_STORED = "stored";
+    public static final String SOURCE_DEFAULT = "default";
+    public static final String SOURCE_MEASURED = "measured";
+
+    private static final int[] NETWORK_TYPES = {
+        C.NETWORK_TYPE_WIFI,
+        C.NETWORK_TYPE_ETHERNET,
+        C.NETWORK_TYPE_2G,
+        C.NETWORK_TYPE_3G,
+        C.NETWORK_TYPE_4G,
+        C.NETWORK_TYPE_5G_NSA,
+        C.NETWORK_TYPE_5G_SA
+    };
+
+    private static BandwidthEstimateStore instance;
+
+    private final SharedPreferences prefs;
+    private final NetworkTypeObserver networkTypeObserver;
+    private final DefaultBandwidthMeter bandwidthMeter;
+    private final SharedPreferences.Editor pendingEdits;
+    private final Set<Integer> seededNetworkTypes = new HashSet<>();
+    private long lastSaveMs = 0;
+    // Tracked on the main thread, alongside the meter's own reseeding on network type changes
+    private int meterNetworkType;
+    private long sampledElapsedMs = 0;
+    private long sampledBytes = 0;
+    private volatile String estimateSource;
+
+    public static synchronized BandwidthEstimateStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new BandwidthEstimateStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private BandwidthEstimateStore(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.pendingEdits = prefs.edit();
+        this.networkTypeObserver = NetworkTypeObserver.getInstance(context);
+
+        DefaultBandwidthMeter.Builder builder = new DefaultBandwidthMeter.Builder(context);
+        for (int networkType : NETWORK_TYPES) {
+            long stored = prefs.getLong(KEY_PREFIX + networkType, 0);
+            if (stored > 0) {
+                builder.setInitialBitrateEstimate(networkType, stored);
+                seededNetworkTypes.add(networkType);
+                Log.d(TAG, "Seeding " + networkTypeName(networkType) + " with " + stored + " bps");
+            }
+        }
+        this.bandwidthMeter = builder.build();
+        this.meterNetworkType = networkTypeObserver.getNetworkType();
+        this.estimateSource = seedSource(meterNetworkType);
+        this.bandwidthMeter.addEventListener(new Handler(Looper.getMainLooper()),
+            (elapsedMs, bytesTransferred, bitrateEstimate) -> onSample(elapsedMs, bytesTransferred, bitrateEstimate));
+        this.networkTypeObserver.register(this::onNetworkTypeChanged);
+    }
+
+    public DefaultBandwidthMeter getBandwidthMeter() {
+        return bandwidthMeter;
+    }
+
+    public int getNetworkType() {
+        return networkTypeObserver.getNetworkType();
+    }
+
+    /**
+     * Stored estimate for the current network type, or 0 if none was saved yet
+     */
+    public long getStoredEstimate() {
+        return prefs.getLong(KEY_PREFIX + getNetworkType(), 0);
+    }
+
+    /**
+     * Where the current estimate came from: SOURCE_STORED or SOURCE_DEFAULT while the
+     * meter still holds the seed for this network type, SOURCE_MEASURED once enough
+     * has been transferred on it
+     */
+    public String getEstimateSource() {
+        return estimateSource;
+    }
+
+    public long getCurrentEstimate() {
+        return bandwidthMeter.getBitrateEstimate();
+    }
+
+    private void onSample(int elapsedMs, long bytesTransferred, long bitrateEstimate) {
+        sampledElapsedMs += elapsedMs;
+        sampledBytes += bytesTransferred;
+        if (sampledElapsedMs >= ELAPSED_MS_FOR_ESTIMATE || sampledBytes >= BYTES_FOR_ESTIMATE) {
+            estimateSource = SOURCE_MEASURED;
+        }
+        save(bitrateEstimate);
+    }
+
+    /**
+     * Mirrors DefaultBandwidthMeter, which drops its samples and goes back to the seed
+     * whenever the network type changes to a known one
+     */
+    private void onNetworkTypeChanged(int networkType) {
+        if (networkType == meterNetworkType) return;
+        meterNetworkType = networkType;
+        if (networkType == C.NETWORK_TYPE_OFFLINE
+            || networkType == C.NETWORK_TYPE_UNKNOWN
+            || networkType == C.NETWORK_TYPE_OTHER) {
+            return;
+        }
+        sampledElapsedMs = 0;
+        sampledBytes = 0;
+        estimateSource = seedSource(networkType);
+        Log.d(TAG, "Reseeded for " + networkTypeName(networkType) + " from " + estimateSource + " estimate");
+    }
+
+    private String seedSource(int networkType) {
+        return seededNetworkTypes.contains(networkType) ? SOURCE_STORED : SOURCE_DEFAULT;
+    }
+
+    private void save(long bitrateEstimate) {
+        int networkType = getNetworkType();
+        if (bitrateEstimate <= 0 || !isPersistedType(networkType)) return;
+
+        long now = SystemClock.elapsedRealtime();
+        if (now - lastSaveMs < SAVE_INTERVAL_MS) return;
+        lastSaveMs = now;
+        pendingEdits.putLong(KEY_PREFIX + networkType, bitrateEstimate).apply();
+    }
+
+    private static boolean isPersistedType(int networkType) {
+        for (int type : NETWORK_TYPES) {
+            if (type == networkType) return true;
+        }
+        return false;
+    }
+
+    public static String networkTypeName(int networkType) {
+        switch (networkType) {
+            case C.NETWORK_TYPE_WIFI:
+                return "wifi";
+            case C.NETWORK_TYPE_ETHERNET:
+                return "ethernet";
+            case C.NETWORK_TYPE_2G:
+                return "2g";
+            case C.NETWORK_TYPE_3G:
+                return "3g";
+            case C.NETWORK_TYPE_4G:
+                return "4g";
+            case C.NETWORK_TYPE_5G_NSA:
+                return "5g-nsa";
+            case C.NETWORK_TYPE_5G_SA:
+                return "5g-sa";
+            case C.NETWORK_TYPE_OFFLINE:
+                return "offline";
+            case C.NETWORK_TYPE_CELLULAR_UNKNOWN:
+                return "cellular";
+            default:
+                return "unknown";
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import com.google.android.exoplayer2.DefaultLoadControl;
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+
+/**
+ * Named buffer profiles selectable from JS via initialize({ bufferProfile })
+ */
+public enum BufferProfile {
+    // Live: get the first frame out quickly, keep the buffer short to stay near the edge
+    LIVE_FAST_START("live-fast-start", 4000, 15000, 500, 1500, 0),
+    // Live on flaky networks: a little more latency in exchange for fewer stalls
+    LIVE_STABLE("live-stable", 10000, 30000, 1500, 3000, 0),
+    // Recordings: deep forward buffer plus back buffer so short seeks back don't refetch
+    VOD_DEEP_BUFFER("vod-deep-buffer", 30000, 120000, 2500, 5000, 30000),
+    // Recordings on metered links: enough to ride out a dip, not minutes the viewer may never watch
+    VOD_METERED("vod-metered", 15000, 30000, 2500, 5000, 0);
+
+    public final String jsName;
+    public final int minBufferMs;
+    public final int maxBufferMs;
+    public final int bufferForPlaybackMs;
+    public final int bufferForPlaybackAfterRebufferMs;
+    public final int backBufferDurationMs;
+
+    BufferProfile(String jsName, int minBufferMs, int maxBufferMs, int bufferForPlaybackMs,
+                  int bufferForPlaybackAfterRebufferMs, int backBufferDurationMs) {
+        this.jsName = jsName;
+        this.minBufferMs = minBufferMs;
+        this.maxBufferMs = maxBufferMs;
+        this.bufferForPlaybackMs = bufferForPlaybackMs;
+        this.bufferForPlaybackAfterRebufferMs = bufferForPlaybackAfterRebufferMs;
+        this.backBufferDurationMs = backBufferDurationMs;
+    }
+
+    public LoadControl buildLoadControl(DefaultAllocator allocator) {
+        return new DefaultLoadControl.Builder()
+            .setAllocator(allocator)
+            .setBufferDurationsMs(minBufferMs, maxBufferMs, bufferForPlaybackMs, bufferForPlaybackAfterRebufferMs)
+            .setBackBuffer(backBufferDurationMs, true)
+            .setPrioritizeTimeOverSizeThresholds(true)
+            .build();
+    }
+
+    /**
+     * Look up a profile by its JS name, returns null for unknown names
+     */
+    public static BufferProfile fromName(String name) {
+        if (name == null) return null;
+        for (BufferProfile profile : values()) {
+            if (profile.jsName.equals(name)) {
+                return profile;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.dxsoltech.sampradayaevents.dlna.DeviceRecord;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renderers seen on earlier launches, persisted so the cast picker can list them
+ * before SSDP has answered. Entries are hints only: DlnaDiscovery revalidates each one
+ * with a description fetch before trusting it. Shared by every player's DlnaService.
+ */
+public final class DlnaDeviceRegistry {
+    private static final String TAG = "DlnaDeviceRegistry";
+    private static final String PREFS_NAME = "ivs_player_dlna";
+    private static final String KEY_DEVICES = "devices";
+    // A renderer unseen for this long has most likely left the household
+    private static final long MAX_AGE_MS = 30L * 24 * 60 * 60 * 1000;
+    private static final int MAX_DEVICES = 16;
+
+    private static DlnaDeviceRegistry instance;
+
+    private final SharedPreferences prefs;
+    // By UDN, least recently seen first
+    private final Map<String, DeviceRecord> records = new LinkedHashMap<>();
+
+    public static synchronized DlnaDeviceRegistry getInstance(Context context) {
+        if (instance == null) {
+            instance = new DlnaDeviceRegistry(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private DlnaDeviceRegistry(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        long now = System.currentTimeMillis();
+        for (DeviceRecord record : DeviceRecord.decodeAll(prefs.getString(KEY_DEVICES, null))) {
+            if (now - record.lastSeenMs < MAX_AGE_MS) {
+                records.put(record.udn, record);
+            }
+        }
+        Log.d(TAG, "Loaded " + records.size() + " remembered renderer(s)");
+    }
+
+    /**
+     * Remembered renderers that can take a stream, most recently seen first
+     */
+    public synchronized List<DeviceRecord> getPlayableDevices() {
+        List<DeviceRecord> playable = new ArrayList<>(records.size());
+        for (DeviceRecord record : records.values()) {
+            if (record.has(DeviceRecord.CAPABILITY_AV_TRANSPORT)) {
+                playable.add(0, record);
+            }
+        }
+        return playable;
+    }
+
+    /**
+     * Store or refresh a renderer just confirmed on the LAN
+     */
+    public synchronized void remember(DeviceRecord record) {
+        if (record == null) return;
+        records.remove(record.udn);
+        records.put(record.udn, record);
+        Iterator<DeviceRecord> oldest = records.values().iterator();
+        while (records.size() > MAX_DEVICES && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+        save();
+    }
+
+    public synchronized void forget(String udn) {
+        if (records.remove(udn) != null) {
+            save();
+        }
+    }
+
+    private void save() {
+        prefs.edit().putString(KEY_DEVICES, DeviceRecord.encodeAll(records.values())).apply();
+    }
+}
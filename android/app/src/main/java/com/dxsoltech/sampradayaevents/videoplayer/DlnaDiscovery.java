@@ -0,0 +1,420 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.content.Context;
+import android.net.wifi.WifiManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.dxsoltech.sampradayaevents.dlna.DescriptionFetcher;
+import com.dxsoltech.sampradayaevents.dlna.DeviceDescription;
+import com.dxsoltech.sampradayaevents.dlna.DeviceRecord;
+import com.dxsoltech.sampradayaevents.dlna.DeviceTable;
+import com.dxsoltech.sampradayaevents.dlna.HttpTransport;
+import com.dxsoltech.sampradayaevents.dlna.RendererClient;
+import com.dxsoltech.sampradayaevents.dlna.SsdpMessage;
+import com.dxsoltech.sampradayaevents.dlna.SsdpParser;
+import com.dxsoltech.sampradayaevents.dlna.SsdpSearch;
+import com.dxsoltech.sampradayaevents.videoplayer.DlnaService.DlnaDevice;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * SSDP discovery shared by every player's DlnaService: one device table, one search
+ * loop, one listener on port 1900 and one multicast lock for the whole app.
+ * <p>
+ * Discovery is lazy. It starts when a DLNA button is shown or a picker opens, keeps
+ * running while a picker is open, and stops after IDLE_STOP_MS without either, or
+ * when the app goes to the background. Public methods are called on the main thread;
+ * listener callbacks arrive there too.
+ */
+public final class DlnaDiscovery {
+    private static final String TAG = "DlnaDiscovery";
+    private static final long HTTP_TIMEOUT_MS = 5000;
+    private static final MediaType SOAP_MEDIA_TYPE = MediaType.get("text/xml; charset=utf-8");
+    private static final int SEARCH_MX_SECONDS = 3;
+    // Receive timeout: how often the discovery loops check for stop, re-search and expiry
+    private static final int RECEIVE_TIMEOUT_MS = 1000;
+    // Description fetches run on a small pool; busy LANs queue rather than fan out
+    private static final int MAX_DESCRIPTION_FETCHES = 3;
+    private static final long DESCRIPTION_TTL_MS = 5 * 60 * 1000;
+    // Failed fetches are not retried sooner, however often the device announces itself
+    private static final long DESCRIPTION_FAILURE_TTL_MS = 15 * 1000;
+    // Discovery keeps running this long after the DLNA button was last shown or a picker closed
+    private static final long IDLE_STOP_MS = 60 * 1000;
+    
+    private static DlnaDiscovery instance;
+    
+    public interface Listener {
+        void onDeviceFound(DlnaDevice device);
+        void onDeviceRemoved(DlnaDevice device);
+    }
+    
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final DlnaDeviceRegistry registry;
+    private WifiManager.MulticastLock multicastLock;
+    private boolean isDiscovering = false;
+    private boolean inBackground = false;
+    private int openPickers = 0;
+    private final Runnable idleStop = this::stopIfIdle;
+    // Bumped on every start/stop; discovery loops exit once their generation is stale
+    private final AtomicInteger discoveryGeneration = new AtomicInteger();
+    private volatile boolean searchRequested = false;
+    private final Random searchJitter = new Random();
+    // Renderers announced on the LAN, with their parsed device once described
+    private final DeviceTable<DlnaDevice> deviceTable = new DeviceTable<>(new DeviceTableListener(),
+        SsdpSearch.ST_AV_TRANSPORT, SsdpSearch.ST_MEDIA_RENDERER);
+    // Shares the app-wide connection pool, with short LAN timeouts
+    private final OkHttpClient httpClient = SharedHttpClient.withTimeouts(HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS);
+    // Protocol code lives in :dlna-core; this class only supplies sockets and HTTP
+    private final RendererClient rendererClient = new RendererClient(new OkHttpTransport());
+    // One cache and one set of in-flight fetches for every player
+    private final DescriptionFetcher descriptionFetcher = new DescriptionFetcher(rendererClient,
+        MAX_DESCRIPTION_FETCHES, DESCRIPTION_TTL_MS, DESCRIPTION_FAILURE_TTL_MS, SystemClock::elapsedRealtime);
+    
+    public static synchronized DlnaDiscovery getInstance(Context context) {
+        if (instance == null) {
+            instance = new DlnaDiscovery(context.getApplicationContext());
+        }
+        return instance;
+    }
+    
+    private DlnaDiscovery(Context context) {
+        this.registry = DlnaDeviceRegistry.getInstance(context);
+        WifiManager wifi = (WifiManager) context.getSystemService(Context.WIFI_SERVICE);
+        if (wifi != null) {
+            multicastLock = wifi.createMulticastLock("dlna_discovery");
+            multicastLock.setReferenceCounted(false);
+        }
+    }
+    
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+    
+    public RendererClient getRendererClient() {
+        return rendererClient;
+    }
+    
+    /**
+     * Described renderers currently on the LAN, in discovery order
+     */
+    public List<DlnaDevice> getDevices() {
+        return deviceTable.values();
+    }
+    
+    /**
+     * The DLNA button was shown: make sure discovery runs for the next IDLE_STOP_MS
+     */
+    public void touch() {
+        if (inBackground) return;
+        start();
+        scheduleIdleStop();
+    }
+    
+    /**
+     * A picker opened: discovery runs, with a fresh search burst, until pickerClosed
+     */
+    public void pickerOpened() {
+        openPickers++;
+        mainHandler.removeCallbacks(idleStop);
+        if (inBackground) return;
+        start();
+        searchRequested = true;
+    }
+    
+    public void pickerClosed() {
+        if (openPickers > 0) openPickers--;
+        if (openPickers == 0) scheduleIdleStop();
+    }
+    
+    /**
+     * Discovery (and its multicast lock) runs only while the app is in front; known
+     * renderers stay listed until their SSDP max-age lapses
+     */
+    public void setInBackground(boolean background) {
+        inBackground = background;
+        if (background) {
+            mainHandler.removeCallbacks(idleStop);
+            stop();
+        } else if (openPickers > 0) {
+            start();
+        }
+    }
+    
+    private void scheduleIdleStop() {
+        mainHandler.removeCallbacks(idleStop);
+        mainHandler.postDelayed(idleStop, IDLE_STOP_MS);
+    }
+    
+    private void stopIfIdle() {
+        if (openPickers == 0) {
+            Log.d(TAG, "Discovery idle, stopping");
+            stop();
+        }
+    }
+    
+    /**
+     * Continuous discovery: listen for NOTIFY announcements and re-search with jitter
+     * until stop. The multicast lock is held only while this runs.
+     */
+    private void start() {
+        if (isDiscovering) return;
+        isDiscovering = true;
+        
+        if (multicastLock != null) {
+            multicastLock.acquire();
+        }
+        
+        int generation = discoveryGeneration.incrementAndGet();
+        executor.execute(() -> runSearchLoop(generation));
+        executor.execute(() -> runNotifyListener(generation));
+        revalidateRemembered();
+    }
+    
+    private void stop() {
+        if (!isDiscovering) return;
+        isDiscovering = false;
+        discoveryGeneration.incrementAndGet();
+        if (multicastLock != null && multicastLock.isHeld()) {
+            multicastLock.release();
+        }
+    }
+    
+    /**
+     * Sends M-SEARCH on a schedule and takes the unicast responses; also expires devices
+     * whose max-age ran out
+     */
+    private void runSearchLoop(int generation) {
+        byte[] searchMessage = SsdpSearch.build(SsdpSearch.ST_AV_TRANSPORT, SEARCH_MX_SECONDS);
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(RECEIVE_TIMEOUT_MS);
+            InetAddress group = InetAddress.getByName(SsdpSearch.MULTICAST_ADDRESS);
+            DatagramPacket search = new DatagramPacket(searchMessage, searchMessage.length, group, SsdpSearch.PORT);
+            byte[] buffer = new byte[8192];
+            DatagramPacket response = new DatagramPacket(buffer, buffer.length);
+            
+            // Entries may have aged while discovery was off; give them one search round to answer
+            long expireFrom = SystemClock.elapsedRealtime() + (SEARCH_MX_SECONDS + 1) * 1000L;
+            long nextSearchAt = 0;
+            int searchesSent = 0;
+            while (discoveryGeneration.get() == generation) {
+                long now = SystemClock.elapsedRealtime();
+                if (searchRequested) {
+                    searchRequested = false;
+                    searchesSent = 0;
+                    nextSearchAt = now;
+                }
+                if (now >= nextSearchAt) {
+                    socket.send(search);
+                    searchesSent++;
+                    nextSearchAt = now + SsdpSearch.searchDelayMs(searchesSent, searchJitter.nextDouble());
+                    Log.d(TAG, "Sent SSDP M-SEARCH");
+                }
+                if (now >= expireFrom) {
+                    deviceTable.expire(now);
+                }
+                
+                try {
+                    response.setLength(buffer.length);
+                    socket.receive(response);
+                    // Parsed in place from the receive buffer
+                    deviceTable.observe(SsdpParser.parse(response.getData(), response.getOffset(), response.getLength()),
+                        SystemClock.elapsedRealtime());
+                } catch (SocketTimeoutException e) {
+                    // Tick
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "SSDP search error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Joins the SSDP group for ssdp:alive / ssdp:byebye announcements, so devices
+     * appear when switched on and disappear when switched off without polling
+     */
+    private void runNotifyListener(int generation) {
+        try (MulticastSocket socket = new MulticastSocket(SsdpSearch.PORT)) {
+            InetAddress group = InetAddress.getByName(SsdpSearch.MULTICAST_ADDRESS);
+            socket.setSoTimeout(RECEIVE_TIMEOUT_MS);
+            socket.joinGroup(group);
+            byte[] buffer = new byte[8192];
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                while (discoveryGeneration.get() == generation) {
+                    try {
+                        packet.setLength(buffer.length);
+                        socket.receive(packet);
+                        SsdpMessage message = SsdpParser.parse(packet.getData(), packet.getOffset(), packet.getLength());
+                        if (message != null && message.kind == SsdpMessage.Kind.NOTIFY) {
+                            deviceTable.observe(message, SystemClock.elapsedRealtime());
+                        }
+                    } catch (SocketTimeoutException e) {
+                        // Tick
+                    }
+                }
+            } finally {
+                socket.leaveGroup(group);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "SSDP notify listener error: " + e.getMessage());
+        }
+    }
+    
+    private void fetchDeviceDescription(DeviceTable.Entry<DlnaDevice> entry) {
+        descriptionFetcher.fetch(entry.location, new DescriptionFetcher.Callback() {
+            @Override
+            public void onDescription(DeviceDescription description) {
+                DlnaDevice device = DlnaDevice.from(description);
+                if (deviceTable.attach(entry, device)) {
+                    if (description.canPlayMedia()) {
+                        registry.remember(DeviceRecord.from(description, System.currentTimeMillis()));
+                    }
+                    postFound(device);
+                }
+            }
+            
+            @Override
+            public void onError(IOException error) {
+                Log.e(TAG, "Error fetching device description: " + error.getMessage());
+                // The device's next announcement retries, once the failure has aged out of the cache
+                deviceTable.discard(entry);
+            }
+        });
+    }
+    
+    private class DeviceTableListener implements DeviceTable.Listener<DlnaDevice> {
+        @Override
+        public void onDeviceSeen(DeviceTable.Entry<DlnaDevice> entry) {
+            Log.d(TAG, "SSDP device " + entry.udn + " at " + entry.location);
+            fetchDeviceDescription(entry);
+        }
+        
+        @Override
+        public void onDeviceGone(DeviceTable.Entry<DlnaDevice> entry) {
+            descriptionFetcher.invalidate(entry.location);
+            DlnaDevice device = entry.value();
+            if (device != null) {
+                postRemoved(device);
+            }
+        }
+    }
+    
+    /**
+     * Cheap check that each remembered renderer still answers at its stored location;
+     * the ones that don't leave the pickers until SSDP finds them again
+     */
+    private void revalidateRemembered() {
+        for (DeviceRecord record : registry.getPlayableDevices()) {
+            DlnaDevice device = DlnaDevice.from(record);
+            revalidate(device, confirmed -> {
+                if (confirmed != null) {
+                    postFound(confirmed);
+                } else {
+                    postRemoved(device);
+                }
+            });
+        }
+    }
+    
+    public interface RevalidationCallback {
+        /**
+         * confirmed is null unless the same device answered and can still take a stream;
+         * runs on a fetch thread
+         */
+        void onResult(DlnaDevice confirmed);
+    }
+    
+    /**
+     * Fetch the description of a remembered renderer through the shared fetcher
+     */
+    public void revalidate(DlnaDevice remembered, RevalidationCallback callback) {
+        descriptionFetcher.fetch(remembered.location, new DescriptionFetcher.Callback() {
+            @Override
+            public void onDescription(DeviceDescription description) {
+                if (!remembered.udn.equals(description.udn)) {
+                    // Another device took the address; the renderer itself will turn up via SSDP
+                    registry.forget(remembered.udn);
+                    callback.onResult(null);
+                } else if (!description.canPlayMedia()) {
+                    callback.onResult(null);
+                } else {
+                    registry.remember(DeviceRecord.from(description, System.currentTimeMillis()));
+                    callback.onResult(DlnaDevice.from(description));
+                }
+            }
+            
+            @Override
+            public void onError(IOException error) {
+                Log.d(TAG, "Remembered renderer " + remembered.name + " not reachable: " + error.getMessage());
+                callback.onResult(null);
+            }
+        });
+    }
+    
+    private void postFound(DlnaDevice device) {
+        mainHandler.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onDeviceFound(device);
+            }
+        });
+    }
+    
+    private void postRemoved(DlnaDevice device) {
+        mainHandler.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onDeviceRemoved(device);
+            }
+        });
+    }
+    
+    // RendererClient transport over the shared OkHttp pool
+    private class OkHttpTransport implements HttpTransport {
+        @Override
+        public Result get(String url) throws IOException {
+            Request request = new Request.Builder().url(url).get().build();
+            return execute(request);
+        }
+        
+        @Override
+        public Result postSoap(String url, String soapAction, String body) throws IOException {
+            Request request = new Request.Builder()
+                .url(url)
+                .header("SOAPAction", soapAction)
+                .post(RequestBody.create(body, SOAP_MEDIA_TYPE))
+                .build();
+            return execute(request);
+        }
+        
+        private Result execute(Request request) throws IOException {
+            try (Response response = httpClient.newCall(request).execute()) {
+                return new Result(response.code(), response.body() != null ? response.body().string() : null);
+            }
+        }
+    }
+}
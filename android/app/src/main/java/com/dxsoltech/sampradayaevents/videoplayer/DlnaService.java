@@ -3,7 +3,7 @@ package com.dxsoltech.sampradayaevents.videoplayer;
 import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.Context;
-import android.net.wifi.WifiManager;
+import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
@@ -12,28 +12,21 @@ import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.TextView;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.HttpURLConnection;
-import java.net.InetAddress;
-import java.net.MulticastSocket;
-import java.net.URL;
+import com.dxsoltech.sampradayaevents.dlna.DeviceDescription;
+import com.dxsoltech.sampradayaevents.dlna.DeviceRecord;
+import com.dxsoltech.sampradayaevents.dlna.RendererClient;
+import com.dxsoltech.sampradayaevents.dlna.SoapResult;
+
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class DlnaService {
     private static final String TAG = "DlnaService";
-    private static final String SSDP_ADDRESS = "239.255.255.250";
-    private static final int SSDP_PORT = 1900;
-    private static final String SEARCH_TARGET = "urn:schemas-upnp-org:service:AVTransport:1";
+    // Longest the picker waits for a first device before showing the searching dialog
+    private static final long PICKER_WAIT_MS = 3000;
     
     private Activity activity;
     private ExecutorService executor;
@@ -42,8 +35,32 @@ public class DlnaService {
     private DlnaDeviceListener deviceListener;
     private DlnaDevice selectedDevice;
     private String currentMediaUrl;
-    private boolean isDiscovering = false;
-    private WifiManager.MulticastLock multicastLock;
+    // Shared by every player; discoveredDevices mirrors its devices on the main thread
+    private final DlnaDiscovery discovery;
+    private final DlnaDiscovery.Listener discoveryListener = new DlnaDiscovery.Listener() {
+        @Override
+        public void onDeviceFound(DlnaDevice device) {
+            addDevice(device);
+        }
+        
+        @Override
+        public void onDeviceRemoved(DlnaDevice device) {
+            removeDevice(device);
+        }
+    };
+    private DeviceListAdapter pickerAdapter;
+    private String pendingPickerUrl;
+    private final Runnable pendingPickerTimeout = () -> {
+        String mediaUrl = pendingPickerUrl;
+        pendingPickerUrl = null;
+        if (mediaUrl != null) {
+            showPickerDialog(mediaUrl);
+        }
+    };
+    // Relay fetches go out with the player's latest signed URLs
+    private volatile HlsRelayServer.UrlRewriter urlRewriter = url -> url;
+    // Protocol code lives in :dlna-core; this class only supplies the UI
+    private final RendererClient rendererClient;
     
     public static class DlnaDevice {
         public String name;
@@ -51,6 +68,34 @@ public class DlnaService {
         public String location;
         public String controlUrl;
         public String udn;
+        // From an earlier launch and not yet confirmed on the LAN this session
+        public boolean remembered;
+        
+        static DlnaDevice from(DeviceRecord record) {
+            DlnaDevice device = new DlnaDevice();
+            device.location = record.location;
+            device.name = record.name != null && !record.name.isEmpty() ? record.name : "Unknown Device";
+            device.manufacturer = record.manufacturer;
+            device.udn = record.udn;
+            device.controlUrl = record.controlUrl;
+            device.remembered = true;
+            return device;
+        }
+        
+        static DlnaDevice from(DeviceDescription description) {
+            DlnaDevice device = new DlnaDevice();
+            device.location = description.location;
+            device.name = description.friendlyName;
+            device.manufacturer = description.manufacturer;
+            device.udn = description.udn;
+            device.controlUrl = description.avTransportControlUrl;
+            
+            if (device.name == null || device.name.isEmpty()) {
+                device.name = "Unknown Device";
+            }
+            
+            return device;
+        }
         
         @Override
         public String toString() {
@@ -69,225 +114,155 @@ public class DlnaService {
         this.activity = activity;
         this.executor = Executors.newCachedThreadPool();
         this.mainHandler = new Handler(Looper.getMainLooper());
+        this.discovery = DlnaDiscovery.getInstance(activity);
+        this.rendererClient = discovery.getRendererClient();
         
-        // Acquire multicast lock for SSDP discovery
-        WifiManager wifi = (WifiManager) activity.getApplicationContext().getSystemService(Context.WIFI_SERVICE);
-        if (wifi != null) {
-            multicastLock = wifi.createMulticastLock("dlna_discovery");
-            multicastLock.setReferenceCounted(true);
+        // Renderers another player already found, then remembered ones, which are
+        // revalidated once discovery starts
+        discoveredDevices.addAll(discovery.getDevices());
+        for (DeviceRecord record : DlnaDeviceRegistry.getInstance(activity).getPlayableDevices()) {
+            if (indexOfDevice(record.udn) < 0) {
+                discoveredDevices.add(DlnaDevice.from(record));
+            }
         }
+        discovery.addListener(discoveryListener);
     }
     
     public void setDeviceListener(DlnaDeviceListener listener) {
         this.deviceListener = listener;
     }
     
-    public void startDiscovery() {
-        if (isDiscovering) return;
-        isDiscovering = true;
-        
-        if (multicastLock != null && !multicastLock.isHeld()) {
-            multicastLock.acquire();
-        }
-        
-        executor.execute(() -> {
-            try {
-                discoverDevices();
-            } catch (Exception e) {
-                Log.e(TAG, "Discovery error: " + e.getMessage());
-            }
-        });
+    public void setUrlRewriter(HlsRelayServer.UrlRewriter rewriter) {
+        this.urlRewriter = rewriter;
     }
     
-    public void stopDiscovery() {
-        isDiscovering = false;
-        if (multicastLock != null && multicastLock.isHeld()) {
-            multicastLock.release();
-        }
+    /**
+     * The DLNA button is showing: have discovery running so the picker opens populated
+     */
+    public void prepareDiscovery() {
+        discovery.touch();
     }
     
-    private void discoverDevices() {
-        try {
-            // Send SSDP M-SEARCH
-            String searchMessage = 
-                "M-SEARCH * HTTP/1.1\r\n" +
-                "HOST: " + SSDP_ADDRESS + ":" + SSDP_PORT + "\r\n" +
-                "MAN: \"ssdp:discover\"\r\n" +
-                "MX: 3\r\n" +
-                "ST: " + SEARCH_TARGET + "\r\n" +
-                "\r\n";
-            
-            DatagramSocket socket = new DatagramSocket();
-            socket.setSoTimeout(5000);
-            
-            InetAddress group = InetAddress.getByName(SSDP_ADDRESS);
-            DatagramPacket packet = new DatagramPacket(
-                searchMessage.getBytes(), 
-                searchMessage.length(), 
-                group, 
-                SSDP_PORT
-            );
-            
-            socket.send(packet);
-            Log.d(TAG, "Sent SSDP M-SEARCH");
-            
-            // Listen for responses
-            byte[] buffer = new byte[8192];
-            long endTime = System.currentTimeMillis() + 5000;
-            
-            while (System.currentTimeMillis() < endTime && isDiscovering) {
-                try {
-                    DatagramPacket response = new DatagramPacket(buffer, buffer.length);
-                    socket.receive(response);
-                    
-                    String responseStr = new String(response.getData(), 0, response.getLength());
-                    Log.d(TAG, "SSDP Response: " + responseStr);
-                    
-                    // Parse LOCATION header
-                    String location = parseHeader(responseStr, "LOCATION");
-                    if (location != null && !location.isEmpty()) {
-                        fetchDeviceDescription(location);
-                    }
-                } catch (Exception e) {
-                    // Timeout or error, continue
-                }
-            }
-            
-            socket.close();
-        } catch (Exception e) {
-            Log.e(TAG, "SSDP discovery error: " + e.getMessage());
+    private void addDevice(DlnaDevice device) {
+        int index = indexOfDevice(device.udn);
+        if (index >= 0) {
+            // Same renderer at a new address
+            discoveredDevices.set(index, device);
+        } else {
+            discoveredDevices.add(device);
         }
-    }
-    
-    private String parseHeader(String response, String header) {
-        String[] lines = response.split("\r\n");
-        for (String line : lines) {
-            if (line.toUpperCase().startsWith(header.toUpperCase() + ":")) {
-                return line.substring(header.length() + 1).trim();
-            }
+        Log.d(TAG, "DLNA device found: " + device.name);
+        if (deviceListener != null) {
+            deviceListener.onDeviceFound(device);
+        }
+        if (pickerAdapter != null) {
+            pickerAdapter.notifyDataSetChanged();
+        }
+        if (pendingPickerUrl != null) {
+            String mediaUrl = pendingPickerUrl;
+            pendingPickerUrl = null;
+            mainHandler.removeCallbacks(pendingPickerTimeout);
+            showPickerDialog(mediaUrl);
         }
-        return null;
-    }
-    
-    private void fetchDeviceDescription(String location) {
-        executor.execute(() -> {
-            try {
-                URL url = new URL(location);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(5000);
-                conn.setReadTimeout(5000);
-                
-                BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-                StringBuilder xml = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    xml.append(line);
-                }
-                reader.close();
-                
-                // Parse device info from XML
-                DlnaDevice device = parseDeviceXml(xml.toString(), location);
-                if (device != null && !containsDevice(device)) {
-                    mainHandler.post(() -> {
-                        discoveredDevices.add(device);
-                        Log.d(TAG, "DLNA device found: " + device.name);
-                        if (deviceListener != null) {
-                            deviceListener.onDeviceFound(device);
-                        }
-                    });
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error fetching device description: " + e.getMessage());
-            }
-        });
     }
     
-    private DlnaDevice parseDeviceXml(String xml, String location) {
-        try {
-            DlnaDevice device = new DlnaDevice();
-            device.location = location;
-            
-            // Simple XML parsing for device info
-            device.name = extractXmlValue(xml, "friendlyName");
-            device.manufacturer = extractXmlValue(xml, "manufacturer");
-            device.udn = extractXmlValue(xml, "UDN");
-            
-            // Find AVTransport control URL
-            String baseUrl = location.substring(0, location.lastIndexOf("/"));
-            String controlUrl = extractXmlValue(xml, "controlURL");
-            if (controlUrl != null) {
-                if (!controlUrl.startsWith("http")) {
-                    controlUrl = baseUrl + (controlUrl.startsWith("/") ? "" : "/") + controlUrl;
-                }
-                device.controlUrl = controlUrl;
-            }
-            
-            if (device.name == null || device.name.isEmpty()) {
-                device.name = "Unknown Device";
-            }
-            
-            return device;
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing device XML: " + e.getMessage());
-            return null;
+    /**
+     * Drops the listed renderer with this UDN if it is the device that went; a sighting
+     * of the same renderer at a newer address stays
+     */
+    private void removeDevice(DlnaDevice device) {
+        int index = indexOfDevice(device.udn);
+        if (index < 0) return;
+        if (!isSameSighting(discoveredDevices.get(index), device)) return;
+        discoveredDevices.remove(index);
+        Log.d(TAG, "DLNA device removed: " + device.name);
+        if (deviceListener != null) {
+            deviceListener.onDeviceRemoved(device);
+        }
+        if (pickerAdapter != null) {
+            pickerAdapter.notifyDataSetChanged();
         }
     }
     
-    private String extractXmlValue(String xml, String tag) {
-        String startTag = "<" + tag + ">";
-        String endTag = "</" + tag + ">";
-        int start = xml.indexOf(startTag);
-        int end = xml.indexOf(endTag);
-        if (start >= 0 && end > start) {
-            return xml.substring(start + startTag.length(), end).trim();
-        }
-        return null;
+    /**
+     * Matched on UDN and location, not identity: a revalidated renderer is listed as a new
+     * instance, while SSDP byebye and expiry report the device table's own. A remembered
+     * renderer that failed revalidation only removes an entry that is still unconfirmed.
+     */
+    static boolean isSameSighting(DlnaDevice listed, DlnaDevice gone) {
+        if (listed.udn == null || !listed.udn.equals(gone.udn)) return false;
+        if (gone.remembered) return listed.remembered;
+        return listed.location != null && listed.location.equals(gone.location);
     }
     
-    private boolean containsDevice(DlnaDevice device) {
-        for (DlnaDevice d : discoveredDevices) {
-            if (d.udn != null && d.udn.equals(device.udn)) {
-                return true;
+    private int indexOfDevice(String udn) {
+        for (int i = 0; i < discoveredDevices.size(); i++) {
+            String known = discoveredDevices.get(i).udn;
+            if (known != null && known.equals(udn)) {
+                return i;
             }
         }
-        return false;
+        return -1;
     }
     
     public List<DlnaDevice> getDiscoveredDevices() {
         return new ArrayList<>(discoveredDevices);
     }
     
+    /**
+     * Opens at once when renderers are already known; otherwise as soon as the first one
+     * answers, or after PICKER_WAIT_MS with the searching message
+     */
     public void showDevicePicker(String mediaUrl) {
         this.currentMediaUrl = mediaUrl;
         
-        // Refresh discovery
-        discoveredDevices.clear();
-        startDiscovery();
+        // Held until a dialog opens and is dismissed; see showPickerDialog
+        if (pendingPickerUrl == null) {
+            discovery.pickerOpened();
+        }
         
-        // Show dialog after a short delay to allow discovery
-        mainHandler.postDelayed(() -> {
-            DeviceListAdapter adapter = new DeviceListAdapter(activity, discoveredDevices);
-            
-            AlertDialog.Builder builder = new AlertDialog.Builder(activity);
-            builder.setTitle("Select DLNA Device");
-            
-            if (discoveredDevices.isEmpty()) {
-                builder.setMessage("Searching for DLNA devices...\n\nMake sure your TV or media player is on the same WiFi network.");
-                builder.setNegativeButton("Cancel", null);
-                builder.setPositiveButton("Refresh", (dialog, which) -> {
-                    mainHandler.postDelayed(() -> showDevicePicker(mediaUrl), 1000);
-                });
-            } else {
-                builder.setAdapter(adapter, (dialog, which) -> {
-                    DlnaDevice device = discoveredDevices.get(which);
-                    playOnDevice(device, mediaUrl);
-                });
-                builder.setNegativeButton("Cancel", null);
+        mainHandler.removeCallbacks(pendingPickerTimeout);
+        if (!discoveredDevices.isEmpty()) {
+            pendingPickerUrl = null;
+            showPickerDialog(mediaUrl);
+        } else {
+            pendingPickerUrl = mediaUrl;
+            mainHandler.postDelayed(pendingPickerTimeout, PICKER_WAIT_MS);
+        }
+    }
+    
+    private void showPickerDialog(String mediaUrl) {
+        if (activity.isFinishing()) {
+            discovery.pickerClosed();
+            return;
+        }
+        AlertDialog.Builder builder = new AlertDialog.Builder(activity);
+        builder.setTitle("Select DLNA Device");
+        
+        if (discoveredDevices.isEmpty()) {
+            builder.setMessage("Searching for DLNA devices...\n\nMake sure your TV or media player is on the same WiFi network.");
+            builder.setNegativeButton("Cancel", null);
+            builder.setPositiveButton("Refresh", (dialog, which) -> showDevicePicker(mediaUrl));
+            // Refresh opens a new hold before this one is let go
+            builder.show().setOnDismissListener(d -> discovery.pickerClosed());
+            return;
+        }
+        
+        // The list stays live: devices found or lost while it is open update in place
+        DeviceListAdapter adapter = new DeviceListAdapter(activity, discoveredDevices);
+        builder.setAdapter(adapter, (dialog, which) -> {
+            DlnaDevice device = discoveredDevices.get(which);
+            playOnDevice(device, mediaUrl);
+        });
+        builder.setNegativeButton("Cancel", null);
+        AlertDialog dialog = builder.show();
+        pickerAdapter = adapter;
+        dialog.setOnDismissListener(d -> {
+            if (pickerAdapter == adapter) {
+                pickerAdapter = null;
             }
-            
-            builder.show();
-        }, 3000); // Wait 3 seconds for discovery
+            discovery.pickerClosed();
+        });
     }
     
     public void playOnDevice(DlnaDevice device, String mediaUrl) {
@@ -301,103 +276,78 @@ public class DlnaService {
             return;
         }
         
-        executor.execute(() -> {
-            try {
-                // Send SetAVTransportURI SOAP action
-                String soapAction = "\"urn:schemas-upnp-org:service:AVTransport:1#SetAVTransportURI\"";
-                String soapBody = 
-                    "<?xml version=\"1.0\" encoding=\"utf-8\"?>" +
-                    "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\" s:encodingStyle=\"http://schemas.xmlsoap.org/soap/encoding/\">" +
-                    "<s:Body>" +
-                    "<u:SetAVTransportURI xmlns:u=\"urn:schemas-upnp-org:service:AVTransport:1\">" +
-                    "<InstanceID>0</InstanceID>" +
-                    "<CurrentURI>" + escapeXml(mediaUrl) + "</CurrentURI>" +
-                    "<CurrentURIMetaData></CurrentURIMetaData>" +
-                    "</u:SetAVTransportURI>" +
-                    "</s:Body>" +
-                    "</s:Envelope>";
-                
-                boolean setUriSuccess = sendSoapRequest(device.controlUrl, soapAction, soapBody);
-                
-                if (setUriSuccess) {
-                    // Send Play SOAP action
-                    String playSoapAction = "\"urn:schemas-upnp-org:service:AVTransport:1#Play\"";
-                    String playSoapBody = 
-                        "<?xml version=\"1.0\" encoding=\"utf-8\"?>" +
-                        "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\" s:encodingStyle=\"http://schemas.xmlsoap.org/soap/encoding/\">" +
-                        "<s:Body>" +
-                        "<u:Play xmlns:u=\"urn:schemas-upnp-org:service:AVTransport:1\">" +
-                        "<InstanceID>0</InstanceID>" +
-                        "<Speed>1</Speed>" +
-                        "</u:Play>" +
-                        "</s:Body>" +
-                        "</s:Envelope>";
-                    
-                    boolean playSuccess = sendSoapRequest(device.controlUrl, playSoapAction, playSoapBody);
-                    
-                    if (playSuccess) {
-                        mainHandler.post(() -> {
-                            if (deviceListener != null) {
-                                deviceListener.onPlaybackStarted();
-                            }
-                        });
-                    } else {
-                        mainHandler.post(() -> {
-                            if (deviceListener != null) {
-                                deviceListener.onPlaybackError("Failed to start playback");
-                            }
-                        });
-                    }
-                } else {
-                    mainHandler.post(() -> {
-                        if (deviceListener != null) {
-                            deviceListener.onPlaybackError("Failed to set media URI");
-                        }
-                    });
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Playback error: " + e.getMessage());
-                mainHandler.post(() -> {
-                    if (deviceListener != null) {
-                        deviceListener.onPlaybackError(e.getMessage());
-                    }
-                });
+        if (!device.remembered) {
+            executor.execute(() -> sendToRenderer(device.controlUrl, mediaUrl));
+            return;
+        }
+        
+        // Confirm a remembered renderer before handing it a stream
+        discovery.revalidate(device, confirmed -> {
+            if (confirmed == null) {
+                mainHandler.post(() -> removeDevice(device));
+                postPlaybackError("Device is not reachable");
+                return;
             }
+            mainHandler.post(() -> {
+                if (selectedDevice == device) {
+                    selectedDevice = confirmed;
+                }
+                addDevice(confirmed);
+            });
+            executor.execute(() -> sendToRenderer(confirmed.controlUrl, mediaUrl));
         });
     }
     
-    private boolean sendSoapRequest(String url, String soapAction, String soapBody) {
+    /**
+     * SetAVTransportURI then Play; runs on the executor
+     */
+    private void sendToRenderer(String controlUrl, String mediaUrl) {
         try {
-            URL controlUrl = new URL(url);
-            HttpURLConnection conn = (HttpURLConnection) controlUrl.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Content-Type", "text/xml; charset=utf-8");
-            conn.setRequestProperty("SOAPAction", soapAction);
-            conn.setDoOutput(true);
-            conn.setConnectTimeout(5000);
-            conn.setReadTimeout(5000);
+            // HLS goes through the on-device relay: plain HTTP, short URLs, no token expiry
+            String deviceUrl = mediaUrl;
+            if (isHls(mediaUrl)) {
+                String relayUrl = HlsRelayServer.getInstance(activity).publish(mediaUrl, urlRewriter);
+                if (relayUrl != null) {
+                    deviceUrl = relayUrl;
+                }
+            }
             
-            PrintWriter writer = new PrintWriter(new OutputStreamWriter(conn.getOutputStream()));
-            writer.print(soapBody);
-            writer.flush();
-            writer.close();
+            SoapResult setUri = rendererClient.setAvTransportUri(controlUrl, deviceUrl, "");
+            if (!setUri.isSuccess()) {
+                Log.w(TAG, "SetAVTransportURI failed: " + setUri);
+                postPlaybackError("Failed to set media URI");
+                return;
+            }
             
-            int responseCode = conn.getResponseCode();
-            Log.d(TAG, "SOAP response code: " + responseCode);
+            SoapResult play = rendererClient.play(controlUrl);
+            if (!play.isSuccess()) {
+                Log.w(TAG, "Play failed: " + play);
+                postPlaybackError("Failed to start playback");
+                return;
+            }
             
-            return responseCode == 200;
+            mainHandler.post(() -> {
+                if (deviceListener != null) {
+                    deviceListener.onPlaybackStarted();
+                }
+            });
         } catch (Exception e) {
-            Log.e(TAG, "SOAP request error: " + e.getMessage());
-            return false;
+            Log.e(TAG, "Playback error: " + e.getMessage());
+            postPlaybackError(e.getMessage());
         }
     }
     
-    private String escapeXml(String text) {
-        return text.replace("&", "&amp;")
-                   .replace("<", "&lt;")
-                   .replace(">", "&gt;")
-                   .replace("\"", "&quot;")
-                   .replace("'", "&apos;");
+    private void postPlaybackError(String error) {
+        mainHandler.post(() -> {
+            if (deviceListener != null) {
+                deviceListener.onPlaybackError(error);
+            }
+        });
+    }
+    
+    private static boolean isHls(String url) {
+        String path = Uri.parse(url).getPath();
+        return path != null && path.toLowerCase(Locale.US).endsWith(".m3u8");
     }
     
     public void stopPlayback() {
@@ -405,20 +355,12 @@ public class DlnaService {
         
         executor.execute(() -> {
             try {
-                String soapAction = "\"urn:schemas-upnp-org:service:AVTransport:1#Stop\"";
-                String soapBody = 
-                    "<?xml version=\"1.0\" encoding=\"utf-8\"?>" +
-                    "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\" s:encodingStyle=\"http://schemas.xmlsoap.org/soap/encoding/\">" +
-                    "<s:Body>" +
-                    "<u:Stop xmlns:u=\"urn:schemas-upnp-org:service:AVTransport:1\">" +
-                    "<InstanceID>0</InstanceID>" +
-                    "</u:Stop>" +
-                    "</s:Body>" +
-                    "</s:Envelope>";
-                
-                sendSoapRequest(selectedDevice.controlUrl, soapAction, soapBody);
+                SoapResult result = rendererClient.stop(selectedDevice.controlUrl);
+                Log.d(TAG, "Stop: " + result);
             } catch (Exception e) {
                 Log.e(TAG, "Stop playback error: " + e.getMessage());
+            } finally {
+                HlsRelayServer.getInstance(activity).stop();
             }
         });
     }
@@ -432,7 +374,12 @@ public class DlnaService {
     }
     
     public void destroy() {
-        stopDiscovery();
+        mainHandler.removeCallbacks(pendingPickerTimeout);
+        if (pendingPickerUrl != null) {
+            pendingPickerUrl = null;
+            discovery.pickerClosed();
+        }
+        discovery.removeListener(discoveryListener);
         stopPlayback();
         if (executor != null) {
             executor.shutdown();
@@ -0,0 +1,554 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheSpan;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadata;
+import com.google.android.exoplayer2.util.UriUtil;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Plain-HTTP relay on the Wi-Fi address so DLNA renderers can play a signed HTTPS
+ * HLS stream through the phone instead of through the backend stream proxy.
+ * Playlists are fetched by the phone (with the player's latest signature) and every
+ * URI in them is rewritten to a short relay path; segments already in the media
+ * cache are sent straight from the cache files with FileChannel.transferTo, the
+ * rest are streamed from the pooled HTTP client. One stream is published at a time;
+ * its paths carry a random session token, so other hosts on the LAN cannot guess them.
+ */
+public final class HlsRelayServer {
+    private static final String TAG = "HlsRelayServer";
+    private static final int WORKER_THREADS = 6;
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+    // A client gets this long to send its request head, so idle connections cannot pin the workers
+    private static final int REQUEST_HEAD_TIMEOUT_MS = 10000;
+    private static final int TRANSFER_BUFFER_BYTES = 64 * 1024;
+    // Rewritten URIs remembered per session; a live playlist adds a few every target duration
+    private static final int MAX_RESOURCES = 2048;
+    private static final Pattern URI_ATTRIBUTE = Pattern.compile("URI=\"([^\"]*)\"");
+    private static final String PLAYLIST_MIME_TYPE = "application/vnd.apple.mpegurl";
+
+    /**
+     * Maps an upstream URL to the form to fetch now, e.g. with a refreshed signature
+     */
+    public interface UrlRewriter {
+        String rewrite(String url);
+    }
+
+    private static HlsRelayServer instance;
+
+    private final Context context;
+    private final OkHttpClient httpClient = SharedHttpClient.getClient();
+    private final SecureRandom random = new SecureRandom();
+    private ServerSocketChannel serverChannel;
+    private ExecutorService workers;
+    private Thread acceptThread;
+    private String baseUrl;
+    private volatile Session session;
+
+    private static final class Session {
+        final String token;
+        final UrlRewriter rewriter;
+        // Relay id -> upstream URL, oldest dropped first
+        final Map<String, String> resources = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_RESOURCES;
+                }
+            });
+
+        Session(String token, UrlRewriter rewriter) {
+            this.token = token;
+            this.rewriter = rewriter;
+        }
+    }
+
+    private static final class RelayRequest {
+        String method;
+        String path;
+        String range;
+    }
+
+    public static synchronized HlsRelayServer getInstance(Context context) {
+        if (instance == null) {
+            instance = new HlsRelayServer(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private HlsRelayServer(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Serve an HLS stream to the LAN and return the plain-HTTP URL for the renderer,
+     * or null when the phone has no LAN address. Replaces any stream published before.
+     */
+    public synchronized String publish(String masterUrl, UrlRewriter rewriter) {
+        if (!ensureStarted()) return null;
+        byte[] tokenBytes = new byte[8];
+        random.nextBytes(tokenBytes);
+        Session newSession = new Session(toHex(tokenBytes), rewriter);
+        String masterId = register(newSession, masterUrl);
+        session = newSession;
+        String relayUrl = baseUrl + "/" + newSession.token + "/" + masterId;
+        Log.d(TAG, "Relaying " + Uri.parse(masterUrl).getPath() + " at " + relayUrl);
+        return relayUrl;
+    }
+
+    public synchronized void stop() {
+        session = null;
+        if (serverChannel != null) {
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Error closing relay socket: " + e.getMessage());
+            }
+            serverChannel = null;
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+        acceptThread = null;
+        baseUrl = null;
+    }
+
+    private boolean ensureStarted() {
+        InetAddress lanAddress = findLanAddress();
+        if (lanAddress == null) {
+            Log.w(TAG, "No LAN address, relay unavailable");
+            return false;
+        }
+        // The Wi-Fi address can change between casts; rebind when it does
+        if (serverChannel != null && serverChannel.isOpen()
+                && baseUrl.equals("http://" + lanAddress.getHostAddress() + ":" + serverChannel.socket().getLocalPort())) {
+            return true;
+        }
+        stop();
+        try {
+            serverChannel = ServerSocketChannel.open();
+            // Bound to the Wi-Fi/Ethernet address only; findLanAddress never picks a cellular interface
+            serverChannel.socket().bind(new InetSocketAddress(lanAddress, 0));
+            baseUrl = "http://" + lanAddress.getHostAddress() + ":" + serverChannel.socket().getLocalPort();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to start relay: " + e.getMessage());
+            serverChannel = null;
+            return false;
+        }
+        workers = Executors.newFixedThreadPool(WORKER_THREADS);
+        ServerSocketChannel channel = serverChannel;
+        ExecutorService pool = workers;
+        acceptThread = new Thread(() -> acceptLoop(channel, pool), "HlsRelayAccept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        Log.d(TAG, "Relay listening on " + baseUrl);
+        return true;
+    }
+
+    private void acceptLoop(ServerSocketChannel channel, ExecutorService pool) {
+        while (channel.isOpen()) {
+            try {
+                SocketChannel client = channel.accept();
+                pool.execute(() -> handle(client));
+            } catch (IOException e) {
+                if (channel.isOpen()) {
+                    Log.w(TAG, "Accept failed: " + e.getMessage());
+                }
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        try (SocketChannel channel = client) {
+            RelayRequest request;
+            try {
+                request = readRequest(channel);
+            } catch (SocketTimeoutException e) {
+                Log.d(TAG, "Closing idle relay connection");
+                return;
+            }
+            if (request == null) return;
+            if (!"GET".equals(request.method) && !"HEAD".equals(request.method)) {
+                writeStatus(channel, 405, "Method Not Allowed");
+                return;
+            }
+            Session current = session;
+            String[] parts = request.path.split("/");
+            // "/<token>/<id>"
+            if (current == null || parts.length != 3 || !parts[1].equals(current.token)) {
+                writeStatus(channel, 404, "Not Found");
+                return;
+            }
+            String upstreamUrl = current.resources.get(parts[2]);
+            if (upstreamUrl == null) {
+                writeStatus(channel, 404, "Not Found");
+                return;
+            }
+            boolean headOnly = "HEAD".equals(request.method);
+            if (isPlaylist(upstreamUrl)) {
+                relayPlaylist(channel, current, upstreamUrl, headOnly);
+            } else if (!serveFromCache(channel, upstreamUrl, request.range, headOnly)) {
+                relaySegment(channel, current, upstreamUrl, request.range, headOnly);
+            }
+        } catch (IOException e) {
+            // Renderers routinely drop connections mid-segment when seeking or stopping
+            Log.d(TAG, "Relay connection ended: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads through the socket's stream, not the channel: SO_TIMEOUT only applies there.
+     * The whole head has to arrive within REQUEST_HEAD_TIMEOUT_MS.
+     */
+    private RelayRequest readRequest(SocketChannel channel) throws IOException {
+        Socket socket = channel.socket();
+        InputStream input = socket.getInputStream();
+        long deadline = SystemClock.elapsedRealtime() + REQUEST_HEAD_TIMEOUT_MS;
+        byte[] buffer = new byte[MAX_HEADER_BYTES];
+        int filled = 0;
+        while (filled < buffer.length) {
+            long remainingMs = deadline - SystemClock.elapsedRealtime();
+            if (remainingMs <= 0) throw new SocketTimeoutException("Request head not received in time");
+            socket.setSoTimeout((int) remainingMs);
+            int read = input.read(buffer, filled, buffer.length - filled);
+            if (read < 0) return null;
+            filled += read;
+            String head = new String(buffer, 0, filled, StandardCharsets.ISO_8859_1);
+            int end = head.indexOf("\r\n\r\n");
+            if (end < 0) continue;
+
+            String[] lines = head.substring(0, end).split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            if (requestLine.length < 2) return null;
+            RelayRequest request = new RelayRequest();
+            request.method = requestLine[0];
+            request.path = Uri.parse(requestLine[1]).getPath();
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon > 0 && lines[i].substring(0, colon).trim().equalsIgnoreCase("Range")) {
+                    request.range = lines[i].substring(colon + 1).trim();
+                }
+            }
+            return request.path != null ? request : null;
+        }
+        writeStatus(channel, 431, "Request Header Fields Too Large");
+        return null;
+    }
+
+    private void relayPlaylist(SocketChannel channel, Session current, String upstreamUrl, boolean headOnly) throws IOException {
+        Request request = new Request.Builder().url(current.rewriter.rewrite(upstreamUrl)).build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                writeStatus(channel, response.code() == 404 ? 404 : 502, "Upstream " + response.code());
+                return;
+            }
+            // Relative URIs resolve against the final URL after redirects
+            String playlistUrl = response.request().url().toString();
+            byte[] rewritten = rewritePlaylist(current, playlistUrl, body.string()).getBytes(StandardCharsets.UTF_8);
+            writeHeaders(channel, 200, "OK", PLAYLIST_MIME_TYPE, rewritten.length, null);
+            if (!headOnly) {
+                writeFully(channel, ByteBuffer.wrap(rewritten));
+            }
+        }
+    }
+
+    /**
+     * Point every URI line and URI="..." attribute at the relay
+     */
+    private String rewritePlaylist(Session current, String playlistUrl, String playlist) {
+        StringBuilder out = new StringBuilder(playlist.length() + 256);
+        for (String line : playlist.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                out.append('\n');
+            } else if (!trimmed.startsWith("#")) {
+                out.append(relayPath(current, UriUtil.resolve(playlistUrl, trimmed))).append('\n');
+            } else if (trimmed.contains("URI=\"")) {
+                Matcher matcher = URI_ATTRIBUTE.matcher(trimmed);
+                StringBuffer tag = new StringBuffer();
+                while (matcher.find()) {
+                    String relayed = relayPath(current, UriUtil.resolve(playlistUrl, matcher.group(1)));
+                    matcher.appendReplacement(tag, Matcher.quoteReplacement("URI=\"" + relayed + "\""));
+                }
+                matcher.appendTail(tag);
+                out.append(tag).append('\n');
+            } else {
+                out.append(trimmed).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private String relayPath(Session current, String upstreamUrl) {
+        return "/" + current.token + "/" + register(current, upstreamUrl);
+    }
+
+    /**
+     * Relay ids are stable per URL without its query, so a re-signed playlist maps
+     * segments to the same paths; the extension is kept because renderers sniff it
+     */
+    private static String register(Session current, String upstreamUrl) {
+        Uri uri = Uri.parse(upstreamUrl);
+        String path = uri.getPath() != null ? uri.getPath() : "";
+        int dot = path.lastIndexOf('.');
+        String extension = dot > path.lastIndexOf('/') ? path.substring(dot).toLowerCase(Locale.US) : "";
+        String id = hash(uri.buildUpon().clearQuery().fragment(null).build().toString()) + extension;
+        current.resources.put(id, upstreamUrl);
+        return id;
+    }
+
+    private static boolean isPlaylist(String url) {
+        String path = Uri.parse(url).getPath();
+        return path != null && path.toLowerCase(Locale.US).endsWith(".m3u8");
+    }
+
+    /**
+     * Send a segment the player or preloader already fetched straight from the cache
+     * files. Returns false to fall back to upstream when it is not completely cached.
+     */
+    private boolean serveFromCache(SocketChannel channel, String upstreamUrl, String range, boolean headOnly) throws IOException {
+        Cache cache = MediaCache.getInstance(context);
+        String key = MediaCache.CACHE_KEY_FACTORY.buildCacheKey(new DataSpec(Uri.parse(upstreamUrl)));
+        long length = ContentMetadata.getContentLength(cache.getContentMetadata(key));
+        if (length == C.LENGTH_UNSET || !cache.isCached(key, 0, length)) return false;
+
+        // A range this relay does not honour is answered with the whole body as 200
+        String servedRange = isSingleByteRange(range) ? range : null;
+        long[] bounds = parseRange(servedRange, length);
+        if (bounds == null) {
+            writeHeaders(channel, 416, "Range Not Satisfiable", null, 0, "bytes */" + length);
+            return true;
+        }
+        long start = bounds[0];
+        long end = bounds[1];
+        NavigableSet<CacheSpan> spans = cache.getCachedSpans(key);
+        boolean headersSent = false;
+        for (CacheSpan span : spans) {
+            long spanEnd = span.position + span.length - 1;
+            if (span.file == null || spanEnd < start || span.position > end) continue;
+            try (FileInputStream input = new FileInputStream(span.file)) {
+                if (!headersSent) {
+                    writeHeaders(channel, servedRange != null ? 206 : 200, servedRange != null ? "Partial Content" : "OK",
+                        contentTypeFor(upstreamUrl), end - start + 1,
+                        servedRange != null ? "bytes " + start + "-" + end + "/" + length : null);
+                    headersSent = true;
+                    if (headOnly) return true;
+                }
+                FileChannel file = input.getChannel();
+                long from = Math.max(start, span.position) - span.position;
+                long to = Math.min(end, spanEnd) - span.position + 1;
+                while (from < to) {
+                    // Zero-copy: the kernel moves cache file pages to the socket
+                    long sent = file.transferTo(from, to - from, channel);
+                    if (sent <= 0) throw new IOException("Socket closed during transfer");
+                    from += sent;
+                }
+            } catch (FileNotFoundException e) {
+                // Evicted between the lookup and the read
+                if (!headersSent) return false;
+                throw e;
+            }
+        }
+        return headersSent;
+    }
+
+    private void relaySegment(SocketChannel channel, Session current, String upstreamUrl, String range, boolean headOnly) throws IOException {
+        Request.Builder builder = new Request.Builder().url(current.rewriter.rewrite(upstreamUrl));
+        if (range != null) {
+            builder.header("Range", range);
+        }
+        if (headOnly) {
+            builder.head();
+        }
+        try (Response response = httpClient.newCall(builder.build()).execute()) {
+            ResponseBody body = response.body();
+            if ((response.code() != 200 && response.code() != 206) || body == null) {
+                writeStatus(channel, response.code() == 404 || response.code() == 416 ? response.code() : 502,
+                    "Upstream " + response.code());
+                return;
+            }
+            String contentType = response.header("Content-Type", contentTypeFor(upstreamUrl));
+            writeHeaders(channel, response.code(), response.code() == 206 ? "Partial Content" : "OK",
+                contentType, body.contentLength(), response.header("Content-Range"));
+            if (headOnly) return;
+            try (InputStream input = body.byteStream()) {
+                ReadableByteChannel source = Channels.newChannel(input);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_BUFFER_BYTES);
+                while (source.read(buffer) >= 0) {
+                    buffer.flip();
+                    writeFully(channel, buffer);
+                    buffer.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Multi-range and non-byte ranges are ignored, as RFC 9110 allows
+     */
+    private static boolean isSingleByteRange(String range) {
+        return range != null && range.startsWith("bytes=") && !range.contains(",");
+    }
+
+    /**
+     * Single "bytes=a-b", "bytes=a-" or "bytes=-n" range, inclusive bounds; the whole
+     * body without one; null if unsatisfiable
+     */
+    private static long[] parseRange(String range, long length) {
+        if (range == null) return new long[] { 0, length - 1 };
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Math.min(length - 1, Long.parseLong(spec.substring(dash + 1)));
+            }
+            return start <= end && start < length ? new long[] { start, end } : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String contentTypeFor(String url) {
+        String path = Uri.parse(url).getPath();
+        path = path != null ? path.toLowerCase(Locale.US) : "";
+        if (path.endsWith(".ts")) return "video/mp2t";
+        if (path.endsWith(".m4s") || path.endsWith(".mp4")) return "video/mp4";
+        if (path.endsWith(".aac")) return "audio/aac";
+        if (path.endsWith(".vtt")) return "text/vtt";
+        return "application/octet-stream";
+    }
+
+    private static void writeStatus(SocketChannel channel, int status, String reason) throws IOException {
+        writeHeaders(channel, status, reason, null, 0, null);
+    }
+
+    private static void writeHeaders(SocketChannel channel, int status, String reason, String contentType,
+                                     long contentLength, String contentRange) throws IOException {
+        StringBuilder head = new StringBuilder()
+            .append("HTTP/1.1 ").append(status).append(' ').append(reason).append("\r\n")
+            .append("Connection: close\r\n")
+            .append("Accept-Ranges: bytes\r\n")
+            // DLNA renderers expect streaming transfer mode for media
+            .append("transferMode.dlna.org: Streaming\r\n");
+        if (contentType != null) {
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        if (contentLength >= 0) {
+            head.append("Content-Length: ").append(contentLength).append("\r\n");
+        }
+        if (contentRange != null) {
+            head.append("Content-Range: ").append(contentRange).append("\r\n");
+        }
+        head.append("\r\n");
+        writeFully(channel, ByteBuffer.wrap(head.toString().getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * First site-local IPv4 address on a Wi-Fi or Ethernet interface that is up,
+     * preferring Wi-Fi. Cellular interfaces (rmnet, ccmni) are never used even when
+     * the carrier hands out a 10.x address, so null without a LAN.
+     */
+    private static InetAddress findLanAddress() {
+        InetAddress fallback = null;
+        try {
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            while (interfaces != null && interfaces.hasMoreElements()) {
+                NetworkInterface networkInterface = interfaces.nextElement();
+                if (!networkInterface.isUp() || networkInterface.isLoopback()) continue;
+                String name = networkInterface.getName();
+                boolean wifi = name.startsWith("wlan");
+                if (!wifi && !name.startsWith("eth")) continue;
+                Enumeration<InetAddress> addresses = networkInterface.getInetAddresses();
+                while (addresses.hasMoreElements()) {
+                    InetAddress address = addresses.nextElement();
+                    if (!(address instanceof Inet4Address) || !address.isSiteLocalAddress()) continue;
+                    if (wifi) return address;
+                    if (fallback == null) fallback = address;
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to list network interfaces: " + e.getMessage());
+        }
+        return fallback;
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+            byte[] prefix = new byte[8];
+            System.arraycopy(digest, 0, prefix, 0, prefix.length);
+            return toHex(prefix);
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format(Locale.US, "%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -1,13 +1,24 @@
 package com.dxsoltech.sampradayaevents.videoplayer;
 
 import android.app.Activity;
+import android.app.PictureInPictureParams;
 import android.content.ComponentName;
 import android.content.pm.ActivityInfo;
+import android.content.pm.PackageManager;
 import android.content.res.ColorStateList;
+import android.graphics.Rect;
 import android.os.Build;
+import android.os.ConditionVariable;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
 import android.support.v4.media.MediaMetadataCompat;
 import android.support.v4.media.session.MediaSessionCompat;
 import android.support.v4.media.session.PlaybackStateCompat;
+import android.util.Rational;
+import android.view.Surface;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
@@ -16,6 +27,7 @@ import android.graphics.Color;
 import android.view.Gravity;
 import android.view.ContextThemeWrapper;
 
+import androidx.annotation.RequiresApi;
 import androidx.media.session.MediaButtonReceiver;
 import androidx.mediarouter.app.MediaRouteButton;
 import com.google.android.gms.cast.MediaInfo;
@@ -30,22 +42,41 @@ import com.google.android.gms.cast.framework.media.RemoteMediaClient;
 import com.google.android.material.button.MaterialButton;
 
 import com.getcapacitor.Bridge;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.DefaultLivePlaybackSpeedControl;
 import com.google.android.exoplayer2.ExoPlayer;
+import com.google.android.exoplayer2.Format;
 import com.google.android.exoplayer2.MediaItem;
+import com.google.android.exoplayer2.PlaybackException;
 import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.decoder.DecoderReuseEvaluation;
+import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.source.hls.DefaultHlsDataSourceFactory;
+import com.google.android.exoplayer2.source.hls.HlsDataSourceFactory;
+import com.google.android.exoplayer2.source.hls.HlsMediaSource;
+import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
 import com.google.android.exoplayer2.ui.AspectRatioFrameLayout;
 import com.google.android.exoplayer2.ui.StyledPlayerView;
 import com.google.android.exoplayer2.util.MimeTypes;
+import com.google.android.exoplayer2.video.VideoSize;
 
 import com.dxsoltech.sampradayaevents.R;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
 public class IvsPlayerManager {
     
     private final Activity activity;
     private final Bridge bridge;
-    private ExoPlayer player;
+    private volatile ExoPlayer player;
+    private DefaultTrackSelector trackSelector;
     private StyledPlayerView playerView;
-    private MediaSessionCompat mediaSession;
+    private volatile MediaSessionCompat mediaSession;
     
     private FrameLayout fullscreenRoot;
     private FrameLayout playerContainer;
@@ -59,7 +90,7 @@ public class IvsPlayerManager {
     private CastContext castContext;
     private SessionManager sessionManager;
     private CastSession castSession;
-    private String currentMediaUrl;
+    private volatile String currentMediaUrl;
     private SessionManagerListener<CastSession> sessionManagerListener;
     
     // DLNA support
@@ -73,62 +104,739 @@ public class IvsPlayerManager {
     // Controls timeout in milliseconds (2 seconds as requested)
     private static final int CONTROLS_TIMEOUT_MS = 2000;
     
+    // Low-latency live mode: keep viewers within a few seconds of the IVS ingest
+    private static final long LOW_LATENCY_TARGET_OFFSET_MS = 3000;
+    private static final long LOW_LATENCY_MIN_OFFSET_MS = 2000;
+    private static final long LOW_LATENCY_MAX_OFFSET_MS = 8000;
+    private static final float LOW_LATENCY_MIN_SPEED = 0.97f;
+    private static final float LOW_LATENCY_MAX_SPEED = 1.05f;
+    // How far the target offset grows after each rebuffer (ExoPlayer default is 500ms)
+    private static final long LOW_LATENCY_REBUFFER_INCREMENT_MS = 250;
+    private boolean lowLatency = false;
+    private BufferProfile bufferProfile;
+    
+    // Application thread of the player: main, or its own thread with dedicatedPlaybackThread.
+    // On main, async messages skip the UI thread's traversal barriers.
+    private volatile Handler playerHandler = createMainPlayerHandler();
+    private boolean dedicatedPlaybackThread = false;
+    private HandlerThread playbackThread;
+    // A player on its own thread draws to this view's surface instead of StyledPlayerView
+    private SurfacePlayerView surfacePlayerView;
+    private volatile Surface videoSurface;
+    private volatile VideoSize videoSize = VideoSize.UNKNOWN;
+    // How long the UI thread waits for the player to let go of a destroyed surface
+    private static final long SURFACE_DETACH_TIMEOUT_MS = 2000;
+    
+    // Warm reuse and startup measurement
+    private volatile boolean parked = true;
+    // Written by initialize on the UI thread and by queue switches on the player's thread
+    private volatile boolean warmStart = false;
+    private volatile long initializeStartMs = 0;
+    private volatile long timeToFirstFrameMs = -1;
+    private final Runnable positionOverlayRunnable = this::positionAsCenteredOverlay;
+    private long initialBitrateEstimate = 0;
+    private String initialEstimateSource = BandwidthEstimateStore.SOURCE_DEFAULT;
+    
+    // Viewport ABR cap: size of the surface the video is currently drawn on
+    private int viewportWidth = Integer.MAX_VALUE;
+    private int viewportHeight = Integer.MAX_VALUE;
+    
+    // Multi-player budget: bitrate cap and whether this player has audio and the MediaSession
+    private int maxVideoBitrate = Integer.MAX_VALUE;
+    private boolean focused = true;
+    
+    // QoE telemetry, shared across pooled managers by the plugin
+    private QoeCollector qoeCollector;
+    private PlayerEventListener playerEventListener;
+    
+    // State snapshot for plugin queries from any thread
+    private static final long SNAPSHOT_INTERVAL_MS = 500;
+    private final AtomicReference<PlayerStateSnapshot> stateSnapshot = new AtomicReference<>(PlayerStateSnapshot.EMPTY);
+    private final Runnable snapshotTick = new Runnable() {
+        @Override
+        public void run() {
+            // A tick left on a released player's thread stops here
+            if (!isOnPlayerThread()) return;
+            publishSnapshot();
+            playerHandler.postDelayed(this, SNAPSHOT_INTERVAL_MS);
+        }
+    };
+    
+    // Background audio-only mode while the app is not visible
+    private boolean backgroundAudioEnabled = true;
+    private boolean inBackgroundAudio = false;
+    
+    // Frame-synced overlay positioning driven by setPlayerBounds
+    private volatile OverlayBoundsSync boundsSync;
+    
+    // Picture-in-picture: layout, overlays and rendition cap to restore on exit
+    private static final Rational PIP_MIN_ASPECT = new Rational(100, 239);
+    private static final Rational PIP_MAX_ASPECT = new Rational(239, 100);
+    private boolean autoPictureInPicture = false;
+    private boolean inPictureInPicture = false;
+    private ViewGroup.LayoutParams prePipLayoutParams;
+    private float prePipTranslationX;
+    private float prePipTranslationY;
+    private int prePipBadgeVisibility = View.GONE;
+    private int prePipViewportWidth;
+    private int prePipViewportHeight;
+    
+    // Playlist queue: several events on one player, switched without rebuilding it
+    private static final int MAX_QUEUE_ITEMS = 8;
+    // Replaced whole, never modified, so any thread can read it
+    private volatile List<QueueItem> queue = Collections.emptyList();
+    private volatile String currentQueueItemId;
+    private final Runnable nextItemWarmup = this::warmUpNextQueueItem;
+    
+    // Network-aware policy: buffer profile and rendition cap follow metered status and data saver
+    private static final int METERED_BITRATE_CAP = 2_500_000;
+    private static final int DATA_SAVER_BITRATE_CAP = 800_000;
+    private SwitchableLoadControl loadControl;
+    private boolean currentIsLive = false;
+    private int networkBitrateCap = Integer.MAX_VALUE;
+    private final NetworkMonitor.Listener networkListener = this::onNetworkPolicyChanged;
+    
+    // Signed URLs are refreshed in place; requests are rewritten at the data source
+    private final SignedUrlRefresher urlRefresher = new SignedUrlRefresher((url, reason, expiresAtMs) -> {
+        if (playerEventListener != null) {
+            playerEventListener.onUrlRefreshRequired(url, reason, expiresAtMs);
+        }
+    });
+    
+    // Error classification, backoff retries and stall watchdog; one per player, on its thread
+    private volatile PlaybackRecovery recovery;
+    
+    /**
+     * Player events forwarded to the plugin (main thread, whichever thread the player runs on)
+     */
+    public interface PlayerEventListener {
+        void onPlaybackStateChanged(String state, boolean isPlaying);
+        void onPlayerError(PlaybackException error);
+        void onRenditionChanged(Format format);
+        void onQueueItemChanged(String itemId);
+        void onRecoveryAction(String action, String reason, int attempt, long delayMs);
+        void onUrlRefreshRequired(String url, String reason, long expiresAtMs);
+    }
+    
+    /**
+     * One entry of the playlist queue
+     */
+    public static final class QueueItem {
+        public final String id;
+        public final String url;
+        public final boolean isRecording;
+        // Null when the app did not say which event the item belongs to
+        public final String eventId;
+        
+        public QueueItem(String id, String url, boolean isRecording, String eventId) {
+            this.id = id;
+            this.url = url;
+            this.isRecording = isRecording;
+            this.eventId = eventId;
+        }
+    }
+    
     public IvsPlayerManager(Activity activity, Bridge bridge) {
         this.activity = activity;
         this.bridge = bridge;
         this.originalOrientation = activity.getRequestedOrientation();
     }
     
-    public void initialize(String url, String playerId, boolean autoplay) {
+    public void initialize(PlaybackOptions options) {
+        String url = options.url;
+        boolean lowLatency = options.lowLatency;
+        
+        // Resolve the offline copy first so a missing or expired download fails before any UI is built
+        MediaSource offlineSource = null;
+        if (options.downloadId != null) {
+            offlineSource = RecordingDownloads.getInstance(activity).createOfflineMediaSource(options.downloadId);
+        }
+        
+        initializeStartMs = SystemClock.elapsedRealtime();
+        timeToFirstFrameMs = -1;
+        
+        // Record the estimate this session starts from (drives the initial rendition)
+        BandwidthEstimateStore bandwidthStore = BandwidthEstimateStore.getInstance(activity);
+        initialBitrateEstimate = bandwidthStore.getCurrentEstimate();
+        initialEstimateSource = bandwidthStore.getEstimateSource();
+        android.util.Log.d("IvsPlayerManager", "Initial bandwidth estimate: " + initialBitrateEstimate + " bps ("
+            + initialEstimateSource + ", "
+            + BandwidthEstimateStore.networkTypeName(bandwidthStore.getNetworkType()) + ")");
+        warmStart = playerContainer != null;
+        
+        if (qoeCollector != null) {
+            boolean isLive = !options.isRecording && options.downloadId == null;
+            qoeCollector.startSession(isLive, options.bufferProfile != null ? options.bufferProfile.jsName : null, options.eventId);
+        }
+        
         // Store media URL for casting
         this.currentMediaUrl = url;
         
         // Initialize Cast context
         initializeCast();
         
-        // Create ExoPlayer instance
-        player = new ExoPlayer.Builder(activity).build();
+        // Reuse the warm ExoPlayer when it was built with the same configuration
+        ensurePlayer(lowLatency, options.bufferProfile, options.dedicatedPlaybackThread);
         
-        // Create PlayerView (ExoPlayer uses TextureView by default in StyledPlayerView)
-        playerView = new StyledPlayerView(activity);
-        playerView.setUseController(true);
-        playerView.setPlayer(player);
+        // Overlay hierarchy is built once and kept across park/initialize cycles
+        if (playerContainer == null) {
+            buildViewHierarchy();
+        }
+        attachVideoView();
+        if (surfacePlayerView != null) {
+            surfacePlayerView.setShutterVisible(true);
+        }
         
-        // Set controls timeout to 2 seconds
-        playerView.setControllerShowTimeoutMs(CONTROLS_TIMEOUT_MS);
+        // Initialize DLNA service; discovery waits until the DLNA button is shown
+        if (dlnaService == null) {
+            initializeDlna();
+        }
         
-        // Add controller visibility listener to show/hide fullscreen, cast, and DLNA buttons with controls
-        playerView.setControllerVisibilityListener(new StyledPlayerView.ControllerVisibilityListener() {
+        // Add player container to decor view - start in fullscreen landscape
+        ViewGroup decor = (ViewGroup) activity.getWindow().getDecorView();
+        FrameLayout.LayoutParams fullscreenParams = new FrameLayout.LayoutParams(
+            ViewGroup.LayoutParams.MATCH_PARENT,
+            ViewGroup.LayoutParams.MATCH_PARENT
+        );
+        decor.addView(playerContainer, fullscreenParams);
+        playerContainer.bringToFront();
+        parked = false;
+        
+        // Start in fullscreen landscape mode, or embedded until setPlayerBounds places it
+        if (options.startFullscreen) {
+            enterFullscreenOnInit();
+        } else {
+            positionAsCenteredOverlay();
+        }
+        
+        // Setup MediaSession for background audio and lockscreen controls
+        if (mediaSession == null) {
+            setupMediaSession();
+        }
+        // Only the focused player owns the lockscreen controls
+        mediaSession.setActive(focused);
+        
+        // Prepare media item
+        queue = Collections.emptyList();
+        currentQueueItemId = null;
+        playerHandler.removeCallbacks(nextItemWarmup);
+        MediaItem mediaItem = buildMediaItem(url, null);
+        urlRefresher.clear();
+        if (offlineSource == null) {
+            urlRefresher.register(url, options.urlExpiresAt);
+            urlRefresher.setActive(url);
+        }
+        
+        // Pick up DNS/playlist/segment work done by an earlier preload() of this URL
+        StreamPreloader preloader = StreamPreloader.getInstance(activity);
+        MediaSource mediaSource;
+        if (offlineSource != null) {
+            android.util.Log.d("IvsPlayerManager", "Playing downloaded recording " + options.downloadId);
+            mediaSource = offlineSource;
+        } else if (options.isRecording) {
+            // Recordings go through the on-disk segment cache so seeks and rewatches are local.
+            // Checked before the preload: preloaded segments share this cache and are read from it.
+            mediaSource = createHlsMediaSource(
+                new DefaultHlsDataSourceFactory(MediaCache.createRecordingDataSourceFactory(activity)), mediaItem);
+        } else if (preloader.hasPreload(url)) {
+            android.util.Log.d("IvsPlayerManager", "Using preloaded stream for " + url);
+            mediaSource = createHlsMediaSource(preloader.createHlsDataSourceFactory(url), mediaItem);
+        } else {
+            // Playlists and segments over the shared pooled HTTP/2 client
+            mediaSource = createHlsMediaSource(
+                new DefaultHlsDataSourceFactory(SharedHttpClient.createDataSourceFactory()), mediaItem);
+        }
+        
+        // Caps and buffer profile for the current network before the first track selection
+        currentIsLive = !options.isRecording && options.downloadId == null;
+        NetworkMonitor.getInstance(activity).addListener(networkListener);
+        applyNetworkPolicy();
+        
+        boolean autoplay = options.autoplay;
+        withPlayer(p -> {
+            p.setMediaSource(mediaSource);
+            p.prepare();
+            p.setPlayWhenReady(autoplay);
+            recovery.attach(p);
+            
+            playerHandler.removeCallbacks(snapshotTick);
+            playerHandler.post(snapshotTick);
+        });
+    }
+    
+    private MediaItem buildMediaItem(String url, String mediaId) {
+        MediaItem.Builder mediaItemBuilder = new MediaItem.Builder()
+            .setUri(url)
+            .setMimeType(MimeTypes.APPLICATION_M3U8);
+        if (mediaId != null) {
+            mediaItemBuilder.setMediaId(mediaId);
+        }
+        if (lowLatency) {
+            mediaItemBuilder.setLiveConfiguration(new MediaItem.LiveConfiguration.Builder()
+                .setTargetOffsetMs(LOW_LATENCY_TARGET_OFFSET_MS)
+                .setMinOffsetMs(LOW_LATENCY_MIN_OFFSET_MS)
+                .setMaxOffsetMs(LOW_LATENCY_MAX_OFFSET_MS)
+                .setMinPlaybackSpeed(LOW_LATENCY_MIN_SPEED)
+                .setMaxPlaybackSpeed(LOW_LATENCY_MAX_SPEED)
+                .build());
+        }
+        return mediaItemBuilder.build();
+    }
+    
+    /**
+     * Queue several events on this player. ExoPlayer prepares every item of its playlist,
+     * so each queued stream's playlists are loaded (and kept fresh for live) in the
+     * background, and segments of the next item are warmed into the segment cache.
+     * Only that warm-up writes the cache; queued sources just read from it.
+     * Switching is then a seek within the playlist: same decoders, surface and
+     * connections, and only the first segment left to fetch. When the item now playing
+     * is in the new queue it keeps playing; otherwise playback moves to startIndex.
+     */
+    public boolean setQueue(List<QueueItem> items, int startIndex) {
+        if (parked || player == null || items.isEmpty() || items.size() > MAX_QUEUE_ITEMS) return false;
+        int start = Math.max(0, Math.min(startIndex, items.size() - 1));
+        
+        List<MediaSource> sources = new ArrayList<>();
+        int playingIndex = -1;
+        for (int i = 0; i < items.size(); i++) {
+            QueueItem item = items.get(i);
+            sources.add(createQueueMediaSource(item));
+            if (playingIndex < 0 && item.url.equals(currentMediaUrl)) {
+                playingIndex = i;
+            }
+        }
+        queue = Collections.unmodifiableList(new ArrayList<>(items));
+        currentQueueItemId = items.get(playingIndex >= 0 ? playingIndex : start).id;
+        
+        int playing = playingIndex;
+        withPlayer(p -> {
+            if (playing >= 0) {
+                // Rebuild the playlist around the current item without interrupting it
+                int current = p.getCurrentMediaItemIndex();
+                p.removeMediaItems(current + 1, p.getMediaItemCount());
+                p.removeMediaItems(0, current);
+                p.addMediaSources(0, sources.subList(0, playing));
+                p.addMediaSources(sources.subList(playing + 1, sources.size()));
+                android.util.Log.d("IvsPlayerManager", "Queue set around playing item " + items.get(playing).id);
+            } else {
+                p.setMediaSources(sources, start, C.TIME_UNSET);
+                p.prepare();
+                markSwitchStart(items.get(start));
+                android.util.Log.d("IvsPlayerManager", "Queue set, starting at " + items.get(start).id);
+            }
+            scheduleNextItemWarmup();
+        });
+        return true;
+    }
+    
+    /**
+     * Jump to a queued item at its default position (the live edge for live events)
+     */
+    public boolean switchToQueueItem(String itemId) {
+        if (parked || player == null) return false;
+        List<QueueItem> items = queue;
+        for (int i = 0; i < items.size(); i++) {
+            QueueItem item = items.get(i);
+            if (item.id.equals(itemId)) {
+                int index = i;
+                currentQueueItemId = item.id;
+                withPlayer(p -> {
+                    if (index != p.getCurrentMediaItemIndex()) {
+                        markSwitchStart(item);
+                        p.seekToDefaultPosition(index);
+                        p.setPlayWhenReady(true);
+                    }
+                });
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public List<QueueItem> getQueue() {
+        return new ArrayList<>(queue);
+    }
+    
+    public String getCurrentQueueItemId() {
+        return currentQueueItemId;
+    }
+    
+    private MediaSource createQueueMediaSource(QueueItem item) {
+        MediaItem mediaItem = buildMediaItem(item.url, item.id);
+        urlRefresher.register(item.url, 0);
+        if (item.isRecording) {
+            return createHlsMediaSource(
+                new DefaultHlsDataSourceFactory(MediaCache.createRecordingDataSourceFactory(activity)), mediaItem);
+        }
+        // Read-only segment cache: whatever the warm-up fetched is read locally, and misses
+        // stream from the network without writing every live segment of the item to disk
+        return createHlsMediaSource(StreamPreloader.getInstance(activity).createHlsDataSourceFactory(item.url), mediaItem);
+    }
+    
+    /**
+     * Every HLS source reads through the signed URL rewriter and holds rejected loads
+     * in a retry loop while a fresh URL is fetched
+     */
+    private MediaSource createHlsMediaSource(HlsDataSourceFactory dataSourceFactory, MediaItem mediaItem) {
+        return new HlsMediaSource.Factory(urlRefresher.wrap(dataSourceFactory))
+            .setLoadErrorHandlingPolicy(urlRefresher.getLoadErrorHandlingPolicy())
+            .createMediaSource(mediaItem);
+    }
+    
+    /**
+     * Take a fresh signed URL for the stream now playing or a queued one. Later requests
+     * use it without touching the buffer; a player stopped by the rejected URL re-prepares.
+     */
+    public boolean refreshSignedUrl(String url, long expiresAtMs) {
+        if (parked || !urlRefresher.update(url, expiresAtMs)) return false;
+        withPlayer(p -> {
+            if (p.getPlayerError() != null) {
+                android.util.Log.d("IvsPlayerManager", "Re-preparing after signed URL refresh");
+                p.prepare();
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * A switch is measured like a start, getStartupMetrics reports its time to first frame.
+     * Player thread.
+     */
+    private void markSwitchStart(QueueItem item) {
+        initializeStartMs = SystemClock.elapsedRealtime();
+        timeToFirstFrameMs = -1;
+        warmStart = true;
+        currentMediaUrl = item.url;
+    }
+    
+    private void scheduleNextItemWarmup() {
+        playerHandler.removeCallbacks(nextItemWarmup);
+        playerHandler.post(nextItemWarmup);
+    }
+    
+    private void warmUpNextQueueItem() {
+        List<QueueItem> items = queue;
+        ExoPlayer current = player;
+        if (parked || current == null || current.getApplicationLooper() != Looper.myLooper() || items.isEmpty()) return;
+        int next = current.getCurrentMediaItemIndex() + 1;
+        if (next >= items.size()) return;
+        QueueItem item = items.get(next);
+        // One pass per item: preloaded segments are written to the shared media cache, and
+        // re-warming a live item all session would evict recordings with live data
+        StreamPreloader.getInstance(activity).preload(item.url, null);
+    }
+    
+    /**
+     * Build the player and overlay hierarchy ahead of time so the next initialize
+     * only has to attach the container and load media
+     */
+    public void prewarm(boolean lowLatency, BufferProfile bufferProfile, boolean dedicatedPlaybackThread) {
+        initializeCast();
+        ensurePlayer(lowLatency, bufferProfile, dedicatedPlaybackThread);
+        if (playerContainer == null) {
+            buildViewHierarchy();
+        }
+        attachVideoView();
+        if (mediaSession == null) {
+            setupMediaSession();
+            mediaSession.setActive(false);
+        }
+        // Cast listener is only registered while attached
+        if (sessionManager != null && sessionManagerListener != null) {
+            sessionManager.removeSessionManagerListener(sessionManagerListener, CastSession.class);
+        }
+        parked = true;
+        android.util.Log.d("IvsPlayerManager", "prewarm: player and overlay ready");
+    }
+    
+    /**
+     * Stop playback and detach from the window but keep the player, views, MediaSession
+     * and DLNA service alive for reuse. Use destroy() to release everything.
+     */
+    public void park() {
+        if (parked) return;
+        
+        exitBackgroundAudio();
+        if (inPictureInPicture) {
+            onPictureInPictureModeChanged(false, 0, 0);
+        }
+        urlRefresher.clear();
+        NetworkMonitor.getInstance(activity).removeListener(networkListener);
+        if (qoeCollector != null) {
+            qoeCollector.endSession();
+        }
+        if (isFullscreen) {
+            exitFullscreen();
+        }
+        if (playerContainer != null) {
+            playerContainer.removeCallbacks(positionOverlayRunnable);
+        }
+        
+        withPlayer(p -> {
+            recovery.detach();
+            p.stop();
+            p.clearMediaItems();
+            playerHandler.removeCallbacks(nextItemWarmup);
+            playerHandler.removeCallbacks(snapshotTick);
+            // After stop(), whose listener callbacks have already published
+            stateSnapshot.set(PlayerStateSnapshot.EMPTY);
+        });
+        
+        if (mediaSession != null) {
+            mediaSession.setActive(false);
+        }
+        
+        if (sessionManager != null && sessionManagerListener != null) {
+            sessionManager.removeSessionManagerListener(sessionManagerListener, CastSession.class);
+        }
+        castSession = null;
+        
+        if (badgeView != null) {
+            badgeView.setVisibility(View.GONE);
+        }
+        
+        if (playerContainer != null && playerContainer.getParent() != null) {
+            ((ViewGroup) playerContainer.getParent()).removeView(playerContainer);
+        }
+        
+        currentMediaUrl = null;
+        queue = Collections.emptyList();
+        currentQueueItemId = null;
+        stateSnapshot.set(PlayerStateSnapshot.EMPTY);
+        parked = true;
+        updatePictureInPictureParams();
+        android.util.Log.d("IvsPlayerManager", "park: player kept warm");
+    }
+    
+    public boolean isParked() {
+        return parked;
+    }
+    
+    /**
+     * LoadControl, LivePlaybackSpeedControl and the application looper are fixed at
+     * build time, so the warm player is only reused when it was built with the same options
+     */
+    private void ensurePlayer(boolean lowLatency, BufferProfile bufferProfile, boolean dedicatedPlaybackThread) {
+        if (player != null && this.lowLatency == lowLatency && this.bufferProfile == bufferProfile
+                && this.dedicatedPlaybackThread == dedicatedPlaybackThread) {
+            return;
+        }
+        releasePlayer();
+        this.lowLatency = lowLatency;
+        this.bufferProfile = bufferProfile;
+        this.dedicatedPlaybackThread = dedicatedPlaybackThread;
+        
+        if (dedicatedPlaybackThread) {
+            // Commands, listener callbacks and MediaSession updates run here, away from
+            // WebView work; only view changes are posted to the UI thread
+            playbackThread = new HandlerThread("IvsPlayer", Process.THREAD_PRIORITY_DISPLAY);
+            playbackThread.start();
+            playerHandler = new Handler(playbackThread.getLooper());
+        }
+        
+        // Track selector keeps the viewport cap so renditions follow the surface size
+        trackSelector = new DefaultTrackSelector(activity);
+        applyTrackSelectionCaps();
+        
+        // Create ExoPlayer instance on the shared bandwidth meter seeded from the last session
+        ExoPlayer.Builder playerBuilder = new ExoPlayer.Builder(activity)
+            .setTrackSelector(trackSelector)
+            .setBandwidthMeter(BandwidthEstimateStore.getInstance(activity).getBandwidthMeter())
+            .setLooper(playerHandler.getLooper());
+        if (lowLatency) {
+            // Bounded speed adjustment so the player drifts back to the target offset
+            // instead of letting latency accumulate after every stall
+            playerBuilder.setLivePlaybackSpeedControl(new DefaultLivePlaybackSpeedControl.Builder()
+                .setFallbackMinPlaybackSpeed(LOW_LATENCY_MIN_SPEED)
+                .setFallbackMaxPlaybackSpeed(LOW_LATENCY_MAX_SPEED)
+                .setTargetLiveOffsetIncrementOnRebufferMs(LOW_LATENCY_REBUFFER_INCREMENT_MS)
+                .build());
+        }
+        // Buffer profile can be swapped later when the network changes
+        loadControl = new SwitchableLoadControl(bufferProfile);
+        playerBuilder.setLoadControl(loadControl);
+        if (bufferProfile != null) {
+            android.util.Log.d("IvsPlayerManager", "Using buffer profile: " + bufferProfile.jsName);
+        }
+        // Built here, everything after build() happens on the player's thread
+        recovery = createRecovery();
+        player = playerBuilder.build();
+        QoeCollector collector = qoeCollector;
+        withPlayer(p -> configurePlayer(p, collector));
+    }
+    
+    private void configurePlayer(ExoPlayer player, QoeCollector collector) {
+        player.setVolume(focused ? 1f : 0f);
+        if (collector != null) {
+            player.addAnalyticsListener(collector);
+        }
+        Surface surface = videoSurface;
+        if (surface != null) {
+            player.setVideoSurface(surface);
+        }
+        
+        // Add player listener for state changes
+        player.addListener(new Player.Listener() {
             @Override
-            public void onVisibilityChanged(int visibility) {
-                if (fullscreenButton != null) {
-                    fullscreenButton.setVisibility(visibility == View.VISIBLE ? View.VISIBLE : View.GONE);
+            public void onPlaybackStateChanged(int playbackState) {
+                updateMediaSessionState(player, playbackState);
+                if (playbackState == Player.STATE_READY) {
+                    catchUpToLiveEdge();
                 }
-                if (castButton != null) {
-                    castButton.setVisibility(visibility == View.VISIBLE ? View.VISIBLE : View.GONE);
+                notifyPlaybackState(getPlaybackStateName(), player.isPlaying());
+            }
+            
+            @Override
+            public void onIsPlayingChanged(boolean isPlaying) {
+                updateMediaSessionPlaybackState(player, isPlaying);
+                activity.runOnUiThread(() -> updatePictureInPictureParams());
+                notifyPlaybackState(getPlaybackStateName(), isPlaying);
+            }
+            
+            @Override
+            public void onMediaItemTransition(MediaItem mediaItem, int reason) {
+                // The queue mirrors the playlist index for index (the item playing when
+                // the queue was set keeps its original MediaItem)
+                List<QueueItem> items = queue;
+                int index = player.getCurrentMediaItemIndex();
+                if (index >= items.size()) return;
+                QueueItem item = items.get(index);
+                currentMediaUrl = item.url;
+                currentQueueItemId = item.id;
+                activity.runOnUiThread(() -> urlRefresher.setActive(item.url));
+                if (qoeCollector != null) {
+                    qoeCollector.startSession(!item.isRecording, bufferProfile != null ? bufferProfile.jsName : null, item.eventId);
                 }
-                if (dlnaButton != null) {
-                    dlnaButton.setVisibility(visibility == View.VISIBLE ? View.VISIBLE : View.GONE);
+                scheduleNextItemWarmup();
+                activity.runOnUiThread(() -> {
+                    if (playerEventListener != null) {
+                        playerEventListener.onQueueItemChanged(item.id);
+                    }
+                });
+            }
+            
+            @Override
+            public void onEvents(Player eventPlayer, Player.Events events) {
+                // After the individual callbacks above, once per batch of changes
+                publishSnapshot();
+            }
+            
+            @Override
+            public void onPlayerError(PlaybackException error) {
+                android.util.Log.e("IvsPlayerManager", "Player error: " + error.getErrorCodeName() + " " + error.getMessage());
+                activity.runOnUiThread(() -> {
+                    if (playerEventListener != null) {
+                        playerEventListener.onPlayerError(error);
+                    }
+                });
+            }
+            
+            @Override
+            public void onVideoSizeChanged(VideoSize size) {
+                videoSize = size;
+                if (size.width > 0 && size.height > 0) {
+                    float aspectRatio = size.width * size.pixelWidthHeightRatio / size.height;
+                    activity.runOnUiThread(() -> {
+                        if (surfacePlayerView != null) {
+                            surfacePlayerView.setAspectRatio(aspectRatio);
+                        }
+                    });
                 }
             }
+            
+            @Override
+            public void onRenderedFirstFrame() {
+                if (timeToFirstFrameMs < 0 && initializeStartMs > 0) {
+                    timeToFirstFrameMs = SystemClock.elapsedRealtime() - initializeStartMs;
+                    android.util.Log.i("IvsPlayerManager", "Time to first frame: " + timeToFirstFrameMs + "ms (" + (warmStart ? "warm" : "cold") + " start)");
+                }
+                activity.runOnUiThread(() -> {
+                    if (surfacePlayerView != null) {
+                        surfacePlayerView.setShutterVisible(false);
+                    }
+                });
+            }
         });
         
-        // Set background color
-        playerView.setShutterBackgroundColor(0xFF000000);
-        
-        // Set resize mode to FIXED_WIDTH to maintain aspect ratio
-        playerView.setResizeMode(AspectRatioFrameLayout.RESIZE_MODE_FIT);
-        
-        // Create a container for the player with controls overlay
+        // Rendition switches: the decoder input format is the rendition actually shown
+        player.addAnalyticsListener(new AnalyticsListener() {
+            @Override
+            public void onVideoInputFormatChanged(EventTime eventTime, Format format, DecoderReuseEvaluation decoderReuseEvaluation) {
+                activity.runOnUiThread(() -> {
+                    if (playerEventListener != null) {
+                        playerEventListener.onRenditionChanged(format);
+                    }
+                });
+            }
+        });
+    }
+    
+    private void notifyPlaybackState(String state, boolean isPlaying) {
+        activity.runOnUiThread(() -> {
+            if (playerEventListener != null) {
+                playerEventListener.onPlaybackStateChanged(state, isPlaying);
+            }
+        });
+    }
+    
+    /**
+     * Release the player on its own thread and let that thread quit once the release
+     * has run. The UI thread does not wait: the player is cleared first, so commands
+     * still queued on the old thread find no player there and are dropped by withPlayer.
+     */
+    private void releasePlayer() {
+        ExoPlayer released = player;
+        PlaybackRecovery releasedRecovery = recovery;
+        Handler releasedHandler = playerHandler;
+        player = null;
+        if (released != null) {
+            runOnPlayerThread(() -> {
+                releasedHandler.removeCallbacks(snapshotTick);
+                releasedHandler.removeCallbacks(nextItemWarmup);
+                releasedRecovery.detach();
+                released.release();
+            });
+        }
+        if (playbackThread != null) {
+            // Messages already due, the release among them, still run before it quits
+            playbackThread.quitSafely();
+            playbackThread = null;
+        }
+        playerHandler = createMainPlayerHandler();
+        videoSize = VideoSize.UNKNOWN;
+    }
+    
+    private PlaybackRecovery createRecovery() {
+        return new PlaybackRecovery((action, reason, attempt, delayMs) -> {
+            activity.runOnUiThread(() -> {
+                if (PlaybackRecovery.ACTION_NEEDS_NEW_URL.equals(action)) {
+                    urlRefresher.requestRefresh(SignedUrlRefresher.REASON_FORBIDDEN);
+                }
+                if (playerEventListener != null) {
+                    playerEventListener.onRecoveryAction(action, reason, attempt, delayMs);
+                }
+            });
+        });
+    }
+    
+    private static Handler createMainPlayerHandler() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+            ? Handler.createAsync(Looper.getMainLooper())
+            : new Handler(Looper.getMainLooper());
+    }
+    
+    private void buildViewHierarchy() {
+        // Create a container for the player with controls overlay; the video view
+        // itself is added by attachVideoView once the player's thread is known
         playerContainer = new FrameLayout(activity);
         playerContainer.setBackgroundColor(Color.BLACK);
         playerContainer.setElevation(10f);
         playerContainer.setZ(10f);
-        // Add player view to container
-        playerContainer.addView(playerView, new FrameLayout.LayoutParams(
-            FrameLayout.LayoutParams.MATCH_PARENT,
-            FrameLayout.LayoutParams.MATCH_PARENT
-        ));
+        
+        boundsSync = new OverlayBoundsSync(bridge.getWebView(),
+            activity.getResources().getDisplayMetrics().density, this::setViewportSize);
+        boundsSync.attach(playerContainer);
+        boundsSync.setEnabled(!isFullscreen);
         
         // Add fullscreen button
         addFullscreenButton();
@@ -142,62 +850,193 @@ public class IvsPlayerManager {
         // Add badge view
         addBadgeView();
         
-        // Initialize DLNA service
-        initializeDlna();
-        
         // Create fullscreen root container (used only when in fullscreen)
         fullscreenRoot = new FrameLayout(activity);
         fullscreenRoot.setBackgroundColor(Color.BLACK);
         fullscreenRoot.setElevation(100f);
-        
-        // Add player container to decor view - start in fullscreen landscape
-        ViewGroup decor = (ViewGroup) activity.getWindow().getDecorView();
-        FrameLayout.LayoutParams fullscreenParams = new FrameLayout.LayoutParams(
-            ViewGroup.LayoutParams.MATCH_PARENT,
-            ViewGroup.LayoutParams.MATCH_PARENT
+    }
+    
+    /**
+     * Put the video view matching the player's thread under the buttons. A main-looper
+     * player gets StyledPlayerView; a player on its own thread renders into
+     * SurfacePlayerView's surface, which is handed over without the view touching it.
+     */
+    private void attachVideoView() {
+        FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
+            FrameLayout.LayoutParams.MATCH_PARENT,
+            FrameLayout.LayoutParams.MATCH_PARENT
         );
-        decor.addView(playerContainer, fullscreenParams);
-        playerContainer.bringToFront();
-        
-        // Start in fullscreen landscape mode
-        enterFullscreenOnInit();
-        
-        // Setup MediaSession for background audio and lockscreen controls
-        setupMediaSession();
+        if (dedicatedPlaybackThread) {
+            if (playerView != null) {
+                playerView.setPlayer(null);
+                playerContainer.removeView(playerView);
+                playerView = null;
+            }
+            if (surfacePlayerView == null) {
+                surfacePlayerView = createSurfacePlayerView();
+                playerContainer.addView(surfacePlayerView, 0, params);
+            }
+        } else {
+            if (surfacePlayerView != null) {
+                playerContainer.removeView(surfacePlayerView);
+                surfacePlayerView = null;
+            }
+            if (playerView == null) {
+                playerView = createStyledPlayerView();
+                playerContainer.addView(playerView, 0, params);
+            }
+            playerView.setPlayer(player);
+        }
+    }
+    
+    private StyledPlayerView createStyledPlayerView() {
+        // Create PlayerView (ExoPlayer uses TextureView by default in StyledPlayerView)
+        StyledPlayerView view = new StyledPlayerView(activity);
+        view.setUseController(true);
         
-        // Prepare media item
-        MediaItem mediaItem = new MediaItem.Builder()
-            .setUri(url)
-            .setMimeType(MimeTypes.APPLICATION_M3U8)
-            .build();
+        // Set controls timeout to 2 seconds
+        view.setControllerShowTimeoutMs(CONTROLS_TIMEOUT_MS);
         
-        player.setMediaItem(mediaItem);
-        player.prepare();
+        // Add controller visibility listener to show/hide fullscreen, cast, and DLNA buttons with controls
+        view.setControllerVisibilityListener(
+            (StyledPlayerView.ControllerVisibilityListener) this::onControllerVisibilityChanged);
         
-        if (autoplay) {
-            player.setPlayWhenReady(true);
-        }
+        // Set background color
+        view.setShutterBackgroundColor(0xFF000000);
         
-        // Add player listener for state changes
-        player.addListener(new Player.Listener() {
+        // Set resize mode to FIXED_WIDTH to maintain aspect ratio
+        view.setResizeMode(AspectRatioFrameLayout.RESIZE_MODE_FIT);
+        return view;
+    }
+    
+    private SurfacePlayerView createSurfacePlayerView() {
+        return new SurfacePlayerView(activity, CONTROLS_TIMEOUT_MS, new SurfacePlayerView.Callback() {
             @Override
-            public void onPlaybackStateChanged(int playbackState) {
-                updateMediaSessionState(playbackState);
+            public void onSurfaceCreated(Surface surface) {
+                videoSurface = surface;
+                withPlayer(p -> p.setVideoSurface(surface));
             }
             
             @Override
-            public void onIsPlayingChanged(boolean isPlaying) {
-                updateMediaSessionPlaybackState(isPlaying);
+            public void onSurfaceDestroyed(Surface surface) {
+                detachVideoSurface(surface);
+            }
+            
+            @Override
+            public void onPlayPause() {
+                withPlayer(p -> {
+                    if (p.getPlayWhenReady()) {
+                        p.setPlayWhenReady(false);
+                        return;
+                    }
+                    if (p.getPlaybackState() == Player.STATE_ENDED) {
+                        p.seekToDefaultPosition();
+                    }
+                    p.setPlayWhenReady(true);
+                });
+            }
+            
+            @Override
+            public void onSeekTo(long positionMs) {
+                seekTo(positionMs);
+            }
+            
+            @Override
+            public void onControllerVisibilityChanged(int visibility) {
+                IvsPlayerManager.this.onControllerVisibilityChanged(visibility);
+            }
+            
+            @Override
+            public PlayerStateSnapshot getState() {
+                return stateSnapshot.get();
+            }
+        });
+    }
+    
+    /**
+     * Main thread, from surfaceDestroyed: the surface goes away when this returns,
+     * so wait until the player thread has taken it off the player
+     */
+    private void detachVideoSurface(Surface surface) {
+        videoSurface = null;
+        ExoPlayer current = player;
+        if (current == null) return;
+        if (current.getApplicationLooper() == Looper.myLooper()) {
+            current.clearVideoSurface(surface);
+            return;
+        }
+        ConditionVariable detached = new ConditionVariable();
+        boolean posted = playerHandler.post(() -> {
+            current.clearVideoSurface(surface);
+            detached.open();
+        });
+        if (posted && !detached.block(SURFACE_DETACH_TIMEOUT_MS)) {
+            android.util.Log.w("IvsPlayerManager", "Player thread did not release the surface in time");
+        }
+    }
+    
+    private void onControllerVisibilityChanged(int visibility) {
+        if (fullscreenButton != null) {
+            fullscreenButton.setVisibility(visibility == View.VISIBLE ? View.VISIBLE : View.GONE);
+        }
+        if (castButton != null) {
+            castButton.setVisibility(visibility == View.VISIBLE ? View.VISIBLE : View.GONE);
+        }
+        if (dlnaButton != null) {
+            dlnaButton.setVisibility(visibility == View.VISIBLE ? View.VISIBLE : View.GONE);
+            if (visibility == View.VISIBLE && dlnaService != null) {
+                dlnaService.prepareDiscovery();
+            }
+        }
+    }
+    
+    /**
+     * Milliseconds from initialize() to the first rendered frame, or -1 if not yet rendered
+     */
+    public long getTimeToFirstFrame() {
+        return timeToFirstFrameMs;
+    }
+    
+    public boolean isWarmStart() {
+        return warmStart;
+    }
+    
+    /**
+     * Attach the collector that receives this player's analytics events
+     */
+    public void setQoeCollector(QoeCollector collector) {
+        if (collector == qoeCollector) return;
+        QoeCollector previous = qoeCollector;
+        qoeCollector = collector;
+        withPlayer(p -> {
+            if (previous != null) {
+                p.removeAnalyticsListener(previous);
+            }
+            if (collector != null) {
+                p.addAnalyticsListener(collector);
             }
         });
     }
     
+    public long getInitialBitrateEstimate() {
+        return initialBitrateEstimate;
+    }
+    
+    public String getInitialEstimateSource() {
+        return initialEstimateSource;
+    }
+    
     /**
      * Position player as overlay below toolbar (called when exiting fullscreen)
      */
     private void positionAsCenteredOverlay() {
         if (playerContainer == null) return;
         
+        // Drop any translation left by setPlayerBounds; margins position the overlay
+        if (boundsSync != null) {
+            boundsSync.reset();
+        }
+        
         // Get screen dimensions
         int screenWidth = activity.getResources().getDisplayMetrics().widthPixels;
         int screenHeight = activity.getResources().getDisplayMetrics().heightPixels;
@@ -234,14 +1073,130 @@ public class IvsPlayerManager {
         params.leftMargin = leftMargin;
         params.topMargin = topMargin;
         playerContainer.setLayoutParams(params);
+        
+        setViewportSize(overlayWidth, overlayHeight);
     }
     
     /**
-     * Set player bounds - kept for compatibility but now just triggers overlay positioning
+     * Follow a DOM element (CSS pixels relative to the WebView) while not fullscreen.
+     * Safe to call from any thread: bursts are merged and applied once per frame by
+     * translating the container, and the rendition cap follows the size.
      */
     public void setPlayerBounds(int x, int y, int width, int height) {
-        // No longer used for positioning - player is either fullscreen or centered overlay
-        android.util.Log.d("IvsPlayerManager", "setPlayerBounds called but ignored - using fullscreen/overlay mode");
+        OverlayBoundsSync sync = boundsSync;
+        if (sync == null || width <= 0 || height <= 0) return;
+        sync.post(x, y, width, height);
+    }
+    
+    public OverlayBoundsSync.Stats getBoundsSyncStats(boolean reset) {
+        OverlayBoundsSync sync = boundsSync;
+        if (sync == null) return null;
+        OverlayBoundsSync.Stats stats = sync.getStats();
+        if (reset) {
+            sync.resetStats();
+        }
+        return stats;
+    }
+    
+    /**
+     * Cap the video rendition to the surface size. The track selector still picks the
+     * smallest rendition that covers the surface, so the picture is never upscaled.
+     */
+    private void setViewportSize(int width, int height) {
+        if (width == viewportWidth && height == viewportHeight) return;
+        viewportWidth = width;
+        viewportHeight = height;
+        applyTrackSelectionCaps();
+        android.util.Log.d("IvsPlayerManager", "Viewport cap: " + width + "x" + height);
+    }
+    
+    private void setFullscreenViewportSize() {
+        // Orientation may not have flipped yet, so take the landscape dimensions directly
+        int screenWidth = activity.getResources().getDisplayMetrics().widthPixels;
+        int screenHeight = activity.getResources().getDisplayMetrics().heightPixels;
+        setViewportSize(Math.max(screenWidth, screenHeight), Math.min(screenWidth, screenHeight));
+    }
+    
+    /**
+     * Cap the video bitrate, used by PlayerBandwidthBudget when several players share the link
+     */
+    public void setMaxVideoBitrate(int bitrate) {
+        if (bitrate == maxVideoBitrate) return;
+        maxVideoBitrate = bitrate;
+        applyTrackSelectionCaps();
+        android.util.Log.d("IvsPlayerManager", "Bitrate cap: " + (bitrate == Integer.MAX_VALUE ? "none" : bitrate + " bps"));
+    }
+    
+    public int getMaxVideoBitrate() {
+        return maxVideoBitrate;
+    }
+    
+    /**
+     * The focused player is audible and drives the MediaSession; the others play muted
+     */
+    public void setFocused(boolean focused) {
+        if (focused == this.focused) return;
+        this.focused = focused;
+        withPlayer(p -> p.setVolume(focused ? 1f : 0f));
+        if (mediaSession != null && !parked) {
+            mediaSession.setActive(focused);
+        }
+        if (!focused) {
+            exitBackgroundAudio();
+            autoPictureInPicture = false;
+        }
+    }
+    
+    private void applyTrackSelectionCaps() {
+        if (trackSelector == null) return;
+        trackSelector.setParameters(trackSelector.buildUponParameters()
+            .setViewportSize(viewportWidth, viewportHeight, false)
+            .setMaxVideoBitrate(Math.min(maxVideoBitrate, networkBitrateCap)));
+    }
+    
+    private void onNetworkPolicyChanged(boolean regained) {
+        if (parked) return;
+        applyNetworkPolicy();
+        if (regained) {
+            withPlayer(p -> recovery.onNetworkRegained());
+        }
+    }
+    
+    /**
+     * Unmetered links play the requested profile uncapped. Metered links get a stall-tolerant
+     * live profile or a short VOD buffer, and a rendition cap that data saver lowers further.
+     */
+    private void applyNetworkPolicy() {
+        NetworkMonitor monitor = NetworkMonitor.getInstance(activity);
+        boolean metered = monitor.isMetered();
+        int bitrateCap = !metered ? Integer.MAX_VALUE
+            : monitor.isDataSaverEnabled() ? DATA_SAVER_BITRATE_CAP : METERED_BITRATE_CAP;
+        BufferProfile profile = !metered ? bufferProfile
+            : currentIsLive ? BufferProfile.LIVE_STABLE : BufferProfile.VOD_METERED;
+        
+        if (bitrateCap != networkBitrateCap) {
+            networkBitrateCap = bitrateCap;
+            applyTrackSelectionCaps();
+        }
+        if (loadControl != null && loadControl.getProfile() != profile) {
+            loadControl.setProfile(profile);
+        }
+        android.util.Log.d("IvsPlayerManager", "Network policy: " + (metered ? "metered" : "unmetered")
+            + (monitor.isDataSaverEnabled() ? ", data saver" : "")
+            + ", profile " + (profile != null ? profile.jsName : "default")
+            + ", cap " + (bitrateCap == Integer.MAX_VALUE ? "none" : bitrateCap + " bps"));
+    }
+    
+    /**
+     * Buffer profile in effect after network adaptation, null for ExoPlayer's default
+     */
+    public String getActiveBufferProfileName() {
+        BufferProfile profile = loadControl != null ? loadControl.getProfile() : null;
+        return profile != null ? profile.jsName : null;
+    }
+    
+    public int getNetworkBitrateCap() {
+        return networkBitrateCap;
     }
 
     
@@ -356,6 +1311,7 @@ public class IvsPlayerManager {
     
     private void initializeDlna() {
         dlnaService = new DlnaService(activity);
+        dlnaService.setUrlRewriter(urlRefresher::resolveUrl);
         dlnaService.setDeviceListener(new DlnaService.DlnaDeviceListener() {
             @Override
             public void onDeviceFound(DlnaService.DlnaDevice device) {
@@ -371,11 +1327,7 @@ public class IvsPlayerManager {
             public void onPlaybackStarted() {
                 android.util.Log.d("IvsPlayerManager", "DLNA playback started");
                 // Pause local playback when casting to DLNA
-                activity.runOnUiThread(() -> {
-                    if (player != null) {
-                        player.setPlayWhenReady(false);
-                    }
-                });
+                pause();
             }
             
             @Override
@@ -387,14 +1339,12 @@ public class IvsPlayerManager {
                 });
             }
         });
-        
-        // Start DLNA discovery
-        dlnaService.startDiscovery();
     }
     
     private void showDlnaDevicePicker() {
         if (dlnaService != null && currentMediaUrl != null) {
-            dlnaService.showDevicePicker(currentMediaUrl);
+            // Renderers fetch the stream themselves, so they get the latest signature
+            dlnaService.showDevicePicker(urlRefresher.currentUrl(currentMediaUrl));
         } else {
             android.widget.Toast.makeText(activity, "DLNA service not ready", android.widget.Toast.LENGTH_SHORT).show();
         }
@@ -461,6 +1411,13 @@ public class IvsPlayerManager {
     }
     
     private void initializeCast() {
+        // Warm instance: the listener already exists, just register it again
+        if (sessionManager != null && sessionManagerListener != null) {
+            sessionManager.addSessionManagerListener(sessionManagerListener, CastSession.class);
+            castSession = sessionManager.getCurrentCastSession();
+            return;
+        }
+        
         try {
             castContext = CastContext.getSharedInstance(activity);
             sessionManager = castContext.getSessionManager();
@@ -476,9 +1433,7 @@ public class IvsPlayerManager {
                     android.util.Log.d("IvsPlayerManager", "Cast session started: " + sessionId);
                     castSession = session;
                     // Pause local playback and start casting
-                    if (player != null) {
-                        player.setPlayWhenReady(false);
-                    }
+                    pause();
                     loadMediaToCast();
                 }
                 
@@ -497,9 +1452,7 @@ public class IvsPlayerManager {
                     android.util.Log.d("IvsPlayerManager", "Cast session ended");
                     castSession = null;
                     // Resume local playback
-                    if (player != null) {
-                        player.setPlayWhenReady(true);
-                    }
+                    play();
                 }
                 
                 @Override
@@ -553,7 +1506,7 @@ public class IvsPlayerManager {
             metadata.putString(MediaMetadata.KEY_SUBTITLE, "Sampradaya Events");
             
             // Create MediaInfo for HLS stream
-            MediaInfo mediaInfo = new MediaInfo.Builder(currentMediaUrl)
+            MediaInfo mediaInfo = new MediaInfo.Builder(urlRefresher.currentUrl(currentMediaUrl))
                 .setStreamType(MediaInfo.STREAM_TYPE_LIVE)
                 .setContentType("application/x-mpegURL")
                 .setMetadata(metadata)
@@ -625,7 +1578,12 @@ public class IvsPlayerManager {
         // or through the new Media3 library. For now, we'll manage state manually.
     }
     
-    private void updateMediaSessionState(int playbackState) {
+    /**
+     * Player thread; MediaSessionCompat takes state updates from any thread
+     */
+    private void updateMediaSessionState(ExoPlayer player, int playbackState) {
+        MediaSessionCompat session = mediaSession;
+        if (session == null) return;
         int state = PlaybackStateCompat.STATE_NONE;
         switch (playbackState) {
             case Player.STATE_BUFFERING:
@@ -646,10 +1604,12 @@ public class IvsPlayerManager {
             PlaybackStateCompat.ACTION_PAUSE |
             PlaybackStateCompat.ACTION_SEEK_TO
         );
-        mediaSession.setPlaybackState(stateBuilder.build());
+        session.setPlaybackState(stateBuilder.build());
     }
     
-    private void updateMediaSessionPlaybackState(boolean isPlaying) {
+    private void updateMediaSessionPlaybackState(ExoPlayer player, boolean isPlaying) {
+        MediaSessionCompat session = mediaSession;
+        if (session == null) return;
         int state = isPlaying ? PlaybackStateCompat.STATE_PLAYING : PlaybackStateCompat.STATE_PAUSED;
         PlaybackStateCompat.Builder stateBuilder = new PlaybackStateCompat.Builder();
         stateBuilder.setState(state, player.getCurrentPosition(), 1.0f);
@@ -658,39 +1618,361 @@ public class IvsPlayerManager {
             PlaybackStateCompat.ACTION_PAUSE |
             PlaybackStateCompat.ACTION_SEEK_TO
         );
-        mediaSession.setPlaybackState(stateBuilder.build());
+        session.setPlaybackState(stateBuilder.build());
     }
     
-    public void play() {
-        if (player != null) {
-            player.setPlayWhenReady(true);
+    public boolean isPictureInPictureSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+            && activity.getPackageManager().hasSystemFeature(PackageManager.FEATURE_PICTURE_IN_PICTURE);
+    }
+    
+    /**
+     * Move the activity into a PiP window showing only the video
+     */
+    public boolean enterPictureInPicture() {
+        if (!isPictureInPictureSupported() || parked || player == null || inPictureInPicture) return false;
+        try {
+            return activity.enterPictureInPictureMode(buildPictureInPictureParams());
+        } catch (IllegalStateException e) {
+            android.util.Log.w("IvsPlayerManager", "enterPictureInPicture failed: " + e.getMessage());
+            return false;
         }
     }
     
-    public void pause() {
-        if (player != null) {
-            player.setPlayWhenReady(false);
+    /**
+     * Enter PiP automatically when the user leaves the app while video is playing.
+     * Android 12+ does this from the PiP params; older versions go through onUserLeaveHint().
+     */
+    public void setAutoPictureInPicture(boolean enabled) {
+        autoPictureInPicture = enabled;
+        updatePictureInPictureParams();
+    }
+    
+    public void onUserLeaveHint() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) return;
+        if (autoPictureInPicture && getPlayWhenReady()) {
+            enterPictureInPicture();
         }
     }
     
-    public void seekTo(long positionMs) {
-        if (player != null) {
-            player.seekTo(positionMs);
+    private void updatePictureInPictureParams() {
+        // PiP params belong to the activity, only the focused player may set them
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S || !focused || !isPictureInPictureSupported()) return;
+        activity.setPictureInPictureParams(buildPictureInPictureParams());
+    }
+    
+    @RequiresApi(Build.VERSION_CODES.O)
+    private PictureInPictureParams buildPictureInPictureParams() {
+        PictureInPictureParams.Builder builder = new PictureInPictureParams.Builder();
+        VideoSize videoSize = this.videoSize;
+        if (videoSize.width > 0 && videoSize.height > 0) {
+            // The system rejects ratios outside 1:2.39 .. 2.39:1
+            Rational aspect = new Rational(Math.round(videoSize.width * videoSize.pixelWidthHeightRatio), videoSize.height);
+            if (aspect.compareTo(PIP_MIN_ASPECT) < 0) aspect = PIP_MIN_ASPECT;
+            if (aspect.compareTo(PIP_MAX_ASPECT) > 0) aspect = PIP_MAX_ASPECT;
+            builder.setAspectRatio(aspect);
+        }
+        if (playerContainer != null && playerContainer.isAttachedToWindow()) {
+            Rect sourceRect = new Rect();
+            if (playerContainer.getGlobalVisibleRect(sourceRect)) {
+                builder.setSourceRectHint(sourceRect);
+            }
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            builder.setAutoEnterEnabled(autoPictureInPicture && !parked && getPlayWhenReady());
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Activity entered or left PiP. The container fills the PiP window with controls,
+     * buttons and badge hidden, and the rendition is capped to the window size; all of
+     * it is put back on exit.
+     */
+    public void onPictureInPictureModeChanged(boolean isInPictureInPicture, int windowWidth, int windowHeight) {
+        if (playerContainer == null || parked || isInPictureInPicture == inPictureInPicture) return;
+        inPictureInPicture = isInPictureInPicture;
+        
+        if (isInPictureInPicture) {
+            if (boundsSync != null) {
+                boundsSync.setEnabled(false);
+            }
+            prePipLayoutParams = playerContainer.getLayoutParams();
+            prePipTranslationX = playerContainer.getTranslationX();
+            prePipTranslationY = playerContainer.getTranslationY();
+            prePipViewportWidth = viewportWidth;
+            prePipViewportHeight = viewportHeight;
+            
+            playerContainer.setTranslationX(0);
+            playerContainer.setTranslationY(0);
+            playerContainer.setLayoutParams(new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT
+            ));
+            playerContainer.bringToFront();
+            
+            setControllerEnabled(false);
+            if (badgeView != null) {
+                prePipBadgeVisibility = badgeView.getVisibility();
+                badgeView.setVisibility(View.GONE);
+            }
+            
+            setViewportSize(windowWidth, windowHeight);
+            android.util.Log.d("IvsPlayerManager", "Entered picture-in-picture " + windowWidth + "x" + windowHeight);
+        } else {
+            if (prePipLayoutParams != null) {
+                playerContainer.setLayoutParams(prePipLayoutParams);
+                prePipLayoutParams = null;
+            }
+            playerContainer.setTranslationX(prePipTranslationX);
+            playerContainer.setTranslationY(prePipTranslationY);
+            
+            setControllerEnabled(true);
+            if (badgeView != null) {
+                badgeView.setVisibility(prePipBadgeVisibility);
+            }
+            
+            setViewportSize(prePipViewportWidth, prePipViewportHeight);
+            if (boundsSync != null) {
+                boundsSync.setEnabled(!isFullscreen);
+            }
+            android.util.Log.d("IvsPlayerManager", "Left picture-in-picture");
+        }
+    }
+    
+    private void setControllerEnabled(boolean enabled) {
+        if (playerView != null) {
+            if (!enabled) {
+                playerView.hideController();
+            }
+            playerView.setUseController(enabled);
+        }
+        if (surfacePlayerView != null) {
+            surfacePlayerView.setUseController(enabled);
+        }
+    }
+    
+    public boolean isInPictureInPicture() {
+        return inPictureInPicture;
+    }
+    
+    public void setBackgroundAudioEnabled(boolean enabled) {
+        backgroundAudioEnabled = enabled;
+        if (!enabled) {
+            exitBackgroundAudio();
+        }
+    }
+    
+    /**
+     * App went to the background while playing: keep audio only. Video is disabled
+     * (no decoding) and the lowest rendition is forced (least data for muxed HLS),
+     * ExoPlayer holds wake and Wi-Fi locks, and a foreground media service keeps the
+     * process alive.
+     */
+    public void enterBackgroundAudio() {
+        if (!backgroundAudioEnabled || inBackgroundAudio || parked || player == null || trackSelector == null) return;
+        if (!getPlayWhenReady()) return;
+        if (castSession != null && castSession.isConnected()) return;
+        // Paused into a PiP window: the video is still on screen
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && activity.isInPictureInPictureMode()) return;
+        
+        inBackgroundAudio = true;
+        trackSelector.setParameters(trackSelector.buildUponParameters()
+            .setTrackTypeDisabled(C.TRACK_TYPE_VIDEO, true)
+            .setForceLowestBitrate(true));
+        withPlayer(p -> p.setWakeMode(C.WAKE_MODE_NETWORK));
+        
+        String title = null;
+        if (mediaSession != null && mediaSession.getController().getMetadata() != null) {
+            title = mediaSession.getController().getMetadata().getString(MediaMetadataCompat.METADATA_KEY_TITLE);
         }
+        BackgroundPlaybackService.start(activity, mediaSession != null ? mediaSession.getSessionToken() : null, title);
+        android.util.Log.d("IvsPlayerManager", "Background audio-only playback started");
+    }
+    
+    /**
+     * Back in the foreground: restore video and the viewport cap, release the locks
+     */
+    public void exitBackgroundAudio() {
+        if (!inBackgroundAudio) return;
+        inBackgroundAudio = false;
+        
+        if (trackSelector != null) {
+            trackSelector.setParameters(trackSelector.buildUponParameters()
+                .setTrackTypeDisabled(C.TRACK_TYPE_VIDEO, false)
+                .setForceLowestBitrate(false));
+        }
+        withPlayer(p -> p.setWakeMode(C.WAKE_MODE_NONE));
+        BackgroundPlaybackService.stop(activity);
+        android.util.Log.d("IvsPlayerManager", "Background audio-only playback stopped, video restored");
+    }
+    
+    /**
+     * Run a non-view player command on the player's application thread (main, or its
+     * own thread with dedicatedPlaybackThread). Commands keep their order; on main they
+     * are not held back by pending layout and draw work. Any thread.
+     */
+    public void runOnPlayerThread(Runnable command) {
+        Handler handler = playerHandler;
+        if (Looper.myLooper() == handler.getLooper()) {
+            command.run();
+        } else if (!handler.post(command)) {
+            // The player's thread was stopped while being replaced; the UI thread is
+            // the one replacing it, so by the time this runs the new thread is set
+            activity.runOnUiThread(() -> runOnPlayerThread(command));
+        }
+    }
+    
+    /**
+     * Run a command against the current player on its thread; dropped when there is none
+     */
+    private void withPlayer(Consumer<ExoPlayer> command) {
+        runOnPlayerThread(() -> {
+            ExoPlayer current = player;
+            if (current == null) return;
+            if (current.getApplicationLooper() != Looper.myLooper()) {
+                // Queued before the player was rebuilt on another thread
+                withPlayer(command);
+                return;
+            }
+            command.accept(current);
+        });
+    }
+    
+    private boolean isOnPlayerThread() {
+        ExoPlayer current = player;
+        return current != null && current.getApplicationLooper() == Looper.myLooper();
+    }
+    
+    public void play() {
+        withPlayer(p -> p.setPlayWhenReady(true));
+    }
+    
+    public void pause() {
+        withPlayer(p -> p.setPlayWhenReady(false));
+    }
+    
+    /**
+     * Any thread; off the player's thread this is the last published value
+     */
+    public boolean getPlayWhenReady() {
+        if (isOnPlayerThread()) return player.getPlayWhenReady();
+        return player != null && stateSnapshot.get().playWhenReady;
+    }
+    
+    public void seekTo(long positionMs) {
+        withPlayer(p -> p.seekTo(positionMs));
     }
     
     public long getCurrentTime() {
-        return player != null ? player.getCurrentPosition() : 0;
+        if (isOnPlayerThread()) return player.getCurrentPosition();
+        return stateSnapshot.get().getCurrentPositionMs();
     }
     
     public long getDuration() {
-        return player != null ? player.getDuration() : 0;
+        if (isOnPlayerThread()) return player.getDuration();
+        return stateSnapshot.get().durationMs;
+    }
+    
+    /**
+     * Copy the current player state into a new snapshot. Player thread.
+     */
+    private void publishSnapshot() {
+        if (player == null) {
+            stateSnapshot.set(PlayerStateSnapshot.EMPTY);
+            return;
+        }
+        Format videoFormat = player.getVideoFormat();
+        stateSnapshot.set(new PlayerStateSnapshot(
+            player.getCurrentPosition(),
+            player.getDuration(),
+            player.getBufferedPosition(),
+            getPlaybackStateName(),
+            player.isPlaying(),
+            player.getPlayWhenReady(),
+            player.isCurrentMediaItemLive(),
+            getLiveLatency(),
+            getTargetLiveOffset(),
+            getPlaybackSpeed(),
+            videoFormat != null ? videoFormat.width : 0,
+            videoFormat != null ? videoFormat.height : 0,
+            videoFormat != null ? videoFormat.bitrate : 0,
+            lowLatency,
+            timeToFirstFrameMs,
+            warmStart
+        ));
+    }
+    
+    /**
+     * Latest published state, safe to read from any thread
+     */
+    public PlayerStateSnapshot getStateSnapshot() {
+        return stateSnapshot.get();
+    }
+    
+    public String getPlaybackStateName() {
+        if (player == null) return "idle";
+        switch (player.getPlaybackState()) {
+            case Player.STATE_BUFFERING:
+                return "buffering";
+            case Player.STATE_READY:
+                return "ready";
+            case Player.STATE_ENDED:
+                return "ended";
+            default:
+                return "idle";
+        }
+    }
+    
+    public void setPlayerEventListener(PlayerEventListener listener) {
+        this.playerEventListener = listener;
     }
     
     public boolean isFullscreen() {
         return isFullscreen;
     }
     
+    public boolean isLowLatency() {
+        return lowLatency;
+    }
+    
+    /**
+     * Current distance from the live edge in milliseconds, or -1 if not playing a live stream
+     */
+    public long getLiveLatency() {
+        if (player == null || !player.isCurrentMediaItemLive()) return -1;
+        long offset = player.getCurrentLiveOffset();
+        return offset == C.TIME_UNSET ? -1 : offset;
+    }
+    
+    /**
+     * Name of the active buffer profile, or null when ExoPlayer defaults are used
+     */
+    public String getBufferProfileName() {
+        return bufferProfile != null ? bufferProfile.jsName : null;
+    }
+    
+    public long getTargetLiveOffset() {
+        return lowLatency ? LOW_LATENCY_TARGET_OFFSET_MS : -1;
+    }
+    
+    public float getPlaybackSpeed() {
+        return player != null ? player.getPlaybackParameters().speed : 1.0f;
+    }
+    
+    /**
+     * Jump back to the live edge when a long stall has pushed us past the maximum
+     * offset - speed adjustment alone would take minutes to recover from that
+     */
+    private void catchUpToLiveEdge() {
+        if (!lowLatency || player == null || !player.isCurrentMediaItemLive()) return;
+        long latency = getLiveLatency();
+        if (latency > LOW_LATENCY_MAX_OFFSET_MS) {
+            android.util.Log.d("IvsPlayerManager", "catchUpToLiveEdge: latency " + latency + "ms, seeking to live edge");
+            player.seekToDefaultPosition();
+        }
+    }
+    
     /**
      * Toggle fullscreen WITHOUT destroying the player
      * This preserves decoder, buffer, and audio continuity
@@ -708,17 +1990,26 @@ public class IvsPlayerManager {
      */
     private void enterFullscreenOnInit() {
         isFullscreen = true;
+        if (boundsSync != null) {
+            boundsSync.setEnabled(false);
+            boundsSync.reset();
+        }
         originalOrientation = activity.getRequestedOrientation();
         activity.setRequestedOrientation(ActivityInfo.SCREEN_ORIENTATION_SENSOR_LANDSCAPE);
         activity.getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
         hideSystemUI();
         updateFullscreenButtonIcon();
+        setFullscreenViewportSize();
         android.util.Log.d("IvsPlayerManager", "enterFullscreenOnInit: started in fullscreen landscape");
     }
     
     private void enterFullscreen() {
         if (isFullscreen) return;
         isFullscreen = true;
+        if (boundsSync != null) {
+            boundsSync.setEnabled(false);
+            boundsSync.reset();
+        }
 
         originalOrientation = activity.getRequestedOrientation();
         activity.setRequestedOrientation(ActivityInfo.SCREEN_ORIENTATION_SENSOR_LANDSCAPE);
@@ -734,6 +2025,7 @@ public class IvsPlayerManager {
         activity.getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
         hideSystemUI();
         updateFullscreenButtonIcon();
+        setFullscreenViewportSize();
         android.util.Log.d("IvsPlayerManager", "enterFullscreen: switched to fullscreen");
     }
 
@@ -741,15 +2033,17 @@ public class IvsPlayerManager {
     private void exitFullscreen() {
         if (!isFullscreen) return;
         isFullscreen = false;
+        if (boundsSync != null) {
+            boundsSync.setEnabled(true);
+        }
 
         activity.setRequestedOrientation(ActivityInfo.SCREEN_ORIENTATION_PORTRAIT);
         activity.getWindow().clearFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
         showSystemUI();
         
         // Position as centered overlay after a short delay to allow orientation change
-        playerContainer.postDelayed(() -> {
-            positionAsCenteredOverlay();
-        }, 100);
+        playerContainer.removeCallbacks(positionOverlayRunnable);
+        playerContainer.postDelayed(positionOverlayRunnable, 100);
         
         updateFullscreenButtonIcon();
         android.util.Log.d("IvsPlayerManager", "exitFullscreen: switched to centered overlay");
@@ -772,19 +2066,32 @@ public class IvsPlayerManager {
     
     /**
      * CRITICAL: Only destroy player when truly done
-     * NOT on pause or fullscreen toggle
+     * NOT on pause or fullscreen toggle - use park() to keep it warm for reuse
      */
     public void destroy() {
         // Exit fullscreen first if needed
         if (isFullscreen) {
             exitFullscreen();
         }
+        exitBackgroundAudio();
+        if (inPictureInPicture) {
+            onPictureInPictureModeChanged(false, 0, 0);
+        }
+        urlRefresher.clear();
+        NetworkMonitor.getInstance(activity).removeListener(networkListener);
         
-        if (player != null) {
-            player.release();
-            player = null;
+        if (qoeCollector != null && !parked) {
+            qoeCollector.endSession();
         }
         
+        queue = Collections.emptyList();
+        currentQueueItemId = null;
+        // The watchdog and listeners stop on the player thread; late events find no session
+        releasePlayer();
+        trackSelector = null;
+        loadControl = null;
+        stateSnapshot.set(PlayerStateSnapshot.EMPTY);
+        
         if (mediaSession != null) {
             mediaSession.setActive(false);
             mediaSession.release();
@@ -813,11 +2120,24 @@ public class IvsPlayerManager {
             ((ViewGroup) playerContainer.getParent()).removeView(playerContainer);
         }
         
+        if (playerContainer != null) {
+            playerContainer.removeCallbacks(positionOverlayRunnable);
+        }
+        
         playerContainer = null;
         fullscreenRoot = null;
         playerView = null;
+        surfacePlayerView = null;
         fullscreenButton = null;
         castButton = null;
         dlnaButton = null;
+        badgeView = null;
+        if (boundsSync != null) {
+            boundsSync.reset();
+            boundsSync.attach(null);
+            boundsSync = null;
+        }
+        parked = true;
+        updatePictureInPictureParams();
     }
 }
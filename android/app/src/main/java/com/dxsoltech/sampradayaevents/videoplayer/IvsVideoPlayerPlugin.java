@@ -1,35 +1,284 @@
 package com.dxsoltech.sampradayaevents.videoplayer;
 
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.Lifecycle;
+
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.PlaybackException;
+import com.google.android.exoplayer2.offline.Download;
+import com.google.android.exoplayer2.offline.DownloadManager;
+import com.google.android.exoplayer2.offline.DownloadRequest;
+import com.google.android.exoplayer2.offline.DownloadService;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @CapacitorPlugin(name = "IvsVideoPlayer")
 public class IvsVideoPlayerPlugin extends Plugin {
 
-    private IvsPlayerManager playerManager;
+    // Players by playerId, read from the plugin thread by snapshot queries
+    private static final int MAX_PLAYERS = 4;
+    private final Map<String, IvsPlayerManager> players = new ConcurrentHashMap<>();
+    // The focused player (calls without a playerId go here), or the idle manager when none run.
+    // Swapped on the UI thread.
+    private volatile IvsPlayerManager playerManager;
+    private volatile String focusedPlayerId;
+    private WarmPlayerPool playerPool;
+    private PlayerBandwidthBudget bandwidthBudget;
+    private RecordingDownloads downloads;
+    private final Map<String, QoeCollector> qoeCollectors = new HashMap<>();
+    private final Set<String> pausedInBackground = new HashSet<>();
+    private PlayerEventEmitter playerEvents;
+    private boolean backgroundAudioEnabled = true;
+    private boolean autoPictureInPicture = false;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final long DOWNLOAD_PROGRESS_INTERVAL_MS = 1000;
 
     @Override
     public void load() {
-        playerManager = new IvsPlayerManager(getActivity(), getBridge());
+        playerPool = new WarmPlayerPool(getActivity(), getBridge());
+        playerManager = playerPool.acquire();
+        bandwidthBudget = new PlayerBandwidthBudget(getContext());
+        playerEvents = new PlayerEventEmitter(new PlayerEventEmitter.Sink() {
+            @Override
+            public boolean hasListeners(String eventName) {
+                return IvsVideoPlayerPlugin.this.hasListeners(eventName);
+            }
+
+            @Override
+            public void emit(String eventName, JSObject data) {
+                notifyListeners(eventName, data);
+            }
+        }, this::samplePlayerEvent);
+
+        downloads = RecordingDownloads.getInstance(getContext());
+        downloads.removeExpired();
+        downloads.getDownloadManager().addListener(downloadListener);
+        downloads.resumeAfterTimeout();
+        if (!downloads.getDownloadManager().getCurrentDownloads().isEmpty()) {
+            // Resume downloads interrupted by the app being killed
+            DownloadService.start(getContext(), RecordingDownloadService.class);
+            mainHandler.post(downloadProgressRunnable);
+        }
+    }
+
+    private IvsPlayerManager.PlayerEventListener createEventForwarder(String playerId) {
+        return new IvsPlayerManager.PlayerEventListener() {
+            @Override
+            public void onPlaybackStateChanged(String state, boolean isPlaying) {
+                JSObject data = new JSObject();
+                data.put("playerId", playerId);
+                data.put("state", state);
+                data.put("isPlaying", isPlaying);
+                playerEvents.publish(PlayerEventEmitter.PLAYBACK_STATE, data);
+            }
+
+            @Override
+            public void onPlayerError(PlaybackException error) {
+                JSObject data = new JSObject();
+                data.put("playerId", playerId);
+                data.put("code", error.errorCode);
+                data.put("codeName", error.getErrorCodeName());
+                data.put("message", error.getMessage());
+                playerEvents.publish(PlayerEventEmitter.PLAYER_ERROR, data);
+            }
+
+            @Override
+            public void onRenditionChanged(Format format) {
+                JSObject data = new JSObject();
+                data.put("playerId", playerId);
+                data.put("width", format.width);
+                data.put("height", format.height);
+                data.put("bitrate", format.bitrate);
+                data.put("frameRate", format.frameRate);
+                playerEvents.publish(PlayerEventEmitter.RENDITION_CHANGED, data);
+            }
+
+            @Override
+            public void onQueueItemChanged(String itemId) {
+                JSObject data = new JSObject();
+                data.put("playerId", playerId);
+                data.put("itemId", itemId);
+                playerEvents.publish(PlayerEventEmitter.QUEUE_ITEM_CHANGED, data);
+            }
+
+            @Override
+            public void onRecoveryAction(String action, String reason, int attempt, long delayMs) {
+                JSObject data = new JSObject();
+                data.put("playerId", playerId);
+                data.put("action", action);
+                data.put("reason", reason);
+                data.put("attempt", attempt);
+                data.put("delayMs", delayMs);
+                playerEvents.publish(PlayerEventEmitter.RECOVERY, data);
+            }
+
+            @Override
+            public void onUrlRefreshRequired(String url, String reason, long expiresAtMs) {
+                JSObject data = new JSObject();
+                data.put("playerId", playerId);
+                data.put("url", url);
+                data.put("reason", reason);
+                data.put("expiresAt", expiresAtMs);
+                playerEvents.publish(PlayerEventEmitter.URL_REFRESH_REQUIRED, data);
+            }
+        };
     }
 
+    /**
+     * Current values for the sampled event types of the focused player, read on the main thread
+     */
+    private JSObject samplePlayerEvent(String eventName) {
+        PlayerStateSnapshot state = playerManager.getStateSnapshot();
+        JSObject data = new JSObject();
+        data.put("playerId", focusedPlayerId);
+        switch (eventName) {
+            case PlayerEventEmitter.POSITION:
+                data.put("currentTime", state.getCurrentPositionMs());
+                data.put("duration", state.durationMs);
+                return data;
+            case PlayerEventEmitter.BUFFERED_RANGE:
+                data.put("start", state.positionMs);
+                data.put("end", state.bufferedPositionMs);
+                return data;
+            case PlayerEventEmitter.LIVE_LATENCY:
+                if (state.liveOffsetMs < 0) return null;
+                data.put("liveLatency", state.liveOffsetMs);
+                data.put("targetOffset", state.targetLiveOffsetMs);
+                data.put("playbackSpeed", state.playbackSpeed);
+                return data;
+            default:
+                return null;
+        }
+    }
+
+    private final DownloadManager.Listener downloadListener = new DownloadManager.Listener() {
+        @Override
+        public void onDownloadChanged(DownloadManager downloadManager, Download download, Exception finalException) {
+            JSObject data = toJSObject(download);
+            if (finalException != null) {
+                data.put("error", finalException.getMessage());
+                // The signed URL expired while the download was paused; downloadRecording with a new one resumes it
+                data.put("urlRefreshRequired", RecordingDownloads.isSignatureRejected(finalException));
+            }
+            notifyListeners("downloadStateChanged", data);
+            mainHandler.removeCallbacks(downloadProgressRunnable);
+            mainHandler.post(downloadProgressRunnable);
+        }
+
+        @Override
+        public void onDownloadRemoved(DownloadManager downloadManager, Download download) {
+            JSObject data = new JSObject();
+            data.put("eventId", download.request.id);
+            data.put("state", "removed");
+            notifyListeners("downloadStateChanged", data);
+        }
+    };
+
+    // DownloadManager has no progress callback, so poll while something is downloading
+    private final Runnable downloadProgressRunnable = new Runnable() {
+        @Override
+        public void run() {
+            boolean active = false;
+            for (Download download : downloads.getDownloadManager().getCurrentDownloads()) {
+                if (download.state == Download.STATE_DOWNLOADING) {
+                    notifyListeners("downloadProgress", toJSObject(download));
+                    active = true;
+                }
+            }
+            if (active) {
+                mainHandler.postDelayed(this, DOWNLOAD_PROGRESS_INTERVAL_MS);
+            }
+        }
+    };
+
     @PluginMethod
     public void initialize(PluginCall call) {
-        String url = call.getString("url");
-        String playerId = call.getString("playerId", "ivs-player");
-        boolean autoplay = call.getBoolean("autoplay", true);
+        PlaybackOptions options = new PlaybackOptions();
+        options.url = call.getString("url");
+        options.playerId = call.getString("playerId", "ivs-player");
+        options.autoplay = call.getBoolean("autoplay", true);
+        options.lowLatency = call.getBoolean("lowLatency", false);
+        options.isRecording = call.getBoolean("isRecording", false);
+        options.downloadId = call.getString("downloadId");
+        options.dedicatedPlaybackThread = call.getBoolean("dedicatedPlaybackThread", false);
+        // A download is keyed by its event id
+        options.eventId = call.getString("eventId", options.downloadId);
+        options.urlExpiresAt = call.getLong("expiresAt", 0L);
+        String bufferProfileName = call.getString("bufferProfile");
         
-        if (url == null) {
+        if (options.url == null && options.downloadId == null) {
             call.reject("URL is required");
             return;
         }
+        if (options.downloadId != null) {
+            Download download = RecordingDownloads.getInstance(getContext()).getDownload(options.downloadId);
+            if (download == null || download.state != Download.STATE_COMPLETED) {
+                call.reject("Recording " + options.downloadId + " is not downloaded yet");
+                return;
+            }
+        }
+
+        options.bufferProfile = BufferProfile.fromName(bufferProfileName);
+        if (bufferProfileName != null && options.bufferProfile == null) {
+            call.reject("Unknown buffer profile: " + bufferProfileName);
+            return;
+        }
+
+        int priority = call.getInt("priority", PlayerBandwidthBudget.DEFAULT_PRIORITY);
 
         getActivity().runOnUiThread(() -> {
             try {
-                playerManager.initialize(url, playerId, autoplay);
+                String playerId = options.playerId;
+                IvsPlayerManager existing = players.get(playerId);
+                boolean wasFocused = playerId.equals(focusedPlayerId);
+                if (existing == null && players.size() >= MAX_PLAYERS) {
+                    call.reject("Too many players, at most " + MAX_PLAYERS + " can run at once");
+                    return;
+                }
+                // Re-initializing a player parks it first; the pool hands the same warm instance back
+                if (existing != null) {
+                    players.remove(playerId);
+                    bandwidthBudget.remove(playerId);
+                    playerPool.release(existing);
+                }
+                // The first player takes the idle manager unless a warm one is waiting
+                IvsPlayerManager manager = players.isEmpty() && !playerPool.hasWarmPlayer()
+                    ? playerManager
+                    : playerPool.acquire();
+
+                // The first player is focused and fullscreen; later ones join muted and embedded
+                boolean primary = players.isEmpty() || wasFocused;
+                boolean focus = call.getBoolean("focused", primary);
+                options.startFullscreen = call.getBoolean("fullscreen", primary);
+                manager.setQoeCollector(qoeCollectorFor(playerId));
+                manager.setPlayerEventListener(createEventForwarder(playerId));
+                manager.setFocused(focus);
+                manager.initialize(options);
+
+                players.put(playerId, manager);
+                bandwidthBudget.add(playerId, manager, priority);
+                if (focus) {
+                    bandwidthBudget.setFocused(playerId);
+                }
+                syncFocus();
+                playerEvents.start();
                 JSObject ret = new JSObject();
                 ret.put("success", true);
                 call.resolve(ret);
@@ -39,20 +288,264 @@ public class IvsVideoPlayerPlugin extends Plugin {
         });
     }
 
+    /**
+     * Point playerManager at the budget's focused player and hand it the app-wide settings
+     */
+    private void syncFocus() {
+        String playerId = bandwidthBudget.getFocusedId();
+        IvsPlayerManager manager = playerId != null ? players.get(playerId) : null;
+        if (manager == null) return;
+        focusedPlayerId = playerId;
+        playerManager = manager;
+        manager.setBackgroundAudioEnabled(backgroundAudioEnabled);
+        manager.setAutoPictureInPicture(autoPictureInPicture);
+    }
+
+    /**
+     * The player named by the call's playerId, or the focused one when it has none.
+     * Rejects the call and returns null for an unknown id.
+     */
+    private IvsPlayerManager resolvePlayer(PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) return playerManager;
+        IvsPlayerManager manager = players.get(playerId);
+        if (manager == null) {
+            call.reject("Unknown playerId: " + playerId);
+        }
+        return manager;
+    }
+
+    private QoeCollector qoeCollectorFor(String playerId) {
+        QoeCollector collector = qoeCollectors.get(playerId);
+        if (collector == null) {
+            collector = new QoeCollector();
+            qoeCollectors.put(playerId, collector);
+        }
+        return collector;
+    }
+
+    /**
+     * Give a player the audio, the MediaSession and the uncapped rendition
+     */
     @PluginMethod
-    public void play(PluginCall call) {
+    public void setFocusedPlayer(PluginCall call) {
+        String playerId = call.getString("playerId");
+        if (playerId == null) {
+            call.reject("playerId is required");
+            return;
+        }
+
         getActivity().runOnUiThread(() -> {
-            playerManager.play();
+            if (!bandwidthBudget.setFocused(playerId)) {
+                call.reject("Unknown playerId: " + playerId);
+                return;
+            }
+            syncFocus();
             JSObject ret = new JSObject();
             ret.put("success", true);
             call.resolve(ret);
         });
     }
 
+    /**
+     * Weight of a non-focused player in the share of bandwidth left by the focused one
+     */
     @PluginMethod
-    public void pause(PluginCall call) {
+    public void setPlayerPriority(PluginCall call) {
+        String playerId = call.getString("playerId");
+        Integer priority = call.getInt("priority");
+        if (playerId == null || priority == null) {
+            call.reject("playerId and priority are required");
+            return;
+        }
+
         getActivity().runOnUiThread(() -> {
-            playerManager.pause();
+            if (!bandwidthBudget.setPriority(playerId, priority)) {
+                call.reject("Unknown playerId: " + playerId);
+                return;
+            }
+            JSObject ret = new JSObject();
+            ret.put("success", true);
+            call.resolve(ret);
+        });
+    }
+
+    @PluginMethod
+    public void getPlayers(PluginCall call) {
+        getActivity().runOnUiThread(() -> {
+            JSArray list = new JSArray();
+            for (Map.Entry<String, IvsPlayerManager> entry : players.entrySet()) {
+                PlayerStateSnapshot state = entry.getValue().getStateSnapshot();
+                int bitrateCap = entry.getValue().getMaxVideoBitrate();
+                JSObject player = new JSObject();
+                player.put("playerId", entry.getKey());
+                player.put("focused", entry.getKey().equals(focusedPlayerId));
+                player.put("priority", bandwidthBudget.getPriority(entry.getKey()));
+                player.put("bitrateCap", bitrateCap == Integer.MAX_VALUE ? -1 : bitrateCap);
+                player.put("state", state.playbackState);
+                player.put("videoBitrate", state.videoBitrate);
+                list.put(player);
+            }
+            JSObject ret = new JSObject();
+            ret.put("players", list);
+            call.resolve(ret);
+        });
+    }
+
+    /**
+     * Queue several events on one player, e.g. { items: [{ id, url }], startIndex }.
+     * Queued items load in the background so switchToQueueItem is near-instant.
+     */
+    @PluginMethod
+    public void setQueue(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        JSArray itemsArray = call.getArray("items");
+        int startIndex = call.getInt("startIndex", 0);
+        if (itemsArray == null || itemsArray.length() == 0) {
+            call.reject("items is required");
+            return;
+        }
+
+        List<IvsPlayerManager.QueueItem> items = new ArrayList<>();
+        for (int i = 0; i < itemsArray.length(); i++) {
+            JSONObject item = itemsArray.optJSONObject(i);
+            String id = item != null ? item.optString("id", null) : null;
+            String url = item != null ? item.optString("url", null) : null;
+            if (id == null || url == null) {
+                call.reject("Each queue item needs an id and a url");
+                return;
+            }
+            items.add(new IvsPlayerManager.QueueItem(id, url, item.optBoolean("isRecording", false),
+                item.optString("eventId", null)));
+        }
+
+        getActivity().runOnUiThread(() -> {
+            if (!manager.setQueue(items, startIndex)) {
+                call.reject("Failed to set queue: player not initialized or too many items");
+                return;
+            }
+            JSObject ret = new JSObject();
+            ret.put("success", true);
+            ret.put("currentItemId", manager.getCurrentQueueItemId());
+            call.resolve(ret);
+        });
+    }
+
+    @PluginMethod
+    public void switchToQueueItem(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        String itemId = call.getString("itemId");
+        if (itemId == null) {
+            call.reject("itemId is required");
+            return;
+        }
+
+        getActivity().runOnUiThread(() -> {
+            if (!manager.switchToQueueItem(itemId)) {
+                call.reject("Unknown queue item: " + itemId);
+                return;
+            }
+            JSObject ret = new JSObject();
+            ret.put("success", true);
+            call.resolve(ret);
+        });
+    }
+
+    /**
+     * Fresh signed URL for a playing or queued stream, matched on the URL without its query.
+     * Resolves success false when it matches nothing, so the caller can re-initialize instead.
+     */
+    @PluginMethod
+    public void refreshPlaybackUrl(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        String url = call.getString("url");
+        if (url == null) {
+            call.reject("URL is required");
+            return;
+        }
+        long expiresAt = call.getLong("expiresAt", 0L);
+
+        getActivity().runOnUiThread(() -> {
+            JSObject ret = new JSObject();
+            ret.put("success", manager.refreshSignedUrl(url, expiresAt));
+            call.resolve(ret);
+        });
+    }
+
+    @PluginMethod
+    public void getQueue(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        getActivity().runOnUiThread(() -> {
+            JSArray items = new JSArray();
+            for (IvsPlayerManager.QueueItem item : manager.getQueue()) {
+                JSObject entry = new JSObject();
+                entry.put("id", item.id);
+                entry.put("url", item.url);
+                entry.put("isRecording", item.isRecording);
+                entry.put("eventId", item.eventId);
+                items.put(entry);
+            }
+            JSObject ret = new JSObject();
+            ret.put("items", items);
+            ret.put("currentItemId", manager.getCurrentQueueItemId());
+            call.resolve(ret);
+        });
+    }
+
+    @PluginMethod
+    public void preload(PluginCall call) {
+        String url = call.getString("url");
+        if (url == null) {
+            call.reject("URL is required");
+            return;
+        }
+
+        StreamPreloader.getInstance(getContext()).preload(url, new StreamPreloader.PreloadCallback() {
+            @Override
+            public void onPreloaded(StreamPreloader.PreloadEntry entry) {
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                ret.put("isLive", entry.isLive);
+                ret.put("variantBitrate", entry.variantBitrate);
+                ret.put("segmentsCached", entry.segmentsCached);
+                call.resolve(ret);
+            }
+
+            @Override
+            public void onPreloadError(String error) {
+                call.reject("Failed to preload stream: " + error);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void play(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        manager.runOnPlayerThread(() -> {
+            manager.play();
+            JSObject ret = new JSObject();
+            ret.put("success", true);
+            call.resolve(ret);
+        });
+    }
+
+    @PluginMethod
+    public void pause(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        manager.runOnPlayerThread(() -> {
+            manager.pause();
             JSObject ret = new JSObject();
             ret.put("success", true);
             call.resolve(ret);
@@ -61,12 +554,15 @@ public class IvsVideoPlayerPlugin extends Plugin {
 
     @PluginMethod
     public void toggleFullscreen(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
         getActivity().runOnUiThread(() -> {
             try {
-                playerManager.toggleFullscreen();
+                manager.toggleFullscreen();
                 JSObject ret = new JSObject();
                 ret.put("success", true);
-                ret.put("isFullscreen", playerManager.isFullscreen());
+                ret.put("isFullscreen", manager.isFullscreen());
                 call.resolve(ret);
             } catch (Exception e) {
                 call.reject("Failed to toggle fullscreen: " + e.getMessage());
@@ -74,10 +570,228 @@ public class IvsVideoPlayerPlugin extends Plugin {
         });
     }
 
+    @PluginMethod
+    public void prewarm(PluginCall call) {
+        boolean lowLatency = call.getBoolean("lowLatency", false);
+        boolean dedicatedPlaybackThread = call.getBoolean("dedicatedPlaybackThread", false);
+        String bufferProfileName = call.getString("bufferProfile");
+        Long idleTimeoutMs = call.getLong("idleTimeoutMs");
+
+        BufferProfile bufferProfile = BufferProfile.fromName(bufferProfileName);
+        if (bufferProfileName != null && bufferProfile == null) {
+            call.reject("Unknown buffer profile: " + bufferProfileName);
+            return;
+        }
+
+        getActivity().runOnUiThread(() -> {
+            try {
+                if (idleTimeoutMs != null) {
+                    playerPool.setIdleTimeoutMs(idleTimeoutMs);
+                }
+                // Only build a separate warm instance when nothing is on screen
+                if (players.isEmpty()) {
+                    playerPool.prewarm(lowLatency, bufferProfile, dedicatedPlaybackThread);
+                }
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                call.resolve(ret);
+            } catch (Exception e) {
+                call.reject("Failed to prewarm player: " + e.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void getCacheStats(PluginCall call) {
+        JSObject ret = new JSObject();
+        ret.put("hitRate", MediaCache.getHitRate());
+        ret.put("cacheSize", MediaCache.getCacheSize(getContext()));
+        ret.put("maxCacheSize", MediaCache.getMaxCacheSize());
+        ret.put("cacheBytesRead", MediaCache.getCacheBytesRead());
+        ret.put("networkBytesRead", MediaCache.getNetworkBytesRead());
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void clearCache(PluginCall call) {
+        // Plugin calls arrive on the bridge's background thread, safe for disk I/O
+        try {
+            MediaCache.clear(getContext());
+            JSObject ret = new JSObject();
+            ret.put("success", true);
+            call.resolve(ret);
+        } catch (Exception e) {
+            call.reject("Failed to clear cache: " + e.getMessage());
+        }
+    }
+
+    @PluginMethod
+    public void configureNetwork(PluginCall call) {
+        Long connectTimeoutMs = call.getLong("connectTimeoutMs");
+        Long readTimeoutMs = call.getLong("readTimeoutMs");
+        if (connectTimeoutMs == null || readTimeoutMs == null) {
+            call.reject("connectTimeoutMs and readTimeoutMs are required");
+            return;
+        }
+
+        SharedHttpClient.configure(connectTimeoutMs, readTimeoutMs);
+        JSObject ret = new JSObject();
+        ret.put("success", true);
+        ret.put("connectionCount", SharedHttpClient.getConnectionCount());
+        ret.put("idleConnectionCount", SharedHttpClient.getIdleConnectionCount());
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void getBandwidthInfo(PluginCall call) {
+        getActivity().runOnUiThread(() -> {
+            BandwidthEstimateStore store = BandwidthEstimateStore.getInstance(getContext());
+            JSObject ret = new JSObject();
+            ret.put("networkType", BandwidthEstimateStore.networkTypeName(store.getNetworkType()));
+            ret.put("initialEstimate", playerManager.getInitialBitrateEstimate());
+            ret.put("initialEstimateSource", playerManager.getInitialEstimateSource());
+            ret.put("storedEstimate", store.getStoredEstimate());
+            ret.put("currentEstimate", store.getCurrentEstimate());
+            ret.put("currentEstimateSource", store.getEstimateSource());
+            call.resolve(ret);
+        });
+    }
+
+    /**
+     * Persisted data-saver switch: lower rendition cap and no segment prefetch on metered links
+     */
+    @PluginMethod
+    public void setDataSaver(PluginCall call) {
+        Boolean enabled = call.getBoolean("enabled");
+        if (enabled == null) {
+            call.reject("enabled is required");
+            return;
+        }
+
+        NetworkMonitor.getInstance(getContext()).setDataSaverEnabled(enabled);
+        JSObject ret = new JSObject();
+        ret.put("success", true);
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void getNetworkStatus(PluginCall call) {
+        getActivity().runOnUiThread(() -> {
+            NetworkMonitor monitor = NetworkMonitor.getInstance(getContext());
+            IvsPlayerManager manager = playerManager;
+            JSObject ret = new JSObject();
+            ret.put("online", monitor.isOnline());
+            ret.put("metered", monitor.isMetered());
+            ret.put("dataSaver", monitor.isDataSaverEnabled());
+            ret.put("networkType", BandwidthEstimateStore.networkTypeName(
+                BandwidthEstimateStore.getInstance(getContext()).getNetworkType()));
+            ret.put("bufferProfile", manager.getActiveBufferProfileName());
+            int cap = manager.getNetworkBitrateCap();
+            // 0 when the link does not cap renditions
+            ret.put("bitrateCap", cap == Integer.MAX_VALUE ? 0 : cap);
+            call.resolve(ret);
+        });
+    }
+
+    @PluginMethod
+    public void getStartupMetrics(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        PlayerStateSnapshot state = manager.getStateSnapshot();
+        JSObject ret = new JSObject();
+        ret.put("timeToFirstFrame", state.timeToFirstFrameMs);
+        ret.put("warmStart", state.warmStart);
+        call.resolve(ret);
+    }
+
+    /**
+     * Minimum interval in ms per event type, e.g. { position: 250, liveLatency: -1 }.
+     * Negative turns a type off. Resolves with the rates now in effect.
+     */
+    @PluginMethod
+    public void setEventRates(PluginCall call) {
+        getActivity().runOnUiThread(() -> {
+            JSObject rates = new JSObject();
+            for (String eventName : PlayerEventEmitter.EVENT_TYPES) {
+                Long intervalMs = call.getLong(eventName);
+                if (intervalMs != null) {
+                    playerEvents.setInterval(eventName, intervalMs);
+                }
+                rates.put(eventName, playerEvents.getInterval(eventName));
+            }
+            call.resolve(rates);
+        });
+    }
+
+    @PluginMethod
+    public void setBackgroundPlayback(PluginCall call) {
+        boolean enabled = call.getBoolean("enabled", true);
+        getActivity().runOnUiThread(() -> {
+            backgroundAudioEnabled = enabled;
+            playerManager.setBackgroundAudioEnabled(enabled);
+            JSObject ret = new JSObject();
+            ret.put("success", true);
+            ret.put("enabled", enabled);
+            call.resolve(ret);
+        });
+    }
+
+    @PluginMethod
+    public void enterPictureInPicture(PluginCall call) {
+        getActivity().runOnUiThread(() -> {
+            JSObject ret = new JSObject();
+            ret.put("supported", playerManager.isPictureInPictureSupported());
+            ret.put("success", playerManager.enterPictureInPicture());
+            call.resolve(ret);
+        });
+    }
+
+    @PluginMethod
+    public void setAutoPictureInPicture(PluginCall call) {
+        boolean enabled = call.getBoolean("enabled", true);
+        getActivity().runOnUiThread(() -> {
+            autoPictureInPicture = enabled;
+            playerManager.setAutoPictureInPicture(enabled);
+            JSObject ret = new JSObject();
+            ret.put("success", true);
+            ret.put("supported", playerManager.isPictureInPictureSupported());
+            call.resolve(ret);
+        });
+    }
+
+    @PluginMethod
+    public void drainQoeSessions(PluginCall call) {
+        getActivity().runOnUiThread(() -> {
+            JSObject ret = new JSObject();
+            JSArray sessions = new JSArray();
+            for (QoeCollector collector : qoeCollectors.values()) {
+                JSArray drained = collector.drain();
+                for (int i = 0; i < drained.length(); i++) {
+                    sessions.put(drained.opt(i));
+                }
+            }
+            ret.put("sessions", sessions);
+            call.resolve(ret);
+        });
+    }
+
     @PluginMethod
     public void destroy(PluginCall call) {
         getActivity().runOnUiThread(() -> {
-            playerManager.destroy();
+            String playerId = call.getString("playerId", focusedPlayerId);
+            IvsPlayerManager manager = playerId != null ? players.remove(playerId) : null;
+            if (manager != null) {
+                bandwidthBudget.remove(playerId);
+                pausedInBackground.remove(playerId);
+                // Park the player for reuse; the pool releases it after the idle timeout
+                playerPool.release(manager);
+                syncFocus();
+            }
+            if (players.isEmpty()) {
+                playerEvents.stop();
+                focusedPlayerId = null;
+            }
             JSObject ret = new JSObject();
             ret.put("success", true);
             call.resolve(ret);
@@ -86,30 +800,74 @@ public class IvsVideoPlayerPlugin extends Plugin {
 
     @PluginMethod
     public void getCurrentTime(PluginCall call) {
-        long currentTime = playerManager.getCurrentTime();
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
         JSObject ret = new JSObject();
-        ret.put("currentTime", currentTime);
+        ret.put("currentTime", manager.getStateSnapshot().getCurrentPositionMs());
         call.resolve(ret);
     }
 
     @PluginMethod
     public void getDuration(PluginCall call) {
-        long duration = playerManager.getDuration();
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        JSObject ret = new JSObject();
+        ret.put("duration", manager.getStateSnapshot().durationMs);
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void getLiveLatency(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        PlayerStateSnapshot state = manager.getStateSnapshot();
+        JSObject ret = new JSObject();
+        ret.put("liveLatency", state.liveOffsetMs);
+        ret.put("targetOffset", state.targetLiveOffsetMs);
+        ret.put("playbackSpeed", state.playbackSpeed);
+        ret.put("lowLatency", state.lowLatency);
+        call.resolve(ret);
+    }
+
+    /**
+     * Everything the player publishes in one read; answered from the snapshot
+     */
+    @PluginMethod
+    public void getPlayerState(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        PlayerStateSnapshot state = manager.getStateSnapshot();
         JSObject ret = new JSObject();
-        ret.put("duration", duration);
+        ret.put("state", state.playbackState);
+        ret.put("isPlaying", state.isPlaying);
+        ret.put("currentTime", state.getCurrentPositionMs());
+        ret.put("duration", state.durationMs);
+        ret.put("bufferedPosition", state.bufferedPositionMs);
+        ret.put("liveLatency", state.liveOffsetMs);
+        ret.put("playbackSpeed", state.playbackSpeed);
+        ret.put("videoWidth", state.videoWidth);
+        ret.put("videoHeight", state.videoHeight);
+        ret.put("videoBitrate", state.videoBitrate);
         call.resolve(ret);
     }
 
     @PluginMethod
     public void seekTo(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
         Long seekTime = call.getLong("seekTime");
         if (seekTime == null) {
             call.reject("seekTime is required");
             return;
         }
         
-        getActivity().runOnUiThread(() -> {
-            playerManager.seekTo(seekTime);
+        manager.runOnPlayerThread(() -> {
+            manager.seekTo(seekTime);
             JSObject ret = new JSObject();
             ret.put("success", true);
             call.resolve(ret);
@@ -128,6 +886,9 @@ public class IvsVideoPlayerPlugin extends Plugin {
 
     @PluginMethod
     public void setPlayerBounds(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
         Integer x = call.getInt("x");
         Integer y = call.getInt("y");
         Integer width = call.getInt("width");
@@ -138,8 +899,39 @@ public class IvsVideoPlayerPlugin extends Plugin {
             return;
         }
 
+        // No UI thread hop: the manager merges bursts and applies them on the next frame
+        manager.setPlayerBounds(x, y, width, height);
+        JSObject ret = new JSObject();
+        ret.put("success", true);
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void getBoundsSyncStats(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        boolean reset = call.getBoolean("reset", false);
+        OverlayBoundsSync.Stats stats = manager.getBoundsSyncStats(reset);
+        JSObject ret = new JSObject();
+        ret.put("updatesReceived", stats != null ? stats.updatesReceived : 0);
+        ret.put("framesApplied", stats != null ? stats.framesApplied : 0);
+        ret.put("relayouts", stats != null ? stats.relayouts : 0);
+        ret.put("avgApplyMicros", stats != null ? stats.avgApplyMicros : 0);
+        ret.put("maxApplyMicros", stats != null ? stats.maxApplyMicros : 0);
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void showBadge(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
+
+        String text = call.getString("text", "LIVE");
+        boolean isLive = call.getBoolean("isLive", true);
+
         getActivity().runOnUiThread(() -> {
-            playerManager.setPlayerBounds(x, y, width, height);
+            manager.showBadge(text, isLive);
             JSObject ret = new JSObject();
             ret.put("success", true);
             call.resolve(ret);
@@ -147,12 +939,12 @@ public class IvsVideoPlayerPlugin extends Plugin {
     }
 
     @PluginMethod
-    public void showBadge(PluginCall call) {
-        String text = call.getString("text", "LIVE");
-        boolean isLive = call.getBoolean("isLive", true);
+    public void hideBadge(PluginCall call) {
+        IvsPlayerManager manager = resolvePlayer(call);
+        if (manager == null) return;
 
         getActivity().runOnUiThread(() -> {
-            playerManager.showBadge(text, isLive);
+            manager.hideBadge();
             JSObject ret = new JSObject();
             ret.put("success", true);
             call.resolve(ret);
@@ -160,17 +952,183 @@ public class IvsVideoPlayerPlugin extends Plugin {
     }
 
     @PluginMethod
-    public void hideBadge(PluginCall call) {
+    public void downloadRecording(PluginCall call) {
+        String eventId = call.getString("eventId");
+        String url = call.getString("url");
+        Long expiresAt = call.getLong("expiresAt", 0L);
+        Integer maxHeight = call.getInt("maxHeight", 0);
+
+        if (eventId == null || url == null) {
+            call.reject("eventId and url are required");
+            return;
+        }
+
+        downloads.buildRequest(eventId, url, expiresAt, maxHeight, new RecordingDownloads.RequestCallback() {
+            @Override
+            public void onQueued(DownloadRequest request) {
+                getActivity().runOnUiThread(() -> {
+                    try {
+                        DownloadService.sendAddDownload(getContext(), RecordingDownloadService.class, request, false);
+                        JSObject ret = new JSObject();
+                        ret.put("success", true);
+                        call.resolve(ret);
+                    } catch (Exception e) {
+                        call.reject("Failed to start download: " + e.getMessage());
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                call.reject("Failed to start download: " + error);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void removeDownload(PluginCall call) {
+        String eventId = call.getString("eventId");
+        if (eventId == null) {
+            call.reject("eventId is required");
+            return;
+        }
+
         getActivity().runOnUiThread(() -> {
-            playerManager.hideBadge();
+            DownloadService.sendRemoveDownload(getContext(), RecordingDownloadService.class, eventId, false);
             JSObject ret = new JSObject();
             ret.put("success", true);
             call.resolve(ret);
         });
     }
 
+    @PluginMethod
+    public void getDownloads(PluginCall call) {
+        getActivity().runOnUiThread(() -> {
+            downloads.removeExpired();
+            JSArray list = new JSArray();
+            for (Download download : downloads.getDownloads()) {
+                if (!RecordingDownloads.isExpired(download)) {
+                    list.put(toJSObject(download));
+                }
+            }
+            JSObject ret = new JSObject();
+            ret.put("downloads", list);
+            call.resolve(ret);
+        });
+    }
+
+    private JSObject toJSObject(Download download) {
+        JSObject data = new JSObject();
+        data.put("eventId", download.request.id);
+        data.put("state", downloadStateName(download.state));
+        data.put("percent", download.getPercentDownloaded());
+        data.put("bytesDownloaded", download.getBytesDownloaded());
+        data.put("expiresAt", RecordingDownloads.getExpiresAt(download));
+        return data;
+    }
+
+    private static String downloadStateName(int state) {
+        switch (state) {
+            case Download.STATE_QUEUED:
+                return "queued";
+            case Download.STATE_STOPPED:
+                return "stopped";
+            case Download.STATE_DOWNLOADING:
+                return "downloading";
+            case Download.STATE_COMPLETED:
+                return "completed";
+            case Download.STATE_FAILED:
+                return "failed";
+            case Download.STATE_REMOVING:
+                return "removing";
+            case Download.STATE_RESTARTING:
+                return "restarting";
+            default:
+                return "unknown";
+        }
+    }
+
+    /**
+     * Forwarded by MainActivity
+     */
+    public void onUserLeaveHint() {
+        playerManager.onUserLeaveHint();
+    }
+
+    /**
+     * Forwarded by MainActivity. Closing the PiP window stops the activity before this
+     * arrives, in which case playback is paused rather than left running unseen.
+     */
+    public void onPictureInPictureModeChanged(boolean isInPictureInPicture, Configuration newConfig) {
+        float density = getActivity().getResources().getDisplayMetrics().density;
+        playerManager.onPictureInPictureModeChanged(isInPictureInPicture,
+            Math.round(newConfig.screenWidthDp * density), Math.round(newConfig.screenHeightDp * density));
+
+        boolean dismissed = !isInPictureInPicture
+            && !getActivity().getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED);
+        if (dismissed) {
+            playerManager.pause();
+        }
+
+        JSObject data = new JSObject();
+        data.put("playerId", focusedPlayerId);
+        data.put("active", isInPictureInPicture);
+        data.put("dismissed", dismissed);
+        playerEvents.publish(PlayerEventEmitter.PICTURE_IN_PICTURE, data);
+    }
+
+    @Override
+    protected void handleOnPause() {
+        playerManager.enterBackgroundAudio();
+        DlnaDiscovery.getInstance(getContext()).setInBackground(true);
+        // Muted secondary players have nothing to offer in the background
+        for (Map.Entry<String, IvsPlayerManager> entry : players.entrySet()) {
+            IvsPlayerManager manager = entry.getValue();
+            if (manager != playerManager && manager.getPlayWhenReady()) {
+                manager.pause();
+                pausedInBackground.add(entry.getKey());
+            }
+        }
+    }
+
+    @Override
+    protected void handleOnResume() {
+        playerManager.exitBackgroundAudio();
+        DlnaDiscovery.getInstance(getContext()).setInBackground(false);
+        for (String playerId : pausedInBackground) {
+            IvsPlayerManager manager = players.get(playerId);
+            if (manager != null) {
+                manager.play();
+            }
+        }
+        pausedInBackground.clear();
+        
+        // Downloads paused by the foreground service time limit continue now it has reset
+        if (downloads.resumeAfterTimeout() && !downloads.getDownloadManager().getCurrentDownloads().isEmpty()) {
+            DownloadService.start(getContext(), RecordingDownloadService.class);
+            mainHandler.removeCallbacks(downloadProgressRunnable);
+            mainHandler.post(downloadProgressRunnable);
+        }
+    }
+
     @Override
     protected void handleOnDestroy() {
+        mainHandler.removeCallbacks(downloadProgressRunnable);
+        if (playerEvents != null) {
+            playerEvents.stop();
+        }
+        if (downloads != null) {
+            downloads.getDownloadManager().removeListener(downloadListener);
+        }
+        if (playerPool != null) {
+            playerPool.evict();
+        }
+        for (IvsPlayerManager manager : players.values()) {
+            if (manager != playerManager) {
+                manager.destroy();
+            }
+        }
+        players.clear();
         if (playerManager != null) {
             playerManager.destroy();
         }
@@ -0,0 +1,150 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import com.google.android.exoplayer2.database.DatabaseProvider;
+import com.google.android.exoplayer2.database.StandaloneDatabaseProvider;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheKeyFactory;
+import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide on-disk segment cache with LRU eviction. SimpleCache locks its
+ * directory, so there must only ever be one instance per folder.
+ */
+public final class MediaCache {
+    private static final String TAG = "MediaCache";
+    private static final String CACHE_DIR = "ivs-media";
+    private static final long MAX_CACHE_BYTES = 512L * 1024 * 1024;
+
+    /**
+     * Signed recording URLs get a new query string on every refresh and app start,
+     * so cache entries are keyed on the URL without it
+     */
+    public static final CacheKeyFactory CACHE_KEY_FACTORY = dataSpec -> {
+        if (dataSpec.key != null) return dataSpec.key;
+        Uri uri = dataSpec.uri;
+        return uri.getQuery() == null ? uri.toString() : uri.buildUpon().clearQuery().build().toString();
+    };
+
+    private static SimpleCache cache;
+    private static StandaloneDatabaseProvider databaseProvider;
+    private static final AtomicLong cacheBytesRead = new AtomicLong();
+    private static final AtomicLong networkBytesRead = new AtomicLong();
+
+    private MediaCache() {}
+
+    public static synchronized Cache getInstance(Context context) {
+        if (cache == null) {
+            Context appContext = context.getApplicationContext();
+            File dir = new File(appContext.getCacheDir(), CACHE_DIR);
+            cache = new SimpleCache(
+                dir,
+                new LeastRecentlyUsedCacheEvictor(MAX_CACHE_BYTES),
+                getDatabaseProvider(appContext)
+            );
+        }
+        return cache;
+    }
+
+    /**
+     * Shared index database for every SimpleCache and the download manager
+     */
+    public static synchronized DatabaseProvider getDatabaseProvider(Context context) {
+        if (databaseProvider == null) {
+            databaseProvider = new StandaloneDatabaseProvider(context.getApplicationContext());
+        }
+        return databaseProvider;
+    }
+
+    /**
+     * Data source for recording playback: segments and playlists are read from the
+     * cache when present and written through on a miss. Bytes are counted for getHitRate().
+     */
+    public static DataSource.Factory createRecordingDataSourceFactory(Context context) {
+        DataSource.Factory upstream = SharedHttpClient.createDataSourceFactory(new NetworkByteCounter());
+        return new CacheDataSource.Factory()
+            .setCache(getInstance(context))
+            .setCacheKeyFactory(CACHE_KEY_FACTORY)
+            .setUpstreamDataSourceFactory(upstream)
+            .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR)
+            .setEventListener(new CacheDataSource.EventListener() {
+                @Override
+                public void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+                    cacheBytesRead.addAndGet(cachedBytesRead);
+                }
+
+                @Override
+                public void onCacheIgnored(int reason) {
+                    Log.w(TAG, "Cache ignored, reason: " + reason);
+                }
+            });
+    }
+
+    /**
+     * Fraction of recording bytes served from disk since app start, 0 when nothing was read
+     */
+    public static double getHitRate() {
+        long fromCache = cacheBytesRead.get();
+        long total = fromCache + networkBytesRead.get();
+        return total > 0 ? (double) fromCache / total : 0;
+    }
+
+    public static long getCacheBytesRead() {
+        return cacheBytesRead.get();
+    }
+
+    public static long getNetworkBytesRead() {
+        return networkBytesRead.get();
+    }
+
+    public static long getCacheSize(Context context) {
+        return getInstance(context).getCacheSpace();
+    }
+
+    public static long getMaxCacheSize() {
+        return MAX_CACHE_BYTES;
+    }
+
+    /**
+     * Remove every cached resource. Does disk I/O, do not call on the UI thread.
+     */
+    public static void clear(Context context) {
+        Cache instance = getInstance(context);
+        for (String key : new HashSet<>(instance.getKeys())) {
+            instance.removeResource(key);
+        }
+        cacheBytesRead.set(0);
+        networkBytesRead.set(0);
+        Log.d(TAG, "Cache cleared");
+    }
+
+    private static final class NetworkByteCounter implements TransferListener {
+        @Override
+        public void onTransferInitializing(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+
+        @Override
+        public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+
+        @Override
+        public void onBytesTransferred(DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+            if (isNetwork) {
+                networkBytesRead.addAndGet(bytesTransferred);
+            }
+        }
+
+        @Override
+        public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+    }
+}
@@ -0,0 +1,135 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Watches the default network and whether it is metered, plus the user's
+ * data-saver choice (persisted). Players adapt their buffer profile and
+ * rendition cap to it, the preloader its segment prefetch. Listeners are
+ * called on the main thread.
+ */
+public final class NetworkMonitor {
+    private static final String TAG = "NetworkMonitor";
+    private static final String PREFS_NAME = "ivs_player_network";
+    private static final String KEY_DATA_SAVER = "data_saver";
+
+    public interface Listener {
+        /**
+         * Connectivity, metered status or data saver changed. regained is true when
+         * the device just came back online.
+         */
+        void onNetworkPolicyChanged(boolean regained);
+    }
+
+    private static NetworkMonitor instance;
+
+    private final ConnectivityManager connectivityManager;
+    private final SharedPreferences prefs;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean online;
+    private volatile boolean metered;
+    private volatile boolean dataSaver;
+    // Default network last seen by the callback; a different one means cached DNS answers are stale
+    private Network currentNetwork;
+
+    public static synchronized NetworkMonitor getInstance(Context context) {
+        if (instance == null) {
+            instance = new NetworkMonitor(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private NetworkMonitor(Context context) {
+        this.connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.dataSaver = prefs.getBoolean(KEY_DATA_SAVER, false);
+
+        NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(connectivityManager.getActiveNetwork());
+        this.online = capabilities != null;
+        this.metered = capabilities == null || !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities networkCapabilities) {
+                if (!network.equals(currentNetwork)) {
+                    currentNetwork = network;
+                    SharedHttpClient.clearDnsCache();
+                }
+                update(true, !networkCapabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED));
+            }
+
+            @Override
+            public void onLost(Network network) {
+                // Metered status is kept: it describes the last link until a new one arrives
+                currentNetwork = null;
+                SharedHttpClient.clearDnsCache();
+                update(false, metered);
+            }
+        });
+    }
+
+    private void update(boolean online, boolean metered) {
+        boolean regained = online && !this.online;
+        if (online == this.online && metered == this.metered) return;
+        this.online = online;
+        this.metered = metered;
+        Log.d(TAG, "Network " + (online ? (metered ? "metered" : "unmetered") : "offline"));
+        notifyListeners(regained);
+    }
+
+    private void notifyListeners(boolean regained) {
+        mainHandler.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onNetworkPolicyChanged(regained);
+            }
+        });
+    }
+
+    public void addListener(Listener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+
+    public boolean isMetered() {
+        return metered;
+    }
+
+    public boolean isDataSaverEnabled() {
+        return dataSaver;
+    }
+
+    public void setDataSaverEnabled(boolean enabled) {
+        if (enabled == dataSaver) return;
+        dataSaver = enabled;
+        prefs.edit().putBoolean(KEY_DATA_SAVER, enabled).apply();
+        notifyListeners(false);
+    }
+
+    /**
+     * Segments fetched ahead of playback (preload, queue warm-up) may never be watched,
+     * so they are skipped when data saver is on and the link is metered
+     */
+    public boolean allowsSegmentPrefetch() {
+        return !(dataSaver && metered);
+    }
+}
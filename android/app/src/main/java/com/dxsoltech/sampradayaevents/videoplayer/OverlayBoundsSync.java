@@ -0,0 +1,183 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.view.Choreographer;
+import android.view.View;
+import android.widget.FrameLayout;
+
+/**
+ * Keeps the player container on top of a DOM element while the page scrolls.
+ * Bounds from JS (CSS pixels, relative to the WebView) can arrive from any
+ * thread. Each burst is merged and applied once on the next display frame.
+ * Position changes only move the view with translation. Layout params, and
+ * therefore a relayout, change only when the size does. Apply cost is tracked
+ * per frame for getStats().
+ */
+public class OverlayBoundsSync {
+
+    public interface SizeListener {
+        /**
+         * Container size changed (physical pixels), main thread
+         */
+        void onSizeChanged(int width, int height);
+    }
+
+    private final Choreographer choreographer;
+    private final View webView;
+    private final float density;
+    private final SizeListener sizeListener;
+    private final Choreographer.FrameCallback frameCallback = this::applyOnFrame;
+    private final int[] webViewLocation = new int[2];
+    private FrameLayout container;
+
+    // Latest bounds from JS, guarded by this
+    private int pendingX, pendingY, pendingWidth, pendingHeight;
+    private boolean hasPending = false;
+    private boolean frameScheduled = false;
+    private boolean enabled = true;
+
+    // Applied size, main thread
+    private int appliedWidth = -1;
+    private int appliedHeight = -1;
+
+    // Stats, guarded by this
+    private long updatesReceived = 0;
+    private long framesApplied = 0;
+    private long relayouts = 0;
+    private long totalApplyNanos = 0;
+    private long maxApplyNanos = 0;
+
+    /**
+     * Must be created on the main thread, the Choreographer is per looper
+     */
+    public OverlayBoundsSync(View webView, float density, SizeListener sizeListener) {
+        this.choreographer = Choreographer.getInstance();
+        this.webView = webView;
+        this.density = density;
+        this.sizeListener = sizeListener;
+    }
+
+    /**
+     * Main thread. Null detaches; a detached sync drops updates.
+     */
+    public void attach(FrameLayout container) {
+        this.container = container;
+        appliedWidth = -1;
+        appliedHeight = -1;
+    }
+
+    /**
+     * Queue new bounds, any thread. Only the last bounds before the next frame are applied.
+     */
+    public synchronized void post(int x, int y, int width, int height) {
+        if (!enabled) return;
+        pendingX = x;
+        pendingY = y;
+        pendingWidth = width;
+        pendingHeight = height;
+        hasPending = true;
+        updatesReceived++;
+        if (!frameScheduled) {
+            frameScheduled = true;
+            choreographer.postFrameCallback(frameCallback);
+        }
+    }
+
+    /**
+     * Stop following JS bounds (fullscreen or centered overlay took over). Main thread.
+     */
+    public void reset() {
+        synchronized (this) {
+            hasPending = false;
+            if (frameScheduled) {
+                choreographer.removeFrameCallback(frameCallback);
+                frameScheduled = false;
+            }
+        }
+        appliedWidth = -1;
+        appliedHeight = -1;
+        if (container != null) {
+            container.setTranslationX(0);
+            container.setTranslationY(0);
+        }
+    }
+
+    /**
+     * Ignore JS bounds while disabled (fullscreen)
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    private void applyOnFrame(long frameTimeNanos) {
+        int x, y, width, height;
+        synchronized (this) {
+            frameScheduled = false;
+            if (!hasPending || container == null) return;
+            x = pendingX;
+            y = pendingY;
+            width = pendingWidth;
+            height = pendingHeight;
+            hasPending = false;
+        }
+
+        long start = System.nanoTime();
+        int widthPx = Math.round(width * density);
+        int heightPx = Math.round(height * density);
+        boolean sizeChanged = widthPx != appliedWidth || heightPx != appliedHeight;
+        if (sizeChanged) {
+            FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(widthPx, heightPx);
+            container.setLayoutParams(params);
+            appliedWidth = widthPx;
+            appliedHeight = heightPx;
+        }
+        // The container sits in the decor view at (0,0); DOM coordinates are relative to the WebView
+        webView.getLocationInWindow(webViewLocation);
+        container.setTranslationX(webViewLocation[0] + x * density);
+        container.setTranslationY(webViewLocation[1] + y * density);
+        long elapsed = System.nanoTime() - start;
+
+        synchronized (this) {
+            framesApplied++;
+            totalApplyNanos += elapsed;
+            if (elapsed > maxApplyNanos) maxApplyNanos = elapsed;
+            if (sizeChanged) relayouts++;
+        }
+        if (sizeChanged && sizeListener != null) {
+            sizeListener.onSizeChanged(widthPx, heightPx);
+        }
+    }
+
+    /**
+     * Updates received vs frames applied shows the coalescing; apply times are the
+     * per-frame main thread cost (the relayout itself happens later in the traversal)
+     */
+    public synchronized Stats getStats() {
+        return new Stats(updatesReceived, framesApplied, relayouts,
+            framesApplied > 0 ? totalApplyNanos / framesApplied / 1000 : 0,
+            maxApplyNanos / 1000);
+    }
+
+    public synchronized void resetStats() {
+        updatesReceived = 0;
+        framesApplied = 0;
+        relayouts = 0;
+        totalApplyNanos = 0;
+        maxApplyNanos = 0;
+    }
+
+    public static class Stats {
+        public final long updatesReceived;
+        public final long framesApplied;
+        public final long relayouts;
+        public final long avgApplyMicros;
+        public final long maxApplyMicros;
+
+        Stats(long updatesReceived, long framesApplied, long relayouts, long avgApplyMicros, long maxApplyMicros) {
+            this.updatesReceived = updatesReceived;
+            this.framesApplied = framesApplied;
+            this.relayouts = relayouts;
+            this.avgApplyMicros = avgApplyMicros;
+            this.maxApplyMicros = maxApplyMicros;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+/**
+ * Options passed from IvsVideoPlayerPlugin.initialize to IvsPlayerManager
+ */
+public class PlaybackOptions {
+    public String url;
+    public String playerId = "ivs-player";
+    public boolean autoplay = true;
+    // Target a few seconds behind the live edge with speed-based catch-up
+    public boolean lowLatency = false;
+    // Null keeps ExoPlayer's default LoadControl
+    public BufferProfile bufferProfile;
+    // Recordings are read through the on-disk segment cache
+    public boolean isRecording = false;
+    // Event id of a completed offline download to play instead of the network URL
+    public String downloadId;
+    // Event the stream belongs to; QoE sessions are stored against it
+    public String eventId;
+    // Run the player and its listeners on their own thread, with a surface view and
+    // minimal controls instead of StyledPlayerView
+    public boolean dedicatedPlaybackThread = false;
+    // Secondary players start embedded and follow setPlayerBounds
+    public boolean startFullscreen = true;
+    // Epoch ms when the signed URL stops working; 0 reads it from the URL (Expires or token exp)
+    public long urlExpiresAt = 0;
+}
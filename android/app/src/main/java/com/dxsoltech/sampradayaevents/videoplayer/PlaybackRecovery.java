@@ -0,0 +1,255 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.exoplayer2.ExoPlayer;
+import com.google.android.exoplayer2.PlaybackException;
+import com.google.android.exoplayer2.Player;
+
+import java.util.Random;
+
+/**
+ * Gets a stuck player going again without the viewer backing out. Player errors
+ * are classified: falling behind the live window jumps straight to the live edge,
+ * network and server errors re-prepare with jittered exponential backoff, expired
+ * or forbidden URLs are reported for a new URL. A watchdog also catches silent
+ * stalls: buffering for too long, or a position that stops moving while playing.
+ * Every action is reported to the listener. Runs on the player's application thread.
+ */
+public class PlaybackRecovery {
+    private static final String TAG = "PlaybackRecovery";
+
+    public static final String ACTION_LIVE_EDGE = "liveEdge";
+    public static final String ACTION_RETRY = "retry";
+    public static final String ACTION_NEEDS_NEW_URL = "needsNewUrl";
+    public static final String ACTION_GAVE_UP = "gaveUp";
+    public static final String ACTION_RECOVERED = "recovered";
+
+    public static final String REASON_BEHIND_LIVE_WINDOW = "behindLiveWindow";
+    public static final String REASON_NETWORK = "network";
+    public static final String REASON_HTTP_FORBIDDEN = "httpForbidden";
+    public static final String REASON_HTTP_SERVER = "httpServer";
+    public static final String REASON_DECODER = "decoder";
+    public static final String REASON_STALL = "stall";
+    public static final String REASON_FROZEN = "frozen";
+    public static final String REASON_FATAL = "fatal";
+
+    private static final int MAX_ATTEMPTS = 6;
+    private static final long BASE_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 30000;
+    private static final long WATCHDOG_INTERVAL_MS = 1000;
+    // Buffering this long while the viewer wants to play counts as a stall
+    private static final long STALL_TIMEOUT_MS = 12000;
+    // Position not moving this long while ExoPlayer reports playing counts as frozen
+    private static final long FROZEN_TIMEOUT_MS = 6000;
+
+    public interface Listener {
+        void onRecoveryAction(String action, String reason, int attempt, long delayMs);
+    }
+
+    private final Listener listener;
+    private Handler handler = new Handler(Looper.getMainLooper());
+    private final Random random = new Random();
+    private final Runnable retryRunnable = this::retry;
+    private final Runnable watchdogRunnable = this::watchdog;
+    private ExoPlayer player;
+    private int attempts = 0;
+    private boolean retryScheduled = false;
+    private boolean gaveUp = false;
+    private String pendingReason;
+    private final StallTimer stallTimer = new StallTimer(STALL_TIMEOUT_MS);
+    private long lastPositionMs = -1;
+    private long positionStuckSinceMs = -1;
+
+    private final Player.Listener playerListener = new Player.Listener() {
+        @Override
+        public void onPlayerError(PlaybackException error) {
+            handleError(error);
+        }
+
+        @Override
+        public void onPlaybackStateChanged(int playbackState) {
+            if (playbackState == Player.STATE_BUFFERING) {
+                stallTimer.onBufferingStarted(SystemClock.elapsedRealtime());
+            } else {
+                stallTimer.reset();
+            }
+        }
+
+        @Override
+        public void onIsPlayingChanged(boolean isPlaying) {
+            if (isPlaying && attempts > 0) {
+                listener.onRecoveryAction(ACTION_RECOVERED, pendingReason, attempts, 0);
+                Log.i(TAG, "Recovered after " + attempts + " attempt(s), last reason " + pendingReason);
+                attempts = 0;
+                pendingReason = null;
+            }
+            if (isPlaying) {
+                gaveUp = false;
+            }
+        }
+    };
+
+    public PlaybackRecovery(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Start watching a player (after prepare), on its application thread
+     */
+    public void attach(ExoPlayer player) {
+        detach();
+        this.player = player;
+        if (handler.getLooper() != player.getApplicationLooper()) {
+            handler = new Handler(player.getApplicationLooper());
+        }
+        player.addListener(playerListener);
+        handler.postDelayed(watchdogRunnable, WATCHDOG_INTERVAL_MS);
+    }
+
+    public void detach() {
+        handler.removeCallbacks(retryRunnable);
+        handler.removeCallbacks(watchdogRunnable);
+        retryScheduled = false;
+        gaveUp = false;
+        if (player != null) {
+            player.removeListener(playerListener);
+            player = null;
+        }
+        attempts = 0;
+        pendingReason = null;
+        stallTimer.reset();
+        lastPositionMs = -1;
+        positionStuckSinceMs = -1;
+    }
+
+    /**
+     * Connectivity came back: a retry waiting out its backoff runs now
+     */
+    public void onNetworkRegained() {
+        if (player != null && retryScheduled) {
+            handler.removeCallbacks(retryRunnable);
+            retry();
+        }
+    }
+
+    private void handleError(PlaybackException error) {
+        String reason = classify(error);
+        Log.w(TAG, "Player error " + error.getErrorCodeName() + " classified as " + reason);
+        switch (reason) {
+            case REASON_BEHIND_LIVE_WINDOW:
+                // Nothing to wait for: the edge is where the content is
+                schedule(reason, 0);
+                break;
+            case REASON_NETWORK:
+            case REASON_HTTP_SERVER:
+            case REASON_DECODER:
+                schedule(reason, -1);
+                break;
+            case REASON_HTTP_FORBIDDEN:
+                // Retrying the same signed URL cannot succeed; playback resumes once a new one is supplied
+                listener.onRecoveryAction(ACTION_NEEDS_NEW_URL, reason, attempts, 0);
+                break;
+            default:
+                gaveUp = true;
+                listener.onRecoveryAction(ACTION_GAVE_UP, reason, attempts, 0);
+                break;
+        }
+    }
+
+    private static String classify(PlaybackException error) {
+        if (error.errorCode == PlaybackException.ERROR_CODE_BEHIND_LIVE_WINDOW) {
+            return REASON_BEHIND_LIVE_WINDOW;
+        }
+        if (error.errorCode == PlaybackException.ERROR_CODE_IO_BAD_HTTP_STATUS) {
+            if (SignedUrlRefresher.isSignatureRejected(error.getCause())) {
+                return REASON_HTTP_FORBIDDEN;
+            }
+            // 404 on live usually means the playlist moved past a segment; 5xx is transient
+            return REASON_HTTP_SERVER;
+        }
+        if (error.errorCode == PlaybackException.ERROR_CODE_IO_NETWORK_CONNECTION_FAILED
+                || error.errorCode == PlaybackException.ERROR_CODE_IO_NETWORK_CONNECTION_TIMEOUT
+                || error.errorCode == PlaybackException.ERROR_CODE_IO_UNSPECIFIED
+                || error.errorCode == PlaybackException.ERROR_CODE_TIMEOUT) {
+            return REASON_NETWORK;
+        }
+        if (error.errorCode >= PlaybackException.ERROR_CODE_DECODER_INIT_FAILED
+                && error.errorCode <= PlaybackException.ERROR_CODE_DECODING_FORMAT_UNSUPPORTED) {
+            return REASON_DECODER;
+        }
+        return REASON_FATAL;
+    }
+
+    /**
+     * Queue a recovery. A negative delay means exponential backoff with jitter.
+     */
+    private void schedule(String reason, long delayMs) {
+        if (gaveUp) return;
+        if (attempts >= MAX_ATTEMPTS) {
+            handler.removeCallbacks(retryRunnable);
+            retryScheduled = false;
+            gaveUp = true;
+            listener.onRecoveryAction(ACTION_GAVE_UP, reason, attempts, 0);
+            Log.w(TAG, "Giving up after " + attempts + " attempts (" + reason + ")");
+            return;
+        }
+        attempts++;
+        pendingReason = reason;
+        if (delayMs < 0) {
+            long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (attempts - 1));
+            // Equal jitter: half fixed, half random, so many viewers don't retry in lockstep
+            delayMs = backoff / 2 + (long) (random.nextDouble() * backoff / 2);
+        }
+        boolean toLiveEdge = player != null && player.isCurrentMediaItemLive();
+        listener.onRecoveryAction(toLiveEdge ? ACTION_LIVE_EDGE : ACTION_RETRY, reason, attempts, delayMs);
+        handler.removeCallbacks(retryRunnable);
+        handler.postDelayed(retryRunnable, delayMs);
+        retryScheduled = true;
+    }
+
+    private void retry() {
+        retryScheduled = false;
+        if (player == null) return;
+        Log.d(TAG, "Recovery attempt " + attempts + " (" + pendingReason + ")");
+        if (player.isCurrentMediaItemLive()) {
+            player.seekToDefaultPosition();
+        } else {
+            // Seeking to where we are drops the stuck loads and requests the segment again
+            player.seekTo(player.getCurrentPosition());
+        }
+        if (player.getPlaybackState() == Player.STATE_IDLE) {
+            player.prepare();
+        }
+        stallTimer.reset();
+        positionStuckSinceMs = -1;
+    }
+
+    private void watchdog() {
+        if (player == null) return;
+        long now = SystemClock.elapsedRealtime();
+        if (player.getPlayWhenReady() && !retryScheduled) {
+            long bufferingForMs = stallTimer.bufferingForMs(now);
+            if (stallTimer.check(player.getPlaybackState() == Player.STATE_BUFFERING, now)) {
+                Log.w(TAG, "Stalled buffering for " + bufferingForMs + "ms");
+                schedule(REASON_STALL, 0);
+            } else if (player.isPlaying()) {
+                long position = player.getCurrentPosition();
+                if (position != lastPositionMs || positionStuckSinceMs < 0) {
+                    lastPositionMs = position;
+                    positionStuckSinceMs = now;
+                } else if (now - positionStuckSinceMs > FROZEN_TIMEOUT_MS) {
+                    Log.w(TAG, "Position frozen at " + position + "ms while playing");
+                    positionStuckSinceMs = -1;
+                    schedule(REASON_FROZEN, 0);
+                }
+            } else {
+                positionStuckSinceMs = -1;
+            }
+        }
+        handler.postDelayed(watchdogRunnable, WATCHDOG_INTERVAL_MS);
+    }
+}
@@ -0,0 +1,144 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits the link between concurrent players. All players already share one
+ * bandwidth meter and connection pool, so without a budget they would bid against
+ * each other for the same estimate. The focused player is uncapped and audible.
+ * The others share a fixed slice of the current estimate in proportion to their
+ * priority, never below a floor that still shows a picture.
+ * Main thread only.
+ */
+public class PlayerBandwidthBudget {
+    private static final String TAG = "PlayerBandwidthBudget";
+    // Part of the estimate left for the non-focused players together
+    private static final float SECONDARY_SHARE = 0.35f;
+    private static final int MIN_SECONDARY_BITRATE = 300_000;
+    // Caps move in these steps so small estimate changes don't trigger a new track selection
+    private static final int BITRATE_STEP = 100_000;
+    private static final long REBALANCE_INTERVAL_MS = 5000;
+    public static final int DEFAULT_PRIORITY = 1;
+
+    private final BandwidthEstimateStore bandwidthStore;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final Runnable rebalanceRunnable = new Runnable() {
+        @Override
+        public void run() {
+            rebalance();
+            if (entries.size() > 1) {
+                handler.postDelayed(this, REBALANCE_INTERVAL_MS);
+            }
+        }
+    };
+    private String focusedId;
+
+    private static final class Entry {
+        final IvsPlayerManager manager;
+        int priority;
+
+        Entry(IvsPlayerManager manager, int priority) {
+            this.manager = manager;
+            this.priority = priority;
+        }
+    }
+
+    public PlayerBandwidthBudget(Context context) {
+        this.bandwidthStore = BandwidthEstimateStore.getInstance(context);
+    }
+
+    public void add(String playerId, IvsPlayerManager manager, int priority) {
+        entries.put(playerId, new Entry(manager, Math.max(1, priority)));
+        if (focusedId == null) {
+            focusedId = playerId;
+        }
+        scheduleRebalance();
+    }
+
+    /**
+     * Drop a player and hand its manager back uncapped and focused, ready for the pool.
+     * Focus moves to the highest priority player left.
+     */
+    public void remove(String playerId) {
+        Entry entry = entries.remove(playerId);
+        if (entry == null) return;
+        entry.manager.setMaxVideoBitrate(Integer.MAX_VALUE);
+        entry.manager.setFocused(true);
+        if (playerId.equals(focusedId)) {
+            focusedId = null;
+            int bestPriority = 0;
+            for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                if (candidate.getValue().priority > bestPriority) {
+                    bestPriority = candidate.getValue().priority;
+                    focusedId = candidate.getKey();
+                }
+            }
+        }
+        scheduleRebalance();
+    }
+
+    public boolean setFocused(String playerId) {
+        if (!entries.containsKey(playerId)) return false;
+        focusedId = playerId;
+        scheduleRebalance();
+        return true;
+    }
+
+    public boolean setPriority(String playerId, int priority) {
+        Entry entry = entries.get(playerId);
+        if (entry == null) return false;
+        entry.priority = Math.max(1, priority);
+        scheduleRebalance();
+        return true;
+    }
+
+    public String getFocusedId() {
+        return focusedId;
+    }
+
+    public int getPriority(String playerId) {
+        Entry entry = entries.get(playerId);
+        return entry != null ? entry.priority : DEFAULT_PRIORITY;
+    }
+
+    /**
+     * Apply focus and caps now, then keep following the estimate while more than one player runs
+     */
+    private void scheduleRebalance() {
+        handler.removeCallbacks(rebalanceRunnable);
+        rebalanceRunnable.run();
+    }
+
+    private void rebalance() {
+        long estimate = bandwidthStore.getCurrentEstimate();
+        int secondaryWeight = 0;
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (!entry.getKey().equals(focusedId)) {
+                secondaryWeight += entry.getValue().priority;
+            }
+        }
+
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            IvsPlayerManager manager = entry.getValue().manager;
+            if (entry.getKey().equals(focusedId)) {
+                manager.setFocused(true);
+                manager.setMaxVideoBitrate(Integer.MAX_VALUE);
+                continue;
+            }
+            long share = (long) (estimate * SECONDARY_SHARE) * entry.getValue().priority / secondaryWeight;
+            int cap = (int) Math.max(MIN_SECONDARY_BITRATE, Math.min(Integer.MAX_VALUE, share / BITRATE_STEP * BITRATE_STEP));
+            manager.setFocused(false);
+            manager.setMaxVideoBitrate(cap);
+        }
+        if (entries.size() > 1) {
+            Log.d(TAG, "Rebalanced " + entries.size() + " players on " + estimate + " bps, focused " + focusedId);
+        }
+    }
+}
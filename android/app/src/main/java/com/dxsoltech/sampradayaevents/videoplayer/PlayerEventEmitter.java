@@ -0,0 +1,226 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Throttled, coalesced player events for JS. Each event type has a minimum
+ * interval: bursts inside it collapse into one trailing event carrying the
+ * latest data. Sampled types (position, buffered range, live latency) are read
+ * on a ticker and skipped when unchanged. A negative interval disables a type.
+ * Intervals are per type; discrete events are throttled per type and playerId, so
+ * one player's event never replaces another's. Sampled types follow the focused
+ * player only. Main thread only.
+ */
+public class PlayerEventEmitter {
+    public static final String PLAYBACK_STATE = "playbackState";
+    public static final String POSITION = "position";
+    public static final String BUFFERED_RANGE = "bufferedRange";
+    public static final String LIVE_LATENCY = "liveLatency";
+    public static final String PLAYER_ERROR = "playerError";
+    public static final String RENDITION_CHANGED = "renditionChanged";
+    public static final String PICTURE_IN_PICTURE = "pictureInPicture";
+    public static final String QUEUE_ITEM_CHANGED = "queueItemChanged";
+    public static final String RECOVERY = "recovery";
+    public static final String URL_REFRESH_REQUIRED = "urlRefreshRequired";
+
+    public static final String[] EVENT_TYPES = {
+        PLAYBACK_STATE, POSITION, BUFFERED_RANGE, LIVE_LATENCY, PLAYER_ERROR, RENDITION_CHANGED, PICTURE_IN_PICTURE,
+        QUEUE_ITEM_CHANGED, RECOVERY, URL_REFRESH_REQUIRED
+    };
+    private static final String[] SAMPLED_TYPES = { POSITION, BUFFERED_RANGE, LIVE_LATENCY };
+
+    private static final long MIN_TICK_MS = 100;
+    private static final long MAX_TICK_MS = 1000;
+
+    public interface Sink {
+        boolean hasListeners(String eventName);
+        void emit(String eventName, JSObject data);
+    }
+
+    public interface Sampler {
+        /**
+         * Current value of a sampled event type, or null when there is nothing to report
+         */
+        JSObject sample(String eventName);
+    }
+
+    private final Sink sink;
+    private final Sampler sampler;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, Channel> channels = new HashMap<>();
+    private final Runnable tickRunnable = this::tick;
+    private boolean running = false;
+
+    private final class Channel {
+        final String name;
+        long intervalMs;
+        // Sampled types, focused player only
+        long lastEmitMs = 0;
+        String lastSampled;
+        // Discrete types, by playerId
+        final Map<String, Lane> lanes = new HashMap<>();
+
+        Channel(String name, long intervalMs) {
+            this.name = name;
+            this.intervalMs = intervalMs;
+        }
+
+        void publish(String playerId, JSObject data) {
+            if (intervalMs < 0 || !sink.hasListeners(name)) return;
+            Lane lane = lanes.get(playerId);
+            if (lane == null) {
+                lane = new Lane(this);
+                lanes.put(playerId, lane);
+            }
+            lane.publish(data);
+        }
+
+        void cancel() {
+            for (Lane lane : lanes.values()) {
+                lane.cancel();
+            }
+            lanes.clear();
+            lastSampled = null;
+        }
+    }
+
+    /**
+     * Throttle state of one discrete event type for one player
+     */
+    private final class Lane {
+        final Channel channel;
+        long lastEmitMs = 0;
+        JSObject pending;
+        final Runnable flushRunnable = this::flush;
+
+        Lane(Channel channel) {
+            this.channel = channel;
+        }
+
+        void publish(JSObject data) {
+            pending = data;
+            long wait = lastEmitMs + channel.intervalMs - SystemClock.elapsedRealtime();
+            handler.removeCallbacks(flushRunnable);
+            if (wait <= 0) {
+                flush();
+            } else {
+                handler.postDelayed(flushRunnable, wait);
+            }
+        }
+
+        void flush() {
+            if (pending == null) return;
+            JSObject data = pending;
+            pending = null;
+            lastEmitMs = SystemClock.elapsedRealtime();
+            sink.emit(channel.name, data);
+        }
+
+        void cancel() {
+            handler.removeCallbacks(flushRunnable);
+            pending = null;
+        }
+    }
+
+    public PlayerEventEmitter(Sink sink, Sampler sampler) {
+        this.sink = sink;
+        this.sampler = sampler;
+        channels.put(PLAYBACK_STATE, new Channel(PLAYBACK_STATE, 0));
+        channels.put(POSITION, new Channel(POSITION, 1000));
+        channels.put(BUFFERED_RANGE, new Channel(BUFFERED_RANGE, 2000));
+        channels.put(LIVE_LATENCY, new Channel(LIVE_LATENCY, 2000));
+        channels.put(PLAYER_ERROR, new Channel(PLAYER_ERROR, 0));
+        channels.put(RENDITION_CHANGED, new Channel(RENDITION_CHANGED, 0));
+        channels.put(PICTURE_IN_PICTURE, new Channel(PICTURE_IN_PICTURE, 0));
+        channels.put(QUEUE_ITEM_CHANGED, new Channel(QUEUE_ITEM_CHANGED, 0));
+        channels.put(RECOVERY, new Channel(RECOVERY, 0));
+        channels.put(URL_REFRESH_REQUIRED, new Channel(URL_REFRESH_REQUIRED, 0));
+    }
+
+    /**
+     * Set the minimum interval for an event type, negative to turn it off
+     */
+    public boolean setInterval(String eventName, long intervalMs) {
+        Channel channel = channels.get(eventName);
+        if (channel == null) return false;
+        channel.intervalMs = intervalMs;
+        if (intervalMs < 0) {
+            channel.cancel();
+        }
+        if (running) {
+            handler.removeCallbacks(tickRunnable);
+            handler.postDelayed(tickRunnable, tickIntervalMs());
+        }
+        return true;
+    }
+
+    public long getInterval(String eventName) {
+        Channel channel = channels.get(eventName);
+        return channel != null ? channel.intervalMs : -1;
+    }
+
+    /**
+     * Queue a discrete event (state, error, rendition); coalesced with earlier events
+     * of the same type from the same playerId only
+     */
+    public void publish(String eventName, JSObject data) {
+        Channel channel = channels.get(eventName);
+        if (channel != null) {
+            channel.publish(data.getString("playerId"), data);
+        }
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        handler.postDelayed(tickRunnable, tickIntervalMs());
+    }
+
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(tickRunnable);
+        for (Channel channel : channels.values()) {
+            channel.cancel();
+        }
+    }
+
+    private void tick() {
+        if (!running) return;
+        long now = SystemClock.elapsedRealtime();
+        for (String eventName : SAMPLED_TYPES) {
+            Channel channel = channels.get(eventName);
+            if (channel.intervalMs < 0 || now - channel.lastEmitMs < channel.intervalMs) continue;
+            if (!sink.hasListeners(eventName)) continue;
+            JSObject data = sampler.sample(eventName);
+            if (data == null) continue;
+            // Coalesce: a paused player keeps reporting the same values
+            String serialized = data.toString();
+            if (serialized.equals(channel.lastSampled)) continue;
+            channel.lastSampled = serialized;
+            channel.lastEmitMs = now;
+            sink.emit(eventName, data);
+        }
+        handler.postDelayed(tickRunnable, tickIntervalMs());
+    }
+
+    /**
+     * Tick as fast as the most frequent sampled type needs, within bounds
+     */
+    private long tickIntervalMs() {
+        long tick = MAX_TICK_MS;
+        for (String eventName : SAMPLED_TYPES) {
+            long interval = channels.get(eventName).intervalMs;
+            if (interval >= 0) {
+                tick = Math.min(tick, interval);
+            }
+        }
+        return Math.max(MIN_TICK_MS, tick);
+    }
+}
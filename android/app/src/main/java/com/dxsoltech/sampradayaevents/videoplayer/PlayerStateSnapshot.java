@@ -0,0 +1,65 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.os.SystemClock;
+
+/**
+ * Immutable copy of the player state, published by IvsPlayerManager on every
+ * player event and on a periodic tick. Plugin queries read it from any thread
+ * without touching ExoPlayer or the UI thread.
+ */
+public final class PlayerStateSnapshot {
+    public static final PlayerStateSnapshot EMPTY = new PlayerStateSnapshot(
+        0, 0, 0, "idle", false, false, false, -1, -1, 1.0f, 0, 0, 0, false, -1, false
+    );
+
+    public final long positionMs;
+    public final long durationMs;
+    public final long bufferedPositionMs;
+    public final String playbackState;
+    public final boolean isPlaying;
+    public final boolean playWhenReady;
+    public final boolean isLive;
+    public final long liveOffsetMs;
+    public final long targetLiveOffsetMs;
+    public final float playbackSpeed;
+    public final int videoWidth;
+    public final int videoHeight;
+    public final int videoBitrate;
+    public final boolean lowLatency;
+    public final long timeToFirstFrameMs;
+    public final boolean warmStart;
+    // elapsedRealtime when the values were read
+    public final long capturedAtMs;
+
+    public PlayerStateSnapshot(long positionMs, long durationMs, long bufferedPositionMs, String playbackState,
+                               boolean isPlaying, boolean playWhenReady, boolean isLive, long liveOffsetMs,
+                               long targetLiveOffsetMs, float playbackSpeed, int videoWidth, int videoHeight,
+                               int videoBitrate, boolean lowLatency, long timeToFirstFrameMs, boolean warmStart) {
+        this.positionMs = positionMs;
+        this.durationMs = durationMs;
+        this.bufferedPositionMs = bufferedPositionMs;
+        this.playbackState = playbackState;
+        this.isPlaying = isPlaying;
+        this.playWhenReady = playWhenReady;
+        this.isLive = isLive;
+        this.liveOffsetMs = liveOffsetMs;
+        this.targetLiveOffsetMs = targetLiveOffsetMs;
+        this.playbackSpeed = playbackSpeed;
+        this.videoWidth = videoWidth;
+        this.videoHeight = videoHeight;
+        this.videoBitrate = videoBitrate;
+        this.lowLatency = lowLatency;
+        this.timeToFirstFrameMs = timeToFirstFrameMs;
+        this.warmStart = warmStart;
+        this.capturedAtMs = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Position now, extrapolated from the capture time while playing
+     */
+    public long getCurrentPositionMs() {
+        if (!isPlaying) return positionMs;
+        long position = positionMs + (long) ((SystemClock.elapsedRealtime() - capturedAtMs) * playbackSpeed);
+        return durationMs > 0 ? Math.min(position, durationMs) : position;
+    }
+}
@@ -0,0 +1,297 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.PlaybackException;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.decoder.DecoderReuseEvaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Playback QoE for one player: startup time, rebuffering, bitrate switches,
+ * dropped frames and fatal errors. Analytics callbacks only append primitives to
+ * a fixed-size ring buffer; drain() folds them into per-session totals for
+ * upload. Methods are synchronized: the player may run on its own thread while
+ * the plugin drains from the UI thread.
+ */
+public final class QoeCollector implements AnalyticsListener {
+    private static final String TAG = "QoeCollector";
+    // Enough for minutes of events between uploads; oldest are overwritten past this
+    private static final int EVENT_BUFFER_SIZE = 512;
+    // Finished sessions kept until the next drain
+    private static final int MAX_FINISHED_SESSIONS = 8;
+
+    private static final int EVENT_FIRST_FRAME = 1;
+    private static final int EVENT_PLAYING = 2;
+    private static final int EVENT_BUFFERING = 3;
+    private static final int EVENT_READY = 4;
+    private static final int EVENT_SEEK = 5;
+    private static final int EVENT_BITRATE = 6;
+    private static final int EVENT_DROPPED_FRAMES = 7;
+    private static final int EVENT_FATAL_ERROR = 8;
+
+    private final EventBuffer events = new EventBuffer(EVENT_BUFFER_SIZE);
+    private final List<Session> finishedSessions = new ArrayList<>();
+    private Session session;
+
+    /**
+     * Start a new session, finishing the current one. eventId, when known, travels
+     * with the session so uploads store it against the right event.
+     */
+    public synchronized void startSession(boolean isLive, String bufferProfile, String eventId) {
+        endSession();
+        session = new Session(isLive, bufferProfile, eventId);
+    }
+
+    public synchronized void endSession() {
+        if (session == null) return;
+        fold(SystemClock.elapsedRealtime());
+        session.ended = true;
+        if (finishedSessions.size() >= MAX_FINISHED_SESSIONS) {
+            finishedSessions.remove(0);
+        }
+        finishedSessions.add(session);
+        session = null;
+    }
+
+    /**
+     * Totals for finished sessions (handed over once) and the current one (sent
+     * again on every drain, the backend keeps the latest totals per session)
+     */
+    public synchronized JSArray drain() {
+        JSArray result = new JSArray();
+        for (Session finished : finishedSessions) {
+            result.put(finished.toJSObject());
+        }
+        finishedSessions.clear();
+        if (session != null) {
+            fold(SystemClock.elapsedRealtime());
+            result.put(session.toJSObject());
+        }
+        return result;
+    }
+
+    private synchronized void record(EventTime eventTime, int type, long value) {
+        if (session != null) {
+            events.add(eventTime.realtimeMs, type, value);
+        }
+    }
+
+    private void fold(long nowMs) {
+        if (events.overwritten > 0) {
+            Log.w(TAG, "QoE event buffer overflowed, lost " + events.overwritten + " events");
+        }
+        while (events.size > 0) {
+            int index = events.head;
+            session.apply(events.types[index], events.timesMs[index], events.values[index]);
+            events.removeFirst();
+        }
+        events.overwritten = 0;
+        session.closeOpenIntervals(nowMs);
+    }
+
+    @Override
+    public void onRenderedFirstFrame(EventTime eventTime, Object output, long renderTimeMs) {
+        record(eventTime, EVENT_FIRST_FRAME, 0);
+    }
+
+    @Override
+    public void onIsPlayingChanged(EventTime eventTime, boolean isPlaying) {
+        record(eventTime, EVENT_PLAYING, isPlaying ? 1 : 0);
+    }
+
+    @Override
+    public void onPlaybackStateChanged(EventTime eventTime, int state) {
+        if (state == Player.STATE_BUFFERING) {
+            record(eventTime, EVENT_BUFFERING, 0);
+        } else if (state == Player.STATE_READY) {
+            record(eventTime, EVENT_READY, 0);
+        }
+    }
+
+    @Override
+    public void onSeekStarted(EventTime eventTime) {
+        record(eventTime, EVENT_SEEK, 0);
+    }
+
+    @Override
+    public void onVideoInputFormatChanged(EventTime eventTime, Format format, DecoderReuseEvaluation decoderReuseEvaluation) {
+        if (format.bitrate != Format.NO_VALUE) {
+            record(eventTime, EVENT_BITRATE, format.bitrate);
+        }
+    }
+
+    @Override
+    public void onDroppedVideoFrames(EventTime eventTime, int droppedFrames, long elapsedMs) {
+        record(eventTime, EVENT_DROPPED_FRAMES, droppedFrames);
+    }
+
+    @Override
+    public void onPlayerError(EventTime eventTime, PlaybackException error) {
+        record(eventTime, EVENT_FATAL_ERROR, error.errorCode);
+    }
+
+    /**
+     * Ring buffer over parallel primitive arrays, so recording never allocates
+     */
+    private static final class EventBuffer {
+        final long[] timesMs;
+        final int[] types;
+        final long[] values;
+        int head = 0;
+        int size = 0;
+        int overwritten = 0;
+
+        EventBuffer(int capacity) {
+            timesMs = new long[capacity];
+            types = new int[capacity];
+            values = new long[capacity];
+        }
+
+        void add(long timeMs, int type, long value) {
+            int capacity = types.length;
+            int index = (head + size) % capacity;
+            if (size == capacity) {
+                head = (head + 1) % capacity;
+                overwritten++;
+            } else {
+                size++;
+            }
+            timesMs[index] = timeMs;
+            types[index] = type;
+            values[index] = value;
+        }
+
+        void removeFirst() {
+            head = (head + 1) % types.length;
+            size--;
+        }
+    }
+
+    private static final class Session {
+        final String sessionId = UUID.randomUUID().toString();
+        final long startedAtMs = System.currentTimeMillis();
+        final long startRealtimeMs = SystemClock.elapsedRealtime();
+        final boolean isLive;
+        final String bufferProfile;
+        final String eventId;
+
+        long startupMs = -1;
+        long playMs = 0;
+        long rebufferMs = 0;
+        int rebufferCount = 0;
+        int bitrateSwitches = 0;
+        long bitrateMs = 0;
+        int droppedFrames = 0;
+        int fatalErrors = 0;
+        int lastErrorCode = 0;
+        boolean ended = false;
+
+        // Open intervals, -1 when closed
+        long playingSinceMs = -1;
+        long rebufferingSinceMs = -1;
+        boolean seeking = false;
+        long currentBitrate = 0;
+
+        Session(boolean isLive, String bufferProfile, String eventId) {
+            this.isLive = isLive;
+            this.bufferProfile = bufferProfile;
+            this.eventId = eventId;
+        }
+
+        void apply(int type, long timeMs, long value) {
+            switch (type) {
+                case EVENT_FIRST_FRAME:
+                    if (startupMs < 0) {
+                        startupMs = Math.max(0, timeMs - startRealtimeMs);
+                    }
+                    break;
+                case EVENT_PLAYING:
+                    if (value == 1) {
+                        if (playingSinceMs < 0) playingSinceMs = timeMs;
+                    } else if (playingSinceMs >= 0) {
+                        accumulatePlay(timeMs);
+                        playingSinceMs = -1;
+                    }
+                    break;
+                case EVENT_BUFFERING:
+                    // Only stalls after the first frame count; seeks are expected to buffer
+                    if (startupMs >= 0 && !seeking && rebufferingSinceMs < 0) {
+                        rebufferingSinceMs = timeMs;
+                        rebufferCount++;
+                    }
+                    break;
+                case EVENT_READY:
+                    if (rebufferingSinceMs >= 0) {
+                        rebufferMs += timeMs - rebufferingSinceMs;
+                        rebufferingSinceMs = -1;
+                    }
+                    seeking = false;
+                    break;
+                case EVENT_SEEK:
+                    seeking = true;
+                    break;
+                case EVENT_BITRATE:
+                    if (playingSinceMs >= 0) accumulatePlay(timeMs);
+                    if (currentBitrate > 0 && value != currentBitrate) bitrateSwitches++;
+                    currentBitrate = value;
+                    break;
+                case EVENT_DROPPED_FRAMES:
+                    droppedFrames += (int) value;
+                    break;
+                case EVENT_FATAL_ERROR:
+                    fatalErrors++;
+                    lastErrorCode = (int) value;
+                    break;
+            }
+        }
+
+        private void accumulatePlay(long timeMs) {
+            long elapsed = Math.max(0, timeMs - playingSinceMs);
+            playMs += elapsed;
+            bitrateMs += currentBitrate * elapsed;
+            playingSinceMs = timeMs;
+        }
+
+        /**
+         * Count time up to now for intervals still open, so a drain mid-stall reports it
+         */
+        void closeOpenIntervals(long nowMs) {
+            if (playingSinceMs >= 0) {
+                accumulatePlay(nowMs);
+            }
+            if (rebufferingSinceMs >= 0) {
+                rebufferMs += nowMs - rebufferingSinceMs;
+                rebufferingSinceMs = nowMs;
+            }
+        }
+
+        JSObject toJSObject() {
+            JSObject obj = new JSObject();
+            obj.put("sessionId", sessionId);
+            obj.put("eventId", eventId);
+            obj.put("startedAt", startedAtMs);
+            obj.put("isLive", isLive);
+            obj.put("bufferProfile", bufferProfile);
+            obj.put("startupMs", startupMs >= 0 ? startupMs : null);
+            obj.put("playMs", playMs);
+            obj.put("rebufferMs", rebufferMs);
+            obj.put("rebufferCount", rebufferCount);
+            obj.put("bitrateSwitches", bitrateSwitches);
+            obj.put("avgBitrate", playMs > 0 ? bitrateMs / playMs : currentBitrate);
+            obj.put("droppedFrames", droppedFrames);
+            obj.put("fatalErrors", fatalErrors);
+            obj.put("lastError", fatalErrors > 0 ? PlaybackException.getErrorCodeName(lastErrorCode) : null);
+            obj.put("ended", ended);
+            return obj;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.app.Notification;
+import android.util.Log;
+
+import com.google.android.exoplayer2.offline.Download;
+import com.google.android.exoplayer2.offline.DownloadManager;
+import com.google.android.exoplayer2.offline.DownloadService;
+import com.google.android.exoplayer2.scheduler.PlatformScheduler;
+import com.google.android.exoplayer2.scheduler.Scheduler;
+
+import com.dxsoltech.sampradayaevents.R;
+
+import java.util.List;
+
+/**
+ * Foreground service that keeps recording downloads running while the app is in
+ * the background. The scheduler restarts it after the process is killed.
+ */
+public class RecordingDownloadService extends DownloadService {
+    private static final String TAG = "RecordingDownloadService";
+    private static final int FOREGROUND_NOTIFICATION_ID = 4201;
+    private static final int JOB_ID = 4202;
+
+    public RecordingDownloadService() {
+        super(
+            FOREGROUND_NOTIFICATION_ID,
+            DEFAULT_FOREGROUND_NOTIFICATION_UPDATE_INTERVAL,
+            RecordingDownloads.NOTIFICATION_CHANNEL_ID,
+            R.string.download_channel_name,
+            0
+        );
+    }
+
+    @Override
+    protected DownloadManager getDownloadManager() {
+        return RecordingDownloads.getInstance(this).getDownloadManager();
+    }
+
+    @Override
+    protected Scheduler getScheduler() {
+        return new PlatformScheduler(this, JOB_ID);
+    }
+
+    /**
+     * Android 15+ limits dataSync foreground services to 6 hours per 24. DownloadService
+     * does not handle the timeout, and the app is crashed if the service is still running
+     * shortly after it, so pause the downloads and stop. They resume when the app is next
+     * in the foreground.
+     */
+    @Override
+    public void onTimeout(int startId, int fgsType) {
+        Log.w(TAG, "Foreground service time limit reached, pausing downloads");
+        RecordingDownloads.getInstance(this).pauseForTimeout();
+        stopSelf();
+    }
+
+    @Override
+    protected Notification getForegroundNotification(List<Download> downloads, int notMetRequirements) {
+        return RecordingDownloads.getInstance(this).getNotificationHelper().buildProgressNotification(
+            this,
+            android.R.drawable.stat_sys_download,
+            null,
+            null,
+            downloads,
+            notMetRequirements
+        );
+    }
+}
@@ -0,0 +1,294 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.util.Log;
+
+import com.google.android.exoplayer2.offline.Download;
+import com.google.android.exoplayer2.offline.DownloadCursor;
+import com.google.android.exoplayer2.offline.DownloadHelper;
+import com.google.android.exoplayer2.offline.DownloadManager;
+import com.google.android.exoplayer2.offline.DownloadRequest;
+import com.google.android.exoplayer2.offline.StreamKey;
+import com.google.android.exoplayer2.scheduler.Requirements;
+import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.source.hls.playlist.HlsMultivariantPlaylist;
+import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylist;
+import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylistParser;
+import com.google.android.exoplayer2.ui.DownloadNotificationHelper;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSourceUtil;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.ResolvingDataSource;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.NoOpCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import com.google.android.exoplayer2.util.MimeTypes;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Offline copies of event recordings. Downloads are keyed by event id, run in
+ * RecordingDownloadService, resume after interruption (DownloadManager persists
+ * its state) and are deleted once the recording expiry from /expiry-info passes.
+ * A request keeps the URL it was created with, so cache keys stay stable; fetches
+ * go out with the latest signed URL given to buildRequest for that recording.
+ * Must be created on the main thread, and DownloadManager calls must stay there.
+ */
+public final class RecordingDownloads {
+    private static final String TAG = "RecordingDownloads";
+    private static final String DOWNLOAD_DIR = "ivs-downloads";
+    public static final String NOTIFICATION_CHANNEL_ID = "recording_downloads";
+    // Segments fetched in parallel per download
+    private static final int SEGMENT_DOWNLOAD_THREADS = 4;
+    private static final int DEFAULT_MAX_HEIGHT = 720;
+    private static final String PREFS_NAME = "ivs_recording_downloads";
+    private static final String KEY_PAUSED_FOR_TIMEOUT = "paused_for_timeout";
+
+    private static RecordingDownloads instance;
+
+    private final Cache downloadCache;
+    // Downloads never set an active URL, so the refresher never asks for one itself:
+    // a rejected signature fails the download and the plugin reports it
+    private final SignedUrlRefresher urlRefresher = new SignedUrlRefresher((url, reason, expiresAtMs) -> { });
+    private final DataSource.Factory httpDataSourceFactory;
+    private final DownloadManager downloadManager;
+    private final DownloadNotificationHelper notificationHelper;
+    private final ExecutorService executor;
+    private final SharedPreferences prefs;
+
+    public interface RequestCallback {
+        void onQueued(DownloadRequest request);
+        void onError(String error);
+    }
+
+    public static synchronized RecordingDownloads getInstance(Context context) {
+        if (instance == null) {
+            instance = new RecordingDownloads(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private RecordingDownloads(Context context) {
+        // Downloads must never be evicted, so they get their own cache folder
+        this.downloadCache = new SimpleCache(
+            new File(context.getFilesDir(), DOWNLOAD_DIR),
+            new NoOpCacheEvictor(),
+            MediaCache.getDatabaseProvider(context)
+        );
+        this.httpDataSourceFactory = new ResolvingDataSource.Factory(SharedHttpClient.createDataSourceFactory(), urlRefresher);
+        this.downloadManager = new DownloadManager(
+            context,
+            MediaCache.getDatabaseProvider(context),
+            downloadCache,
+            httpDataSourceFactory,
+            Executors.newFixedThreadPool(SEGMENT_DOWNLOAD_THREADS)
+        );
+        // Pause without connectivity and pick up where we left off when it returns
+        this.downloadManager.setRequirements(new Requirements(Requirements.NETWORK));
+        this.notificationHelper = new DownloadNotificationHelper(context, NOTIFICATION_CHANNEL_ID);
+        this.executor = Executors.newSingleThreadExecutor();
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        // Still over the foreground service time limit from an earlier process
+        if (prefs.getBoolean(KEY_PAUSED_FOR_TIMEOUT, false)) {
+            downloadManager.pauseDownloads();
+        }
+    }
+
+    public DownloadManager getDownloadManager() {
+        return downloadManager;
+    }
+
+    public DownloadNotificationHelper getNotificationHelper() {
+        return notificationHelper;
+    }
+
+    /**
+     * Fetch the master playlist, pick the highest rendition up to maxHeight and
+     * build the request. The caller hands it to RecordingDownloadService. For a
+     * recording already in the index (e.g. failed on an expired signature) the
+     * stored request is reused and url only supplies the fresh signature.
+     */
+    public void buildRequest(String eventId, String url, long expiresAt, int maxHeight, RequestCallback callback) {
+        urlRefresher.register(url, 0);
+        executor.execute(() -> {
+            try {
+                if (expiresAt > 0 && expiresAt <= System.currentTimeMillis()) {
+                    callback.onError("Recording has expired");
+                    return;
+                }
+                Download existing = getDownload(eventId);
+                Uri uri;
+                List<StreamKey> streamKeys;
+                if (existing != null) {
+                    uri = existing.request.uri;
+                    streamKeys = existing.request.streamKeys;
+                } else {
+                    uri = Uri.parse(url);
+                    streamKeys = selectStreamKeys(uri, maxHeight > 0 ? maxHeight : DEFAULT_MAX_HEIGHT);
+                }
+                JSONObject data = new JSONObject();
+                data.put("eventId", eventId);
+                data.put("expiresAt", expiresAt);
+                DownloadRequest request = new DownloadRequest.Builder(eventId, uri)
+                    .setMimeType(MimeTypes.APPLICATION_M3U8)
+                    .setStreamKeys(streamKeys)
+                    .setData(data.toString().getBytes(StandardCharsets.UTF_8))
+                    .build();
+                callback.onQueued(request);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to build download request: " + e.getMessage());
+                callback.onError(e.getMessage());
+            }
+        });
+    }
+
+    private List<StreamKey> selectStreamKeys(Uri uri, int maxHeight) throws IOException {
+        List<StreamKey> streamKeys = new ArrayList<>();
+        DataSource dataSource = httpDataSourceFactory.createDataSource();
+        HlsPlaylist playlist;
+        try {
+            dataSource.open(new DataSpec(uri));
+            playlist = new HlsPlaylistParser().parse(uri, new ByteArrayInputStream(DataSourceUtil.readToEnd(dataSource)));
+        } finally {
+            dataSource.close();
+        }
+        if (!(playlist instanceof HlsMultivariantPlaylist)) {
+            // Single media playlist, nothing to choose
+            return streamKeys;
+        }
+
+        HlsMultivariantPlaylist multivariant = (HlsMultivariantPlaylist) playlist;
+        int selected = -1;
+        int lowest = -1;
+        for (int i = 0; i < multivariant.variants.size(); i++) {
+            HlsMultivariantPlaylist.Variant variant = multivariant.variants.get(i);
+            int bitrate = variant.format.bitrate;
+            if (lowest < 0 || bitrate < multivariant.variants.get(lowest).format.bitrate) {
+                lowest = i;
+            }
+            boolean fits = variant.format.height <= 0 || variant.format.height <= maxHeight;
+            if (fits && (selected < 0 || bitrate > multivariant.variants.get(selected).format.bitrate)) {
+                selected = i;
+            }
+        }
+        if (selected < 0) selected = lowest;
+        if (selected >= 0) {
+            streamKeys.add(new StreamKey(HlsMultivariantPlaylist.GROUP_INDEX_VARIANT, selected));
+        }
+        if (!multivariant.audios.isEmpty()) {
+            streamKeys.add(new StreamKey(HlsMultivariantPlaylist.GROUP_INDEX_AUDIO, 0));
+        }
+        return streamKeys;
+    }
+
+    public Download getDownload(String eventId) {
+        try {
+            return downloadManager.getDownloadIndex().getDownload(eventId);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to read download index: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public List<Download> getDownloads() {
+        List<Download> downloads = new ArrayList<>();
+        try (DownloadCursor cursor = downloadManager.getDownloadIndex().getDownloads()) {
+            while (cursor.moveToNext()) {
+                downloads.add(cursor.getDownload());
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to read download index: " + e.getMessage());
+        }
+        return downloads;
+    }
+
+    public static long getExpiresAt(Download download) {
+        try {
+            JSONObject data = new JSONObject(new String(download.request.data, StandardCharsets.UTF_8));
+            return data.optLong("expiresAt", 0);
+        } catch (JSONException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * True when a download failed because the CDN rejected its signed URL; calling
+     * buildRequest again with a fresh URL resumes it
+     */
+    public static boolean isSignatureRejected(Exception finalException) {
+        for (Throwable error = finalException; error != null; error = error.getCause()) {
+            if (SignedUrlRefresher.isSignatureRejected(error)) return true;
+        }
+        return false;
+    }
+
+    public static boolean isExpired(Download download) {
+        long expiresAt = getExpiresAt(download);
+        return expiresAt > 0 && expiresAt <= System.currentTimeMillis();
+    }
+
+    /**
+     * The download service ran out of foreground time. Downloads stay paused, across
+     * process restarts too, until resumeAfterTimeout. Main thread only.
+     */
+    public void pauseForTimeout() {
+        prefs.edit().putBoolean(KEY_PAUSED_FOR_TIMEOUT, true).apply();
+        downloadManager.pauseDownloads();
+    }
+
+    /**
+     * Undo pauseForTimeout once the app is in the foreground, which resets the limit.
+     * Returns whether downloads were paused. Main thread only.
+     */
+    public boolean resumeAfterTimeout() {
+        if (!prefs.getBoolean(KEY_PAUSED_FOR_TIMEOUT, false)) return false;
+        prefs.edit().putBoolean(KEY_PAUSED_FOR_TIMEOUT, false).apply();
+        downloadManager.resumeDownloads();
+        return true;
+    }
+
+    /**
+     * Drop every download whose recording access window has closed. Main thread only.
+     */
+    public void removeExpired() {
+        for (Download download : getDownloads()) {
+            if (isExpired(download)) {
+                Log.d(TAG, "Removing expired download: " + download.request.id);
+                downloadManager.removeDownload(download.request.id);
+            }
+        }
+    }
+
+    /**
+     * Media source reading only from the download cache. Throws when there is no
+     * completed, unexpired copy of this recording, so callers fail before building UI.
+     */
+    public MediaSource createOfflineMediaSource(String eventId) {
+        Download download = getDownload(eventId);
+        if (download == null || download.state != Download.STATE_COMPLETED) {
+            throw new IllegalStateException("Recording is not downloaded yet");
+        }
+        if (isExpired(download)) {
+            downloadManager.removeDownload(eventId);
+            throw new IllegalStateException("Recording has expired");
+        }
+        CacheDataSource.Factory offlineFactory = new CacheDataSource.Factory()
+            .setCache(downloadCache)
+            .setUpstreamDataSourceFactory(null)
+            .setCacheWriteDataSinkFactory(null);
+        return DownloadHelper.createMediaSource(download.request, offlineFactory);
+    }
+}
@@ -0,0 +1,142 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.exoplayer2.ext.okhttp.OkHttpDataSource;
+import com.google.android.exoplayer2.upstream.TransferListener;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dns;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * One OkHttp client for all player, preload, download and DLNA traffic so
+ * connections (and HTTP/2 sessions to the CDN) are pooled instead of paying a
+ * new TCP + TLS handshake per segment. Host lookups go through an in-memory
+ * DNS cache.
+ */
+public final class SharedHttpClient {
+    private static final String TAG = "SharedHttpClient";
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final long DNS_CACHE_TTL_MS = 5 * 60 * 1000;
+    private static final long DEFAULT_CONNECT_TIMEOUT_MS = 8000;
+    private static final long DEFAULT_READ_TIMEOUT_MS = 8000;
+
+    private static final CachingDns dns = new CachingDns();
+    private static OkHttpClient client;
+
+    private SharedHttpClient() {}
+
+    public static synchronized OkHttpClient getClient() {
+        if (client == null) {
+            client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .dns(dns)
+                .connectTimeout(DEFAULT_CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .readTimeout(DEFAULT_READ_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+        }
+        return client;
+    }
+
+    /**
+     * Change timeouts for new requests. The rebuilt client keeps the same
+     * connection pool and dispatcher, so open connections are not lost.
+     */
+    public static synchronized void configure(long connectTimeoutMs, long readTimeoutMs) {
+        client = getClient().newBuilder()
+            .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+            .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+            .build();
+        Log.d(TAG, "Timeouts set: connect=" + connectTimeoutMs + "ms read=" + readTimeoutMs + "ms");
+    }
+
+    /**
+     * Client with its own timeouts that still shares the pool, for LAN devices
+     */
+    public static OkHttpClient withTimeouts(long connectTimeoutMs, long readTimeoutMs) {
+        return getClient().newBuilder()
+            .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+            .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    /**
+     * ExoPlayer data source on the shared client. Calls are created through
+     * getClient() each time so configure() applies to existing players too.
+     */
+    public static OkHttpDataSource.Factory createDataSourceFactory() {
+        Call.Factory callFactory = request -> getClient().newCall(request);
+        return new OkHttpDataSource.Factory(callFactory);
+    }
+
+    public static OkHttpDataSource.Factory createDataSourceFactory(TransferListener transferListener) {
+        return createDataSourceFactory().setTransferListener(transferListener);
+    }
+
+    /**
+     * Resolve a host ahead of time so the first request skips the lookup
+     */
+    public static void prefetchDns(String hostname) throws UnknownHostException {
+        dns.lookup(hostname);
+    }
+
+    /**
+     * Forget cached lookups; NetworkMonitor calls this when the default network changes
+     */
+    public static void clearDnsCache() {
+        dns.clear();
+    }
+
+    public static int getConnectionCount() {
+        return getClient().connectionPool().connectionCount();
+    }
+
+    public static int getIdleConnectionCount() {
+        return getClient().connectionPool().idleConnectionCount();
+    }
+
+    private static final class CachingDns implements Dns {
+        private final Map<String, CachedLookup> cache = new ConcurrentHashMap<>();
+
+        private static final class CachedLookup {
+            final List<InetAddress> addresses;
+            final long expiresAtMs;
+
+            CachedLookup(List<InetAddress> addresses, long expiresAtMs) {
+                this.addresses = addresses;
+                this.expiresAtMs = expiresAtMs;
+            }
+        }
+
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            long now = SystemClock.elapsedRealtime();
+            CachedLookup cached = cache.get(hostname);
+            if (cached != null && now < cached.expiresAtMs) {
+                return cached.addresses;
+            }
+            List<InetAddress> addresses = Dns.SYSTEM.lookup(hostname);
+            cache.put(hostname, new CachedLookup(addresses, now + DNS_CACHE_TTL_MS));
+            return addresses;
+        }
+
+        void clear() {
+            cache.clear();
+        }
+    }
+}
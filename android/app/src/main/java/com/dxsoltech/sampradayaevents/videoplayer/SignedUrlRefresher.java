@@ -0,0 +1,299 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
+import android.util.Log;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.source.hls.HlsDataSourceFactory;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.DefaultLoadErrorHandlingPolicy;
+import com.google.android.exoplayer2.upstream.HttpDataSource;
+import com.google.android.exoplayer2.upstream.LoadErrorHandlingPolicy;
+import com.google.android.exoplayer2.upstream.ResolvingDataSource;
+
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a long session playing across signed URL expiry (CloudFront Expires/Signature,
+ * IVS token). Shortly before the signature runs out, or when a load is rejected with
+ * 401/403/410, the listener is asked for a fresh URL. Once it arrives every later
+ * playlist and segment request is rewritten at the data source: the master playlist
+ * gets the new URL, requests below it get their signing parameters replaced. The
+ * media source and its buffer are untouched. Rejected loads are retried instead of
+ * excluding the rendition while the new URL is fetched.
+ * Entries are updated on the main thread; resolveDataSpec runs on loader threads.
+ */
+public final class SignedUrlRefresher implements ResolvingDataSource.Resolver {
+    private static final String TAG = "SignedUrlRefresher";
+
+    public static final String REASON_EXPIRING = "expiring";
+    public static final String REASON_FORBIDDEN = "forbidden";
+
+    // Ask for a new URL this long before the signature runs out
+    private static final long REFRESH_LEAD_MS = 60_000;
+    // A request the listener has not answered is repeated after this
+    private static final long REQUEST_TIMEOUT_MS = 10_000;
+    // Rejected loads retry at this interval while the new URL is fetched
+    private static final long FORBIDDEN_RETRY_DELAY_MS = 1000;
+    private static final int FORBIDDEN_RETRY_LIMIT = 15;
+
+    public interface Listener {
+        void onUrlRefreshRequired(String url, String reason, long expiresAtMs);
+    }
+
+    private static final class SignedUrl {
+        final Uri uri;
+        final String host;
+        // Path up to the last '/', requests below it belong to this URL
+        final String directory;
+        final Map<String, String> params = new HashMap<>();
+        final long expiresAtMs;
+
+        SignedUrl(Uri uri, long expiresAtMs) {
+            this.uri = uri;
+            this.host = uri.getHost();
+            String path = uri.getPath() != null ? uri.getPath() : "";
+            this.directory = path.substring(0, path.lastIndexOf('/') + 1);
+            for (String name : uri.getQueryParameterNames()) {
+                params.put(name, uri.getQueryParameter(name));
+            }
+            this.expiresAtMs = expiresAtMs > 0 ? expiresAtMs : parseExpiry(uri);
+        }
+    }
+
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable expiryCheck = this::checkExpiry;
+    private final LoadErrorHandlingPolicy loadErrorHandlingPolicy = new ForbiddenRetryPolicy();
+    // Keyed by URL without its query
+    private final Map<String, SignedUrl> entries = new ConcurrentHashMap<>();
+    private String activeKey;
+    private long lastRequestMs = -1;
+
+    public SignedUrlRefresher(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Track a signed URL. expiresAtMs of 0 reads it from the URL. An entry already
+     * refreshed past the given expiry is kept.
+     */
+    public void register(String url, long expiresAtMs) {
+        Uri uri = Uri.parse(url);
+        SignedUrl signedUrl = new SignedUrl(uri, expiresAtMs);
+        SignedUrl existing = entries.get(keyOf(uri));
+        if (existing != null && existing.expiresAtMs > signedUrl.expiresAtMs) return;
+        entries.put(keyOf(uri), signedUrl);
+        scheduleExpiryCheck();
+    }
+
+    /**
+     * The URL now playing; only its expiry triggers a refresh
+     */
+    public void setActive(String url) {
+        activeKey = url != null ? keyOf(Uri.parse(url)) : null;
+        lastRequestMs = -1;
+        scheduleExpiryCheck();
+    }
+
+    /**
+     * Take a fresh signed URL. Returns false when it matches no tracked URL.
+     */
+    public boolean update(String url, long expiresAtMs) {
+        Uri uri = Uri.parse(url);
+        String key = keyOf(uri);
+        if (!entries.containsKey(key)) return false;
+        SignedUrl signedUrl = new SignedUrl(uri, expiresAtMs);
+        entries.put(key, signedUrl);
+        if (key.equals(activeKey)) {
+            lastRequestMs = -1;
+        }
+        scheduleExpiryCheck();
+        Log.d(TAG, "Signed URL refreshed for " + key + ", expires "
+            + (signedUrl.expiresAtMs > 0 ? signedUrl.expiresAtMs : "unknown"));
+        return true;
+    }
+
+    /**
+     * Latest signed form of a tracked URL, e.g. for handing the stream to a cast device
+     */
+    public String currentUrl(String url) {
+        if (url == null) return null;
+        SignedUrl signedUrl = entries.get(keyOf(Uri.parse(url)));
+        return signedUrl != null ? signedUrl.uri.toString() : url;
+    }
+
+    /**
+     * A request URL as the player would send it now, for fetches outside the player
+     */
+    public String resolveUrl(String url) {
+        return resolve(Uri.parse(url)).toString();
+    }
+
+    public void clear() {
+        handler.removeCallbacks(expiryCheck);
+        entries.clear();
+        activeKey = null;
+        lastRequestMs = -1;
+    }
+
+    /**
+     * Ask the listener for a new URL for the active stream, at most once per request timeout
+     */
+    public void requestRefresh(String reason) {
+        SignedUrl active = activeKey != null ? entries.get(activeKey) : null;
+        if (active == null) return;
+        long now = System.currentTimeMillis();
+        if (lastRequestMs >= 0 && now - lastRequestMs < REQUEST_TIMEOUT_MS) return;
+        lastRequestMs = now;
+        Log.d(TAG, "Requesting new signed URL (" + reason + ") for " + activeKey);
+        listener.onUrlRefreshRequired(active.uri.toString(), reason, active.expiresAtMs);
+    }
+
+    private void scheduleExpiryCheck() {
+        handler.removeCallbacks(expiryCheck);
+        SignedUrl active = activeKey != null ? entries.get(activeKey) : null;
+        if (active == null || active.expiresAtMs <= 0) return;
+        long delayMs = active.expiresAtMs - REFRESH_LEAD_MS - System.currentTimeMillis();
+        handler.postDelayed(expiryCheck, Math.max(0, delayMs));
+    }
+
+    private void checkExpiry() {
+        SignedUrl active = activeKey != null ? entries.get(activeKey) : null;
+        if (active == null || active.expiresAtMs <= 0) return;
+        if (System.currentTimeMillis() >= active.expiresAtMs - REFRESH_LEAD_MS) {
+            requestRefresh(REASON_EXPIRING);
+            // Keep asking until update() moves the expiry
+            handler.postDelayed(expiryCheck, REQUEST_TIMEOUT_MS);
+        } else {
+            scheduleExpiryCheck();
+        }
+    }
+
+    @Override
+    public DataSpec resolveDataSpec(DataSpec dataSpec) {
+        Uri resolved = resolve(dataSpec.uri);
+        return resolved == dataSpec.uri ? dataSpec : dataSpec.withUri(resolved);
+    }
+
+    private Uri resolve(Uri uri) {
+        if (entries.isEmpty() || uri.getHost() == null) return uri;
+        SignedUrl exact = entries.get(keyOf(uri));
+        if (exact != null) {
+            return exact.uri;
+        }
+        String path = uri.getPath() != null ? uri.getPath() : "";
+        for (SignedUrl signedUrl : entries.values()) {
+            if (uri.getHost().equals(signedUrl.host) && path.startsWith(signedUrl.directory)) {
+                return replaceSigningParams(uri, signedUrl.params);
+            }
+        }
+        return uri;
+    }
+
+    /**
+     * Only parameters the request already carries are replaced: segments that are not
+     * signed individually stay untouched
+     */
+    private static Uri replaceSigningParams(Uri uri, Map<String, String> params) {
+        if (uri.getQuery() == null) return uri;
+        boolean changed = false;
+        Uri.Builder builder = uri.buildUpon().clearQuery();
+        for (String name : uri.getQueryParameterNames()) {
+            String fresh = params.get(name);
+            for (String value : uri.getQueryParameters(name)) {
+                if (fresh != null && !fresh.equals(value)) {
+                    value = fresh;
+                    changed = true;
+                }
+                builder.appendQueryParameter(name, value);
+            }
+        }
+        return changed ? builder.build() : uri;
+    }
+
+    private static String keyOf(Uri uri) {
+        return uri.buildUpon().clearQuery().fragment(null).build().toString();
+    }
+
+    /**
+     * Expiry in ms from CloudFront's Expires parameter or the exp claim of an IVS token, 0 if neither
+     */
+    static long parseExpiry(Uri uri) {
+        try {
+            String expires = uri.getQueryParameter("Expires");
+            if (expires != null) {
+                return Long.parseLong(expires) * 1000;
+            }
+            String token = uri.getQueryParameter("token");
+            if (token != null) {
+                String[] parts = token.split("\\.");
+                if (parts.length == 3) {
+                    byte[] payload = Base64.decode(parts[1], Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING);
+                    return new JSONObject(new String(payload, StandardCharsets.UTF_8)).optLong("exp", 0) * 1000;
+                }
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not read expiry from signed URL: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * 401, 403 and 410 mean the signature or token was rejected, not that the content is gone
+     */
+    public static boolean isSignatureRejected(Throwable error) {
+        if (!(error instanceof HttpDataSource.InvalidResponseCodeException)) return false;
+        int status = ((HttpDataSource.InvalidResponseCodeException) error).responseCode;
+        return status == 401 || status == 403 || status == 410;
+    }
+
+    /**
+     * Wraps an HLS data source factory so its requests use the latest signed URLs
+     */
+    public HlsDataSourceFactory wrap(HlsDataSourceFactory factory) {
+        return dataType -> new ResolvingDataSource(factory.createDataSource(dataType), this);
+    }
+
+    public LoadErrorHandlingPolicy getLoadErrorHandlingPolicy() {
+        return loadErrorHandlingPolicy;
+    }
+
+    /**
+     * Holds rejected loads in a retry loop instead of excluding the rendition, which
+     * would just move the failure to the next one. Other errors keep ExoPlayer's handling.
+     */
+    private final class ForbiddenRetryPolicy extends DefaultLoadErrorHandlingPolicy {
+        @Override
+        public FallbackSelection getFallbackSelectionFor(FallbackOptions fallbackOptions, LoadErrorInfo loadErrorInfo) {
+            if (isSignatureRejected(loadErrorInfo.exception)) return null;
+            return super.getFallbackSelectionFor(fallbackOptions, loadErrorInfo);
+        }
+
+        @Override
+        public long getRetryDelayMsFor(LoadErrorInfo loadErrorInfo) {
+            if (isSignatureRejected(loadErrorInfo.exception)) {
+                handler.post(() -> requestRefresh(REASON_FORBIDDEN));
+                return loadErrorInfo.errorCount <= FORBIDDEN_RETRY_LIMIT ? FORBIDDEN_RETRY_DELAY_MS : C.TIME_UNSET;
+            }
+            // The raised minimum retry count below is only for rejected loads
+            if (loadErrorInfo.errorCount > super.getMinimumLoadableRetryCount(loadErrorInfo.mediaLoadData.dataType)) {
+                return C.TIME_UNSET;
+            }
+            return super.getRetryDelayMsFor(loadErrorInfo);
+        }
+
+        @Override
+        public int getMinimumLoadableRetryCount(int dataType) {
+            return Math.max(FORBIDDEN_RETRY_LIMIT, super.getMinimumLoadableRetryCount(dataType));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+/**
+ * Times how long the player has been buffering while it should be playing. Kept free
+ * of Android and ExoPlayer types so the stall rules can be unit tested on the JVM.
+ * <p>
+ * The timer is (re)started from the watchdog tick as well as from state changes:
+ * a retry issued while already buffering brings no new STATE_BUFFERING, and without
+ * the tick restart a second stall would never be caught.
+ */
+final class StallTimer {
+    private final long timeoutMs;
+    private long bufferingSinceMs = -1;
+
+    StallTimer(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * The player entered STATE_BUFFERING
+     */
+    void onBufferingStarted(long nowMs) {
+        if (bufferingSinceMs < 0) {
+            bufferingSinceMs = nowMs;
+        }
+    }
+
+    /**
+     * Stop timing: the player left buffering, or a recovery was just issued
+     */
+    void reset() {
+        bufferingSinceMs = -1;
+    }
+
+    /**
+     * Watchdog tick. True once buffering has lasted past the timeout; the timer then
+     * resets, and the next tick that still sees buffering starts timing again.
+     */
+    boolean check(boolean buffering, long nowMs) {
+        if (!buffering) {
+            bufferingSinceMs = -1;
+            return false;
+        }
+        if (bufferingSinceMs < 0) {
+            bufferingSinceMs = nowMs;
+            return false;
+        }
+        if (nowMs - bufferingSinceMs > timeoutMs) {
+            bufferingSinceMs = -1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * How long the current buffering has lasted, 0 when not timing
+     */
+    long bufferingForMs(long nowMs) {
+        return bufferingSinceMs < 0 ? 0 : nowMs - bufferingSinceMs;
+    }
+}
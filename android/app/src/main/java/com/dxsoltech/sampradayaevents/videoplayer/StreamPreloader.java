@@ -0,0 +1,316 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.source.hls.HlsDataSourceFactory;
+import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist;
+import com.google.android.exoplayer2.source.hls.playlist.HlsMultivariantPlaylist;
+import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylist;
+import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylistParser;
+import com.google.android.exoplayer2.upstream.ByteArrayDataSource;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSourceUtil;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheWriter;
+import com.google.android.exoplayer2.util.UriUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Warms everything between "user taps Watch" and the first segment: DNS, the
+ * HTTP connection, master and media playlists and the first segments of the
+ * rendition the player is likely to start on. A later initialize() with the same
+ * URL picks the work up through createHlsDataSourceFactory().
+ */
+public final class StreamPreloader {
+    private static final String TAG = "StreamPreloader";
+    // Segments to buffer ahead: first ones for recordings, newest ones for live
+    private static final int PRELOAD_SEGMENT_COUNT = 2;
+    // How long a preloaded master playlist may be served instead of refetching it
+    private static final long PRELOAD_EXPIRY_MS = 5 * 60 * 1000;
+    // Same fraction AdaptiveTrackSelection applies to the bandwidth estimate
+    private static final float BANDWIDTH_FRACTION = 0.7f;
+
+    private static StreamPreloader instance;
+
+    private final Context context;
+    private final ExecutorService executor;
+    private final DataSource.Factory httpDataSourceFactory;
+    // Preload fetches write segments into the cache; players only read what is there
+    private final CacheDataSource.Factory cacheWriteDataSourceFactory;
+    private final CacheDataSource.Factory cacheReadDataSourceFactory;
+    private final Map<String, PreloadEntry> entries = new ConcurrentHashMap<>();
+
+    public static class PreloadEntry {
+        public final String url;
+        public final long createdAtMs;
+        public byte[] masterPlaylist;
+        public Uri variantUrl;
+        public int variantBitrate;
+        public boolean isLive;
+        public int segmentsCached;
+
+        PreloadEntry(String url) {
+            this.url = url;
+            this.createdAtMs = SystemClock.elapsedRealtime();
+        }
+
+        boolean isExpired() {
+            return SystemClock.elapsedRealtime() - createdAtMs > PRELOAD_EXPIRY_MS;
+        }
+    }
+
+    public interface PreloadCallback {
+        void onPreloaded(PreloadEntry entry);
+        void onPreloadError(String error);
+    }
+
+    public static synchronized StreamPreloader getInstance(Context context) {
+        if (instance == null) {
+            instance = new StreamPreloader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private StreamPreloader(Context context) {
+        this.context = context;
+        this.executor = Executors.newSingleThreadExecutor();
+        this.httpDataSourceFactory = SharedHttpClient.createDataSourceFactory();
+        this.cacheWriteDataSourceFactory = new CacheDataSource.Factory()
+            .setCache(MediaCache.getInstance(context))
+            .setCacheKeyFactory(MediaCache.CACHE_KEY_FACTORY)
+            .setUpstreamDataSourceFactory(httpDataSourceFactory)
+            .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+        this.cacheReadDataSourceFactory = new CacheDataSource.Factory()
+            .setCache(MediaCache.getInstance(context))
+            .setCacheKeyFactory(MediaCache.CACHE_KEY_FACTORY)
+            .setUpstreamDataSourceFactory(httpDataSourceFactory)
+            .setCacheWriteDataSinkFactory(null)
+            .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+    }
+
+    public void preload(String url, PreloadCallback callback) {
+        executor.execute(() -> {
+            try {
+                PreloadEntry entry = runPreload(url);
+                entries.put(url, entry);
+                if (callback != null) {
+                    callback.onPreloaded(entry);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Preload failed for " + url + ": " + e.getMessage());
+                if (callback != null) {
+                    callback.onPreloadError(e.getMessage());
+                }
+            }
+        });
+    }
+
+    public boolean hasPreload(String url) {
+        PreloadEntry entry = entries.get(url);
+        if (entry != null && entry.isExpired()) {
+            entries.remove(url);
+            return false;
+        }
+        return entry != null;
+    }
+
+    /**
+     * Data sources for a player about to open a preloaded URL. The master playlist
+     * is served from memory once, media playlists always go to the network (they
+     * change for live), and segments are read from the segment cache when preloaded.
+     * Playback never writes the cache: a miss streams from the network without
+     * copying every segment of a live stream to disk.
+     */
+    public HlsDataSourceFactory createHlsDataSourceFactory(String url) {
+        PreloadEntry entry = entries.remove(url);
+        byte[] masterPlaylist = entry != null && !entry.isExpired() ? entry.masterPlaylist : null;
+        Uri masterUri = Uri.parse(url);
+        return dataType -> {
+            if (dataType == C.DATA_TYPE_MANIFEST) {
+                return new PreloadedManifestDataSource(httpDataSourceFactory.createDataSource(), masterUri, masterPlaylist);
+            }
+            if (dataType == C.DATA_TYPE_MEDIA || dataType == C.DATA_TYPE_MEDIA_INITIALIZATION) {
+                return cacheReadDataSourceFactory.createDataSource();
+            }
+            return httpDataSourceFactory.createDataSource();
+        };
+    }
+
+    private PreloadEntry runPreload(String url) throws IOException {
+        long startMs = SystemClock.elapsedRealtime();
+        PreloadEntry entry = new PreloadEntry(url);
+        Uri uri = Uri.parse(url);
+
+        // DNS: lands in the shared client's cache, so the player skips the lookup
+        if (uri.getHost() != null) {
+            SharedHttpClient.prefetchDns(uri.getHost());
+        }
+
+        // Master playlist: also leaves a pooled connection to the CDN for the player
+        entry.masterPlaylist = fetch(uri);
+        HlsPlaylist playlist = parse(uri, entry.masterPlaylist);
+
+        HlsMediaPlaylist mediaPlaylist;
+        if (playlist instanceof HlsMultivariantPlaylist) {
+            HlsMultivariantPlaylist multivariant = (HlsMultivariantPlaylist) playlist;
+            HlsMultivariantPlaylist.Variant variant = selectStartingVariant(multivariant.variants);
+            if (variant == null) {
+                throw new IOException("Master playlist has no variants");
+            }
+            entry.variantUrl = variant.url;
+            entry.variantBitrate = variant.format.bitrate;
+            HlsPlaylist variantPlaylist = parse(variant.url, fetch(variant.url));
+            if (!(variantPlaylist instanceof HlsMediaPlaylist)) {
+                throw new IOException("Variant is not a media playlist");
+            }
+            mediaPlaylist = (HlsMediaPlaylist) variantPlaylist;
+        } else {
+            entry.variantUrl = uri;
+            mediaPlaylist = (HlsMediaPlaylist) playlist;
+        }
+
+        entry.isLive = !mediaPlaylist.hasEndTag;
+        // Playlists are cheap; segments that may never be watched wait for an unmetered link under data saver
+        entry.segmentsCached = NetworkMonitor.getInstance(context).allowsSegmentPrefetch()
+            ? cacheSegments(mediaPlaylist, entry.isLive)
+            : 0;
+
+        Log.d(TAG, "Preloaded " + url + " in " + (SystemClock.elapsedRealtime() - startMs)
+            + "ms: bitrate=" + entry.variantBitrate + " live=" + entry.isLive + " segments=" + entry.segmentsCached);
+        return entry;
+    }
+
+    /**
+     * Pick the variant AdaptiveTrackSelection would start on: the highest bitrate
+     * that fits the shared (persisted) bandwidth estimate, or the lowest if none fits
+     */
+    private HlsMultivariantPlaylist.Variant selectStartingVariant(List<HlsMultivariantPlaylist.Variant> variants) {
+        long allowedBitrate = (long) (BandwidthEstimateStore.getInstance(context).getCurrentEstimate() * BANDWIDTH_FRACTION);
+        HlsMultivariantPlaylist.Variant best = null;
+        HlsMultivariantPlaylist.Variant lowest = null;
+        for (HlsMultivariantPlaylist.Variant variant : variants) {
+            int bitrate = variant.format.bitrate;
+            if (lowest == null || bitrate < lowest.format.bitrate) {
+                lowest = variant;
+            }
+            if (bitrate <= allowedBitrate && (best == null || bitrate > best.format.bitrate)) {
+                best = variant;
+            }
+        }
+        return best != null ? best : lowest;
+    }
+
+    private int cacheSegments(HlsMediaPlaylist playlist, boolean isLive) {
+        List<HlsMediaPlaylist.Segment> segments = playlist.segments;
+        if (segments.isEmpty()) return 0;
+
+        int count = Math.min(PRELOAD_SEGMENT_COUNT, segments.size());
+        int from = isLive ? segments.size() - count : 0;
+        int cached = 0;
+        for (int i = from; i < from + count; i++) {
+            HlsMediaPlaylist.Segment segment = segments.get(i);
+            try {
+                if (segment.initializationSegment != null) {
+                    cacheSegment(playlist.baseUri, segment.initializationSegment);
+                }
+                cacheSegment(playlist.baseUri, segment);
+                cached++;
+            } catch (IOException e) {
+                Log.w(TAG, "Segment preload failed: " + e.getMessage());
+                break;
+            }
+        }
+        return cached;
+    }
+
+    private void cacheSegment(String baseUri, HlsMediaPlaylist.Segment segment) throws IOException {
+        DataSpec dataSpec = new DataSpec.Builder()
+            .setUri(UriUtil.resolveToUri(baseUri, segment.url))
+            .setPosition(segment.byteRangeOffset)
+            .setLength(segment.byteRangeLength)
+            .build();
+        new CacheWriter(cacheWriteDataSourceFactory.createDataSource(), dataSpec, null, null).cache();
+    }
+
+    private byte[] fetch(Uri uri) throws IOException {
+        DataSource dataSource = httpDataSourceFactory.createDataSource();
+        try {
+            dataSource.open(new DataSpec(uri));
+            return DataSourceUtil.readToEnd(dataSource);
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    private HlsPlaylist parse(Uri uri, byte[] data) throws IOException {
+        return new HlsPlaylistParser().parse(uri, new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Serves the preloaded master playlist from memory and everything else from upstream
+     */
+    private static final class PreloadedManifestDataSource implements DataSource {
+        private final DataSource upstream;
+        private final Uri masterUri;
+        private final byte[] masterPlaylist;
+        private DataSource current;
+
+        PreloadedManifestDataSource(DataSource upstream, Uri masterUri, byte[] masterPlaylist) {
+            this.upstream = upstream;
+            this.masterUri = masterUri;
+            this.masterPlaylist = masterPlaylist;
+        }
+
+        @Override
+        public void addTransferListener(TransferListener transferListener) {
+            upstream.addTransferListener(transferListener);
+        }
+
+        @Override
+        public long open(DataSpec dataSpec) throws IOException {
+            if (masterPlaylist != null && dataSpec.uri.equals(masterUri)) {
+                current = new ByteArrayDataSource(masterPlaylist);
+            } else {
+                current = upstream;
+            }
+            return current.open(dataSpec);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return current.read(buffer, offset, length);
+        }
+
+        @Override
+        public Uri getUri() {
+            return current != null ? current.getUri() : null;
+        }
+
+        @Override
+        public Map<String, List<String>> getResponseHeaders() {
+            return current != null ? current.getResponseHeaders() : Collections.emptyMap();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+}
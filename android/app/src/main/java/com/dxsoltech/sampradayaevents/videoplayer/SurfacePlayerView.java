@@ -0,0 +1,254 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.view.Gravity;
+import android.view.Surface;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.ImageButton;
+import android.widget.LinearLayout;
+import android.widget.SeekBar;
+import android.widget.TextView;
+
+import com.google.android.exoplayer2.ui.AspectRatioFrameLayout;
+import com.google.android.exoplayer2.util.Util;
+
+import java.util.Formatter;
+import java.util.Locale;
+
+/**
+ * Video surface and minimal controls for a player running on its own thread.
+ * StyledPlayerView needs a player on the main looper, so this view never calls
+ * the player: the surface is handed over through the callback, the controls
+ * draw from PlayerStateSnapshot, and play/pause/seek go back as commands.
+ * Main thread only.
+ */
+public class SurfacePlayerView extends FrameLayout {
+
+    public interface Callback {
+        void onSurfaceCreated(Surface surface);
+        /**
+         * The player must have let go of the surface when this returns
+         */
+        void onSurfaceDestroyed(Surface surface);
+        void onPlayPause();
+        void onSeekTo(long positionMs);
+        void onControllerVisibilityChanged(int visibility);
+        PlayerStateSnapshot getState();
+    }
+
+    private static final long PROGRESS_INTERVAL_MS = 500;
+    // Commands reach the player asynchronously; redraw once they have landed
+    private static final long COMMAND_REFRESH_DELAY_MS = 100;
+
+    private final Callback callback;
+    private final int showTimeoutMs;
+    private final AspectRatioFrameLayout contentFrame;
+    private final View shutterView;
+    private final FrameLayout controllerView;
+    private final ImageButton playPauseButton;
+    private final LinearLayout seekRow;
+    private final SeekBar seekBar;
+    private final TextView positionView;
+    private final TextView durationView;
+    private final StringBuilder timeBuilder = new StringBuilder();
+    private final Formatter timeFormatter = new Formatter(timeBuilder, Locale.getDefault());
+    private final Runnable hideRunnable = this::hideController;
+    private final Runnable progressRunnable = this::updateProgress;
+    private boolean useController = true;
+    private boolean controllerVisible = false;
+    private boolean seeking = false;
+
+    public SurfacePlayerView(Context context, int showTimeoutMs, Callback callback) {
+        super(context);
+        this.callback = callback;
+        this.showTimeoutMs = showTimeoutMs;
+        setBackgroundColor(Color.BLACK);
+
+        contentFrame = new AspectRatioFrameLayout(context);
+        contentFrame.setResizeMode(AspectRatioFrameLayout.RESIZE_MODE_FIT);
+        SurfaceView surfaceView = new SurfaceView(context);
+        surfaceView.getHolder().addCallback(new SurfaceHolder.Callback() {
+            @Override
+            public void surfaceCreated(SurfaceHolder holder) {
+                callback.onSurfaceCreated(holder.getSurface());
+            }
+
+            @Override
+            public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+            }
+
+            @Override
+            public void surfaceDestroyed(SurfaceHolder holder) {
+                callback.onSurfaceDestroyed(holder.getSurface());
+            }
+        });
+        contentFrame.addView(surfaceView, new FrameLayout.LayoutParams(
+            FrameLayout.LayoutParams.MATCH_PARENT,
+            FrameLayout.LayoutParams.MATCH_PARENT
+        ));
+        // Covers the last frame of the previous stream until the first new one is drawn
+        shutterView = new View(context);
+        shutterView.setBackgroundColor(Color.BLACK);
+        contentFrame.addView(shutterView, new FrameLayout.LayoutParams(
+            FrameLayout.LayoutParams.MATCH_PARENT,
+            FrameLayout.LayoutParams.MATCH_PARENT
+        ));
+        addView(contentFrame, new FrameLayout.LayoutParams(
+            FrameLayout.LayoutParams.MATCH_PARENT,
+            FrameLayout.LayoutParams.MATCH_PARENT,
+            Gravity.CENTER
+        ));
+
+        // Not clickable, so taps anywhere fall through to this view and toggle it
+        controllerView = new FrameLayout(context);
+        controllerView.setBackgroundColor(0x99000000);
+        controllerView.setVisibility(View.GONE);
+
+        playPauseButton = new ImageButton(context);
+        playPauseButton.setBackgroundColor(Color.TRANSPARENT);
+        playPauseButton.setScaleType(ImageButton.ScaleType.FIT_CENTER);
+        playPauseButton.setImageResource(com.google.android.exoplayer2.ui.R.drawable.exo_styled_controls_play);
+        playPauseButton.setOnClickListener(v -> {
+            callback.onPlayPause();
+            showController();
+            removeCallbacks(progressRunnable);
+            postDelayed(progressRunnable, COMMAND_REFRESH_DELAY_MS);
+        });
+        controllerView.addView(playPauseButton, new FrameLayout.LayoutParams(dp(64), dp(64), Gravity.CENTER));
+
+        seekRow = new LinearLayout(context);
+        seekRow.setOrientation(LinearLayout.HORIZONTAL);
+        seekRow.setGravity(Gravity.CENTER_VERTICAL);
+        positionView = createTimeView(context);
+        durationView = createTimeView(context);
+        seekBar = new SeekBar(context);
+        seekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar bar, int progress, boolean fromUser) {
+                if (fromUser) {
+                    positionView.setText(Util.getStringForTime(timeBuilder, timeFormatter, progress));
+                }
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar bar) {
+                seeking = true;
+                removeCallbacks(hideRunnable);
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar bar) {
+                seeking = false;
+                callback.onSeekTo(bar.getProgress());
+                showController();
+            }
+        });
+        seekRow.addView(positionView);
+        seekRow.addView(seekBar, new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1f));
+        seekRow.addView(durationView);
+        FrameLayout.LayoutParams seekParams = new FrameLayout.LayoutParams(
+            FrameLayout.LayoutParams.MATCH_PARENT,
+            FrameLayout.LayoutParams.WRAP_CONTENT,
+            Gravity.BOTTOM
+        );
+        // Leave the bottom right corner to the fullscreen button
+        seekParams.setMargins(dp(8), 0, dp(48), dp(8));
+        controllerView.addView(seekRow, seekParams);
+
+        addView(controllerView, new FrameLayout.LayoutParams(
+            FrameLayout.LayoutParams.MATCH_PARENT,
+            FrameLayout.LayoutParams.MATCH_PARENT
+        ));
+
+        setOnClickListener(v -> {
+            if (controllerVisible) {
+                hideController();
+            } else {
+                showController();
+            }
+        });
+    }
+
+    public void setAspectRatio(float aspectRatio) {
+        contentFrame.setAspectRatio(aspectRatio);
+    }
+
+    public void setShutterVisible(boolean visible) {
+        shutterView.setVisibility(visible ? View.VISIBLE : View.GONE);
+    }
+
+    public void setUseController(boolean useController) {
+        this.useController = useController;
+        if (!useController) {
+            hideController();
+        }
+    }
+
+    public void showController() {
+        if (!useController) return;
+        if (!controllerVisible) {
+            controllerVisible = true;
+            controllerView.setVisibility(View.VISIBLE);
+            callback.onControllerVisibilityChanged(View.VISIBLE);
+            updateProgress();
+        }
+        removeCallbacks(hideRunnable);
+        postDelayed(hideRunnable, showTimeoutMs);
+    }
+
+    public void hideController() {
+        removeCallbacks(hideRunnable);
+        removeCallbacks(progressRunnable);
+        if (!controllerVisible) return;
+        controllerVisible = false;
+        controllerView.setVisibility(View.GONE);
+        callback.onControllerVisibilityChanged(View.GONE);
+    }
+
+    /**
+     * Redraw from the latest snapshot, repeated while the controls are shown
+     */
+    private void updateProgress() {
+        removeCallbacks(progressRunnable);
+        PlayerStateSnapshot state = callback.getState();
+        playPauseButton.setImageResource(state.playWhenReady
+            ? com.google.android.exoplayer2.ui.R.drawable.exo_styled_controls_pause
+            : com.google.android.exoplayer2.ui.R.drawable.exo_styled_controls_play);
+
+        // Live streams play at the edge; only recordings get a seek bar
+        boolean seekable = !state.isLive && state.durationMs > 0;
+        seekRow.setVisibility(seekable ? View.VISIBLE : View.GONE);
+        if (seekable && !seeking) {
+            long position = state.getCurrentPositionMs();
+            seekBar.setMax((int) state.durationMs);
+            seekBar.setProgress((int) position);
+            positionView.setText(Util.getStringForTime(timeBuilder, timeFormatter, position));
+            durationView.setText(Util.getStringForTime(timeBuilder, timeFormatter, state.durationMs));
+        }
+        if (controllerVisible) {
+            postDelayed(progressRunnable, PROGRESS_INTERVAL_MS);
+        }
+    }
+
+    private TextView createTimeView(Context context) {
+        TextView view = new TextView(context);
+        view.setTextColor(Color.WHITE);
+        view.setTextSize(android.util.TypedValue.COMPLEX_UNIT_SP, 12);
+        view.setPadding(dp(4), 0, dp(4), 0);
+        return view;
+    }
+
+    private int dp(int value) {
+        return (int) (value * getResources().getDisplayMetrics().density);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        hideController();
+    }
+}
@@ -0,0 +1,121 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.DefaultLoadControl;
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.ExoTrackSelection;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+
+/**
+ * LoadControl whose buffer profile can change while the player runs. ExoPlayer
+ * fixes the LoadControl at build time, so this forwards to a DefaultLoadControl
+ * per profile, all on one allocator. setProfile() can be called from any thread;
+ * the switch happens on the playback thread at the next callback, with the new
+ * delegate primed with the current track selection.
+ */
+public final class SwitchableLoadControl implements LoadControl {
+    private final DefaultAllocator allocator = new DefaultAllocator(true, C.DEFAULT_BUFFER_SEGMENT_SIZE);
+    private LoadControl delegate;
+    private volatile BufferProfile pendingProfile;
+    private volatile boolean switchPending = false;
+    private volatile BufferProfile profile;
+
+    // Last track selection, replayed into a new delegate (playback thread)
+    private Renderer[] renderers;
+    private TrackGroupArray trackGroups;
+    private ExoTrackSelection[] trackSelections;
+    private boolean prepared = false;
+
+    public SwitchableLoadControl(BufferProfile profile) {
+        this.profile = profile;
+        this.delegate = build(profile);
+    }
+
+    /**
+     * Null selects ExoPlayer's default buffer durations
+     */
+    public void setProfile(BufferProfile profile) {
+        if (profile == this.profile) return;
+        this.profile = profile;
+        pendingProfile = profile;
+        switchPending = true;
+    }
+
+    public BufferProfile getProfile() {
+        return profile;
+    }
+
+    private LoadControl build(BufferProfile profile) {
+        return profile != null
+            ? profile.buildLoadControl(allocator)
+            : new DefaultLoadControl.Builder().setAllocator(allocator).build();
+    }
+
+    private LoadControl current() {
+        if (switchPending) {
+            switchPending = false;
+            delegate = build(pendingProfile);
+            if (prepared) {
+                delegate.onPrepared();
+                if (renderers != null) {
+                    delegate.onTracksSelected(renderers, trackGroups, trackSelections);
+                }
+            }
+        }
+        return delegate;
+    }
+
+    @Override
+    public void onPrepared() {
+        prepared = true;
+        current().onPrepared();
+    }
+
+    @Override
+    public void onTracksSelected(Renderer[] renderers, TrackGroupArray trackGroups, ExoTrackSelection[] trackSelections) {
+        this.renderers = renderers;
+        this.trackGroups = trackGroups;
+        this.trackSelections = trackSelections;
+        current().onTracksSelected(renderers, trackGroups, trackSelections);
+    }
+
+    @Override
+    public void onStopped() {
+        prepared = false;
+        current().onStopped();
+    }
+
+    @Override
+    public void onReleased() {
+        prepared = false;
+        current().onReleased();
+    }
+
+    @Override
+    public Allocator getAllocator() {
+        return allocator;
+    }
+
+    @Override
+    public long getBackBufferDurationUs() {
+        return current().getBackBufferDurationUs();
+    }
+
+    @Override
+    public boolean retainBackBufferFromKeyframe() {
+        return current().retainBackBufferFromKeyframe();
+    }
+
+    @Override
+    public boolean shouldContinueLoading(long playbackPositionUs, long bufferedDurationUs, float playbackSpeed) {
+        return current().shouldContinueLoading(playbackPositionUs, bufferedDurationUs, playbackSpeed);
+    }
+
+    @Override
+    public boolean shouldStartPlayback(long bufferedDurationUs, float playbackSpeed, boolean rebuffering, long targetLiveOffsetUs) {
+        return current().shouldStartPlayback(bufferedDurationUs, playbackSpeed, rebuffering, targetLiveOffsetUs);
+    }
+}
@@ -0,0 +1,99 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.getcapacitor.Bridge;
+
+/**
+ * Keeps one parked IvsPlayerManager (ExoPlayer, view tree, MediaSession, DLNA service)
+ * around after destroy so going back to the watch page skips the cold start.
+ * The warm instance is released for real after an idle timeout.
+ * All methods must be called on the UI thread.
+ */
+public class WarmPlayerPool {
+    private static final String TAG = "WarmPlayerPool";
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 60000;
+
+    private final Activity activity;
+    private final Bridge bridge;
+    private final Handler mainHandler;
+    private final Runnable idleTimeoutRunnable = this::evict;
+    private IvsPlayerManager warmPlayer;
+    private long idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+
+    public WarmPlayerPool(Activity activity, Bridge bridge) {
+        this.activity = activity;
+        this.bridge = bridge;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Hand out the warm instance if there is one, otherwise a fresh manager
+     */
+    public IvsPlayerManager acquire() {
+        mainHandler.removeCallbacks(idleTimeoutRunnable);
+        if (warmPlayer != null) {
+            IvsPlayerManager manager = warmPlayer;
+            warmPlayer = null;
+            Log.d(TAG, "acquire: reusing warm player");
+            return manager;
+        }
+        Log.d(TAG, "acquire: creating new player");
+        return new IvsPlayerManager(activity, bridge);
+    }
+
+    /**
+     * Take a manager back, park it and start the idle timeout
+     */
+    public void release(IvsPlayerManager manager) {
+        if (manager == null) return;
+        if (warmPlayer != null && warmPlayer != manager) {
+            warmPlayer.destroy();
+        }
+        manager.park();
+        warmPlayer = manager;
+        scheduleIdleTimeout();
+    }
+
+    /**
+     * Build a warm instance ahead of the first initialize
+     */
+    public void prewarm(boolean lowLatency, BufferProfile bufferProfile, boolean dedicatedPlaybackThread) {
+        if (warmPlayer == null) {
+            warmPlayer = new IvsPlayerManager(activity, bridge);
+        }
+        warmPlayer.prewarm(lowLatency, bufferProfile, dedicatedPlaybackThread);
+        scheduleIdleTimeout();
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+        if (warmPlayer != null) {
+            scheduleIdleTimeout();
+        }
+    }
+
+    public boolean hasWarmPlayer() {
+        return warmPlayer != null;
+    }
+
+    /**
+     * Release the warm instance immediately
+     */
+    public void evict() {
+        mainHandler.removeCallbacks(idleTimeoutRunnable);
+        if (warmPlayer != null) {
+            Log.d(TAG, "evict: releasing warm player");
+            warmPlayer.destroy();
+            warmPlayer = null;
+        }
+    }
+
+    private void scheduleIdleTimeout() {
+        mainHandler.removeCallbacks(idleTimeoutRunnable);
+        mainHandler.postDelayed(idleTimeoutRunnable, idleTimeoutMs);
+    }
+}
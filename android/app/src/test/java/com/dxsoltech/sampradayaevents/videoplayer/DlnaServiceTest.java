@@ -0,0 +1,48 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DlnaServiceTest {
+    private static final String UDN = "uuid:4d696e69-444c-164e-9d41-b827eb8a4e3c";
+    private static final String LOCATION = "http://192.168.1.20:49152/description.xml";
+
+    private static DlnaService.DlnaDevice device(String udn, String location, boolean remembered) {
+        DlnaService.DlnaDevice device = new DlnaService.DlnaDevice();
+        device.name = "Living Room TV";
+        device.udn = udn;
+        device.location = location;
+        device.remembered = remembered;
+        return device;
+    }
+
+    @Test
+    public void byebyeAfterRevalidationRemovesTheListedCopy() {
+        // The device table holds one instance; revalidation lists a fresh one for the same renderer
+        DlnaService.DlnaDevice tableInstance = device(UDN, LOCATION, false);
+        DlnaService.DlnaDevice revalidated = device(UDN, LOCATION, false);
+        assertTrue(DlnaService.isSameSighting(revalidated, tableInstance));
+    }
+
+    @Test
+    public void goneAtOldAddressKeepsTheNewerSighting() {
+        DlnaService.DlnaDevice moved = device(UDN, "http://192.168.1.31:49152/description.xml", false);
+        DlnaService.DlnaDevice gone = device(UDN, LOCATION, false);
+        assertFalse(DlnaService.isSameSighting(moved, gone));
+    }
+
+    @Test
+    public void failedRevalidationOnlyRemovesUnconfirmedEntries() {
+        DlnaService.DlnaDevice failed = device(UDN, LOCATION, true);
+        assertTrue(DlnaService.isSameSighting(device(UDN, LOCATION, true), failed));
+        assertFalse(DlnaService.isSameSighting(device(UDN, LOCATION, false), failed));
+    }
+
+    @Test
+    public void otherRendererIsNeverMatched() {
+        DlnaService.DlnaDevice other = device("uuid:other", LOCATION, false);
+        assertFalse(DlnaService.isSameSighting(other, device(UDN, LOCATION, false)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.dxsoltech.sampradayaevents.videoplayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class StallTimerTest {
+    private static final long TIMEOUT_MS = 12000;
+    private static final long TICK_MS = 1000;
+
+    /**
+     * Ticks once a second while buffering; returns when the stall fired, or -1
+     */
+    private static long tickUntilStall(StallTimer timer, long fromMs, long forMs) {
+        for (long now = fromMs; now <= fromMs + forMs; now += TICK_MS) {
+            if (timer.check(true, now)) return now;
+        }
+        return -1;
+    }
+
+    @Test
+    public void stallFiresAfterTimeout() {
+        StallTimer timer = new StallTimer(TIMEOUT_MS);
+        timer.onBufferingStarted(0);
+        assertFalse(timer.check(true, TIMEOUT_MS));
+        assertTrue(timer.check(true, TIMEOUT_MS + TICK_MS));
+    }
+
+    @Test
+    public void leavingBufferingStopsTheTimer() {
+        StallTimer timer = new StallTimer(TIMEOUT_MS);
+        timer.onBufferingStarted(0);
+        assertFalse(timer.check(false, 10000));
+        assertEquals(0, timer.bufferingForMs(10000));
+        assertFalse(timer.check(true, 20000));
+        assertFalse(timer.check(true, 20000 + TIMEOUT_MS));
+    }
+
+    @Test
+    public void stallAfterRetryWhileStillBufferingIsCaughtAgain() {
+        StallTimer timer = new StallTimer(TIMEOUT_MS);
+        timer.onBufferingStarted(0);
+        long firstStall = tickUntilStall(timer, TICK_MS, 60000);
+        assertEquals(TIMEOUT_MS + TICK_MS, firstStall);
+
+        // The retry seeks while the player is still buffering: no new STATE_BUFFERING arrives
+        timer.reset();
+        long secondStall = tickUntilStall(timer, firstStall + TICK_MS, 60000);
+        assertTrue("second stall not detected", secondStall > firstStall);
+        assertTrue(secondStall - firstStall <= TIMEOUT_MS + 2 * TICK_MS);
+    }
+
+    @Test
+    public void stallKeepsFiringWhileStuck() {
+        StallTimer timer = new StallTimer(TIMEOUT_MS);
+        int stalls = 0;
+        for (long now = 0; now <= 5 * 60000; now += TICK_MS) {
+            if (timer.check(true, now)) stalls++;
+        }
+        assertTrue(stalls >= 20);
+    }
+}
@@ -0,0 +1,31 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DeviceDescriptionParserBenchmark {
+    @Param({"samsung-tizen.xml", "lg-webos.xml", "sony-bravia.xml", "kodi.xml", "embedded-renderer.xml"})
+    public String fixture;
+
+    private String xml;
+
+    @Setup
+    public void load() {
+        xml = Fixtures.description(fixture);
+    }
+
+    @Benchmark
+    public DeviceDescription parse() {
+        return DeviceDescriptionParser.parse(xml, "http://192.168.1.23:9197/dmr");
+    }
+}
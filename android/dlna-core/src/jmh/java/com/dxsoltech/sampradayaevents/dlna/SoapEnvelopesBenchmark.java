@@ -0,0 +1,35 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SoapEnvelopesBenchmark {
+    // Relay URL with a signed query, the usual SetAVTransportURI argument
+    public String uri = "http://192.168.1.5:8089/hls/master.m3u8?Expires=1760640000&Signature=Zm9vYmFyYmF6cXV4&Key-Pair-Id=K2JCJMDEHXQW5F";
+    public String metadata = "<DIDL-Lite xmlns=\"urn:schemas-upnp-org:metadata-1-0/DIDL-Lite/\">"
+        + "<item id=\"0\" parentID=\"-1\" restricted=\"1\"><dc:title>Live</dc:title>"
+        + "<res protocolInfo=\"http-get:*:application/vnd.apple.mpegurl:*\">stream</res></item></DIDL-Lite>";
+
+    @Benchmark
+    public String setAvTransportUri() {
+        return SoapEnvelopes.setAvTransportUri(uri, metadata);
+    }
+
+    @Benchmark
+    public String setAvTransportUriWithoutMetadata() {
+        return SoapEnvelopes.setAvTransportUri(uri, "");
+    }
+
+    @Benchmark
+    public String play() {
+        return SoapEnvelopes.play();
+    }
+}
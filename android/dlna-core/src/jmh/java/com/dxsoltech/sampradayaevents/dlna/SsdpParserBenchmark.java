@@ -0,0 +1,34 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * One discovery round parses a response per renderer plus every NOTIFY on the LAN
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SsdpParserBenchmark {
+    @Param({"samsung-tizen-response.txt", "lg-webos-response.txt", "sony-bravia-response.txt", "kodi-notify-alive.txt"})
+    public String fixture;
+
+    private byte[] packet;
+
+    @Setup
+    public void load() {
+        packet = Fixtures.ssdp(fixture);
+    }
+
+    @Benchmark
+    public SsdpMessage parse() {
+        return SsdpParser.parse(packet, 0, packet.length);
+    }
+}
@@ -0,0 +1,177 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Fetches device descriptions for discovery with bounded concurrency. Requests for a
+ * LOCATION already in flight join it instead of opening another connection, and
+ * results are cached per LOCATION: descriptions for ttlMs, failures for failureTtlMs
+ * so a broken device answering every M-SEARCH is not fetched again each time.
+ * <p>
+ * Callbacks run on a fetch thread, or on the caller's thread for a cache hit.
+ */
+public final class DescriptionFetcher {
+    private static final int MAX_CACHED_LOCATIONS = 64;
+    private static final long IDLE_THREAD_KEEP_ALIVE_MS = 30_000;
+
+    public interface Callback {
+        void onDescription(DeviceDescription description);
+
+        void onError(IOException error);
+    }
+
+    private static final class Cached {
+        final DeviceDescription description;
+        final IOException error;
+        final long expiresAtMs;
+
+        Cached(DeviceDescription description, IOException error, long expiresAtMs) {
+            this.description = description;
+            this.error = error;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+
+    private final RendererClient client;
+    private final Executor executor;
+    private final long ttlMs;
+    private final long failureTtlMs;
+    private final LongSupplier clock;
+    // Insertion order doubles as age order for trimming
+    private final Map<String, Cached> cache = new LinkedHashMap<>();
+    private final Map<String, List<Callback>> inFlight = new LinkedHashMap<>();
+
+    /**
+     * At most maxConcurrent descriptions are fetched at once; the rest queue. Idle fetch
+     * threads exit, so a quiet network holds none.
+     */
+    public DescriptionFetcher(RendererClient client, int maxConcurrent, long ttlMs, long failureTtlMs,
+                              LongSupplier clock) {
+        this(client, boundedExecutor(maxConcurrent), ttlMs, failureTtlMs, clock);
+    }
+
+    DescriptionFetcher(RendererClient client, Executor executor, long ttlMs, long failureTtlMs, LongSupplier clock) {
+        this.client = client;
+        this.executor = executor;
+        this.ttlMs = ttlMs;
+        this.failureTtlMs = failureTtlMs;
+        this.clock = clock;
+    }
+
+    public void fetch(String location, Callback callback) {
+        Cached cached;
+        synchronized (this) {
+            cached = cache.get(location);
+            if (cached != null && cached.expiresAtMs <= clock.getAsLong()) {
+                cache.remove(location);
+                cached = null;
+            }
+            if (cached == null) {
+                List<Callback> waiting = inFlight.get(location);
+                if (waiting != null) {
+                    waiting.add(callback);
+                    return;
+                }
+                waiting = new ArrayList<>(2);
+                waiting.add(callback);
+                inFlight.put(location, waiting);
+            }
+        }
+        if (cached != null) {
+            deliver(cached, callback);
+            return;
+        }
+        try {
+            executor.execute(() -> load(location));
+        } catch (RejectedExecutionException e) {
+            complete(location, null, new IOException("Description fetcher is shut down", e));
+        }
+    }
+
+    /**
+     * Drop the cached result for a location, e.g. after the device said byebye
+     */
+    public synchronized void invalidate(String location) {
+        cache.remove(location);
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    synchronized int cachedLocations() {
+        return cache.size();
+    }
+
+    private void load(String location) {
+        try {
+            complete(location, client.describe(location), null);
+        } catch (IOException e) {
+            complete(location, null, e);
+        } catch (RuntimeException e) {
+            // A malformed LOCATION must not leave its waiters stranded
+            complete(location, null, new IOException("Bad description location " + location, e));
+        }
+    }
+
+    private void complete(String location, DeviceDescription description, IOException error) {
+        Cached result;
+        List<Callback> waiting;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            result = new Cached(description, error, now + (description != null ? ttlMs : failureTtlMs));
+            cache.remove(location);
+            cache.put(location, result);
+            trim(now);
+            waiting = inFlight.remove(location);
+        }
+        if (waiting == null) return;
+        for (Callback callback : waiting) {
+            deliver(result, callback);
+        }
+    }
+
+    private void trim(long now) {
+        Iterator<Cached> it = cache.values().iterator();
+        while (it.hasNext()) {
+            Cached cached = it.next();
+            if (cached.expiresAtMs <= now || cache.size() > MAX_CACHED_LOCATIONS) {
+                it.remove();
+            }
+        }
+    }
+
+    private static void deliver(Cached result, Callback callback) {
+        if (result.description != null) {
+            callback.onDescription(result.description);
+        } else {
+            callback.onError(result.error);
+        }
+    }
+
+    private static Executor boundedExecutor(int maxConcurrent) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "dlna-describe-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent,
+            IDLE_THREAD_KEEP_ALIVE_MS, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,35 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+/**
+ * What a renderer's description document says about it. Control URLs are absolute;
+ * fields are null when the document leaves them out.
+ */
+public final class DeviceDescription {
+    public final String location;
+    public final String deviceType;
+    public final String friendlyName;
+    public final String manufacturer;
+    public final String modelName;
+    public final String udn;
+    public final String avTransportControlUrl;
+    public final String renderingControlUrl;
+
+    DeviceDescription(String location, String deviceType, String friendlyName, String manufacturer,
+                      String modelName, String udn, String avTransportControlUrl, String renderingControlUrl) {
+        this.location = location;
+        this.deviceType = deviceType;
+        this.friendlyName = friendlyName;
+        this.manufacturer = manufacturer;
+        this.modelName = modelName;
+        this.udn = udn;
+        this.avTransportControlUrl = avTransportControlUrl;
+        this.renderingControlUrl = renderingControlUrl;
+    }
+
+    /**
+     * Only devices with an AVTransport service can be handed a stream
+     */
+    public boolean canPlayMedia() {
+        return avTransportControlUrl != null;
+    }
+}
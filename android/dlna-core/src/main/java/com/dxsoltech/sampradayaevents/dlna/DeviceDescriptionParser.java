@@ -0,0 +1,79 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+/**
+ * Reads the fields discovery needs from a UPnP device description without building a
+ * DOM. Identity fields come from the root device (before any embedded deviceList);
+ * the AVTransport and RenderingControl services may sit on the root or an embedded
+ * MediaRenderer. Control URLs are resolved against URLBase when present, otherwise
+ * against the description's own location.
+ */
+public final class DeviceDescriptionParser {
+    private static final String AV_TRANSPORT = ":service:AVTransport:";
+    private static final String RENDERING_CONTROL = ":service:RenderingControl:";
+
+    private DeviceDescriptionParser() {}
+
+    /**
+     * Null when the document has no device element
+     */
+    public static DeviceDescription parse(String xml, String location) {
+        int length = xml.length();
+        int device = XmlScanner.findStartTag(xml, "device", 0, length);
+        if (device < 0) return null;
+        int embedded = XmlScanner.findStartTag(xml, "deviceList", device, length);
+        int rootEnd = embedded >= 0 ? embedded : length;
+
+        String deviceType = XmlScanner.text(xml, "deviceType", device, rootEnd);
+        String friendlyName = XmlScanner.text(xml, "friendlyName", device, rootEnd);
+        String manufacturer = XmlScanner.text(xml, "manufacturer", device, rootEnd);
+        String modelName = XmlScanner.text(xml, "modelName", device, rootEnd);
+        String udn = XmlScanner.text(xml, "UDN", device, rootEnd);
+
+        String urlBase = XmlScanner.text(xml, "URLBase", 0, length);
+        String base = urlBase != null && !urlBase.isEmpty() ? urlBase : location;
+
+        String avTransport = null;
+        String renderingControl = null;
+        int pos = device;
+        while (avTransport == null || renderingControl == null) {
+            int service = XmlScanner.findStartTag(xml, "service", pos, length);
+            if (service < 0) break;
+            int serviceEnd = XmlScanner.findEndTag(xml, "service", service, length);
+            if (serviceEnd < 0) break;
+            String serviceType = XmlScanner.text(xml, "serviceType", service, serviceEnd);
+            if (serviceType != null) {
+                if (avTransport == null && serviceType.contains(AV_TRANSPORT)) {
+                    avTransport = resolve(base, XmlScanner.text(xml, "controlURL", service, serviceEnd));
+                } else if (renderingControl == null && serviceType.contains(RENDERING_CONTROL)) {
+                    renderingControl = resolve(base, XmlScanner.text(xml, "controlURL", service, serviceEnd));
+                }
+            }
+            pos = serviceEnd + 1;
+        }
+
+        return new DeviceDescription(location, deviceType, friendlyName, manufacturer, modelName, udn,
+            avTransport, renderingControl);
+    }
+
+    /**
+     * Resolve a control URL: absolute as is, "/path" against the base's origin,
+     * anything else against the base's directory
+     */
+    static String resolve(String base, String reference) {
+        if (reference == null || reference.isEmpty()) return null;
+        if (reference.startsWith("http://") || reference.startsWith("https://")) return reference;
+        if (base == null) return null;
+        int schemeEnd = base.indexOf("://");
+        int pathStart = schemeEnd >= 0 ? base.indexOf('/', schemeEnd + 3) : -1;
+        String origin = pathStart >= 0 ? base.substring(0, pathStart) : base;
+        if (reference.startsWith("/")) {
+            return origin + reference;
+        }
+        if (pathStart < 0) {
+            return origin + "/" + reference;
+        }
+        int query = base.indexOf('?', pathStart);
+        int lastSlash = base.lastIndexOf('/', query >= 0 ? query : base.length() - 1);
+        return base.substring(0, lastSlash + 1) + reference;
+    }
+}
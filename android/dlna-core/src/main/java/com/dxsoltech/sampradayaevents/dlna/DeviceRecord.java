@@ -0,0 +1,149 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A renderer remembered across app launches: enough to list it in the picker and
+ * drive it, plus when it was last confirmed on the LAN. Records are stored as one
+ * compact tab-separated line each.
+ */
+public final class DeviceRecord {
+    public static final int CAPABILITY_AV_TRANSPORT = 1;
+    public static final int CAPABILITY_RENDERING_CONTROL = 1 << 1;
+
+    private static final String FORMAT_VERSION = "dlna-devices/1";
+    private static final int FIELD_COUNT = 7;
+
+    public final String udn;
+    public final String name;
+    public final String manufacturer;
+    public final String location;
+    public final String controlUrl;
+    public final int capabilities;
+    // Wall-clock ms
+    public final long lastSeenMs;
+
+    public DeviceRecord(String udn, String name, String manufacturer, String location, String controlUrl,
+                        int capabilities, long lastSeenMs) {
+        this.udn = udn;
+        this.name = name;
+        this.manufacturer = manufacturer;
+        this.location = location;
+        this.controlUrl = controlUrl;
+        this.capabilities = capabilities;
+        this.lastSeenMs = lastSeenMs;
+    }
+
+    /**
+     * Null when the description has no UDN to key the record on
+     */
+    public static DeviceRecord from(DeviceDescription description, long nowMs) {
+        if (description.udn == null || description.udn.isEmpty()) return null;
+        int capabilities = 0;
+        if (description.avTransportControlUrl != null) capabilities |= CAPABILITY_AV_TRANSPORT;
+        if (description.renderingControlUrl != null) capabilities |= CAPABILITY_RENDERING_CONTROL;
+        return new DeviceRecord(description.udn, description.friendlyName, description.manufacturer,
+            description.location, description.avTransportControlUrl, capabilities, nowMs);
+    }
+
+    public boolean has(int capability) {
+        return (capabilities & capability) == capability;
+    }
+
+    public static String encodeAll(Collection<DeviceRecord> records) {
+        StringBuilder out = new StringBuilder(64 + records.size() * 192);
+        out.append(FORMAT_VERSION).append('\n');
+        for (DeviceRecord record : records) {
+            appendField(out, record.udn).append('\t');
+            appendField(out, record.name).append('\t');
+            appendField(out, record.manufacturer).append('\t');
+            appendField(out, record.location).append('\t');
+            appendField(out, record.controlUrl).append('\t');
+            out.append(record.capabilities).append('\t');
+            out.append(record.lastSeenMs).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Records in stored order. Unknown versions decode to nothing and malformed
+     * lines are skipped, so a bad store costs one rediscovery rather than a crash.
+     */
+    public static List<DeviceRecord> decodeAll(String encoded) {
+        if (encoded == null || !encoded.startsWith(FORMAT_VERSION + "\n")) return Collections.emptyList();
+        List<DeviceRecord> records = new ArrayList<>();
+        String[] fields = new String[FIELD_COUNT];
+        int pos = FORMAT_VERSION.length() + 1;
+        while (pos < encoded.length()) {
+            int lineEnd = encoded.indexOf('\n', pos);
+            if (lineEnd < 0) lineEnd = encoded.length();
+            DeviceRecord record = decodeLine(encoded, pos, lineEnd, fields);
+            if (record != null) records.add(record);
+            pos = lineEnd + 1;
+        }
+        return records;
+    }
+
+    private static DeviceRecord decodeLine(String encoded, int start, int end, String[] fields) {
+        int count = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end && count < FIELD_COUNT; i++) {
+            if (i == end || encoded.charAt(i) == '\t') {
+                fields[count++] = encoded.substring(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        if (count != FIELD_COUNT || fieldStart <= end) return null;
+        try {
+            String udn = unescapeField(fields[0]);
+            if (udn == null) return null;
+            return new DeviceRecord(udn, unescapeField(fields[1]), unescapeField(fields[2]),
+                unescapeField(fields[3]), unescapeField(fields[4]),
+                Integer.parseInt(fields[5]), Long.parseLong(fields[6]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Null is stored as a lone backslash; tab, newline and backslash are escaped
+     */
+    private static StringBuilder appendField(StringBuilder out, String value) {
+        if (value == null) return out.append('\\');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': out.append("\\\\"); break;
+                case '\t': out.append("\\t"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                default: out.append(c); break;
+            }
+        }
+        return out;
+    }
+
+    private static String unescapeField(String field) {
+        if (field.equals("\\")) return null;
+        if (field.indexOf('\\') < 0) return field;
+        StringBuilder out = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c != '\\' || i + 1 == field.length()) {
+                out.append(c);
+                continue;
+            }
+            char escaped = field.charAt(++i);
+            switch (escaped) {
+                case 't': out.append('\t'); break;
+                case 'n': out.append('\n'); break;
+                case 'r': out.append('\r'); break;
+                default: out.append(escaped); break;
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,167 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live table of renderers on the LAN, fed by search responses and NOTIFY announcements.
+ * Devices are keyed by UDN and dropped on ssdp:byebye or when their CACHE-CONTROL
+ * max-age runs out without another announcement. Each entry carries a value of the
+ * caller's choosing (the parsed device) once its description has been fetched.
+ * <p>
+ * Thread-safe. Listener callbacks run on the calling thread, outside the table lock.
+ */
+public final class DeviceTable<T> {
+    // UDA default when a device leaves out CACHE-CONTROL
+    public static final int DEFAULT_MAX_AGE_SECONDS = 1800;
+
+    public interface Listener<T> {
+        /**
+         * A new device, or a known one at a new LOCATION: its description needs fetching
+         */
+        void onDeviceSeen(Entry<T> entry);
+
+        /**
+         * Said byebye or expired; value is whatever was attached, possibly null
+         */
+        void onDeviceGone(Entry<T> entry);
+    }
+
+    public static final class Entry<T> {
+        public final String udn;
+        public final String location;
+        private long expiresAtMs;
+        private T value;
+
+        Entry(String udn, String location, long expiresAtMs) {
+            this.udn = udn;
+            this.location = location;
+            this.expiresAtMs = expiresAtMs;
+        }
+
+        public synchronized long expiresAtMs() {
+            return expiresAtMs;
+        }
+
+        public synchronized T value() {
+            return value;
+        }
+    }
+
+    private final Listener<T> listener;
+    private final String[] targets;
+    private final Map<String, Entry<T>> entries = new LinkedHashMap<>();
+
+    /**
+     * Only alive messages for one of targets (NT/ST) add devices; any announcement
+     * from a known device keeps it alive
+     */
+    public DeviceTable(Listener<T> listener, String... targets) {
+        this.listener = listener;
+        this.targets = targets;
+    }
+
+    public void observe(SsdpMessage message, long nowMs) {
+        if (message == null) return;
+        String udn = message.udn();
+        if (udn == null) return;
+
+        Entry<T> seen = null;
+        Entry<T> gone = null;
+        synchronized (this) {
+            Entry<T> entry = entries.get(udn);
+            if (message.isByeBye()) {
+                gone = entries.remove(udn);
+            } else if (message.isAlive()) {
+                int maxAge = message.maxAgeSeconds >= 0 ? message.maxAgeSeconds : DEFAULT_MAX_AGE_SECONDS;
+                long expiresAtMs = nowMs + maxAge * 1000L;
+                if (entry != null && (message.location == null || message.location.equals(entry.location))) {
+                    synchronized (entry) {
+                        entry.expiresAtMs = Math.max(entry.expiresAtMs, expiresAtMs);
+                    }
+                } else if (message.location != null && (entry != null || isTarget(message.target))) {
+                    // New device, or it came back on another address: start over from its description
+                    seen = new Entry<>(udn, message.location, expiresAtMs);
+                    entries.put(udn, seen);
+                }
+            }
+        }
+        if (gone != null) listener.onDeviceGone(gone);
+        if (seen != null) listener.onDeviceSeen(seen);
+    }
+
+    /**
+     * Drop every entry whose max-age ran out before nowMs
+     */
+    public void expire(long nowMs) {
+        List<Entry<T>> expired = null;
+        synchronized (this) {
+            Iterator<Entry<T>> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry<T> entry = it.next();
+                if (entry.expiresAtMs() <= nowMs) {
+                    it.remove();
+                    if (expired == null) expired = new ArrayList<>();
+                    expired.add(entry);
+                }
+            }
+        }
+        if (expired == null) return;
+        for (Entry<T> entry : expired) {
+            listener.onDeviceGone(entry);
+        }
+    }
+
+    /**
+     * Attach the value for an entry. False, and nothing stored, when the device has
+     * since gone or moved, so a late description fetch can't resurrect it.
+     */
+    public boolean attach(Entry<T> entry, T value) {
+        synchronized (this) {
+            if (entries.get(entry.udn) != entry) return false;
+        }
+        synchronized (entry) {
+            entry.value = value;
+        }
+        return true;
+    }
+
+    /**
+     * Forget an entry without notifying, e.g. when its description could not be
+     * fetched; the device's next announcement then counts as new and retries
+     */
+    public synchronized void discard(Entry<T> entry) {
+        if (entries.get(entry.udn) == entry) {
+            entries.remove(entry.udn);
+        }
+    }
+
+    /**
+     * Attached values in discovery order
+     */
+    public synchronized List<T> values() {
+        if (entries.isEmpty()) return Collections.emptyList();
+        List<T> values = new ArrayList<>(entries.size());
+        for (Entry<T> entry : entries.values()) {
+            T value = entry.value();
+            if (value != null) values.add(value);
+        }
+        return values;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private boolean isTarget(String target) {
+        if (target == null) return false;
+        for (String candidate : targets) {
+            if (candidate.equals(target)) return true;
+        }
+        return false;
+    }
+}
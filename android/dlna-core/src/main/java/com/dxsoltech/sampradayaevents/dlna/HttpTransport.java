@@ -0,0 +1,22 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.io.IOException;
+
+/**
+ * HTTP used by RendererClient: OkHttp on Android, HttpURLConnection elsewhere
+ */
+public interface HttpTransport {
+    final class Result {
+        public final int status;
+        public final String body;
+
+        public Result(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    Result get(String url) throws IOException;
+
+    Result postSoap(String url, String soapAction, String body) throws IOException;
+}
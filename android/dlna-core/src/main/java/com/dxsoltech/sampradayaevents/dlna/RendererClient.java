@@ -0,0 +1,49 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.io.IOException;
+
+/**
+ * Describes and drives a DLNA renderer over a pluggable HTTP transport
+ */
+public final class RendererClient {
+    private final HttpTransport transport;
+
+    public RendererClient(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Fetch and parse the description document at an SSDP LOCATION
+     */
+    public DeviceDescription describe(String location) throws IOException {
+        HttpTransport.Result response = transport.get(location);
+        if (response.status != 200 || response.body == null) {
+            throw new IOException("Device description HTTP " + response.status + " from " + location);
+        }
+        DeviceDescription description = DeviceDescriptionParser.parse(response.body, location);
+        if (description == null) {
+            throw new IOException("No device in description from " + location);
+        }
+        return description;
+    }
+
+    public SoapResult setAvTransportUri(String controlUrl, String uri, String metadata) throws IOException {
+        return invoke(controlUrl, "SetAVTransportURI", SoapEnvelopes.setAvTransportUri(uri, metadata));
+    }
+
+    public SoapResult play(String controlUrl) throws IOException {
+        return invoke(controlUrl, "Play", SoapEnvelopes.play());
+    }
+
+    public SoapResult pause(String controlUrl) throws IOException {
+        return invoke(controlUrl, "Pause", SoapEnvelopes.pause());
+    }
+
+    public SoapResult stop(String controlUrl) throws IOException {
+        return invoke(controlUrl, "Stop", SoapEnvelopes.stop());
+    }
+
+    private SoapResult invoke(String controlUrl, String action, String envelope) throws IOException {
+        return SoapResult.from(transport.postSoap(controlUrl, SoapEnvelopes.soapAction(action), envelope));
+    }
+}
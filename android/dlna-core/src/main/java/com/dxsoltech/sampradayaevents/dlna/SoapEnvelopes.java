@@ -0,0 +1,67 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+/**
+ * SOAP requests for the AVTransport actions the app sends. Envelopes without
+ * arguments are built once; SetAVTransportURI is written into one presized builder.
+ */
+public final class SoapEnvelopes {
+    public static final String AV_TRANSPORT_SERVICE = "urn:schemas-upnp-org:service:AVTransport:1";
+    public static final String CONTENT_TYPE = "text/xml; charset=\"utf-8\"";
+
+    private static final String ENVELOPE_START =
+        "<?xml version=\"1.0\" encoding=\"utf-8\"?>" +
+        "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\" s:encodingStyle=\"http://schemas.xmlsoap.org/soap/encoding/\">" +
+        "<s:Body>";
+    private static final String ENVELOPE_END = "</s:Body></s:Envelope>";
+
+    private static final String PLAY = action("Play", "<InstanceID>0</InstanceID><Speed>1</Speed>");
+    private static final String PAUSE = action("Pause", "<InstanceID>0</InstanceID>");
+    private static final String STOP = action("Stop", "<InstanceID>0</InstanceID>");
+
+    private SoapEnvelopes() {}
+
+    /**
+     * SOAPACTION header value for an AVTransport action
+     */
+    public static String soapAction(String action) {
+        return "\"" + AV_TRANSPORT_SERVICE + "#" + action + "\"";
+    }
+
+    /**
+     * metadata is DIDL-Lite XML or empty; both values are escaped here
+     */
+    public static String setAvTransportUri(String uri, String metadata) {
+        String meta = metadata != null ? metadata : "";
+        StringBuilder out = new StringBuilder(ENVELOPE_START.length() + ENVELOPE_END.length() + 192
+            + uri.length() + meta.length() * 5 / 4);
+        out.append(ENVELOPE_START)
+            .append("<u:SetAVTransportURI xmlns:u=\"").append(AV_TRANSPORT_SERVICE).append("\">")
+            .append("<InstanceID>0</InstanceID>")
+            .append("<CurrentURI>");
+        XmlScanner.appendEscaped(out, uri);
+        out.append("</CurrentURI><CurrentURIMetaData>");
+        XmlScanner.appendEscaped(out, meta);
+        out.append("</CurrentURIMetaData></u:SetAVTransportURI>").append(ENVELOPE_END);
+        return out.toString();
+    }
+
+    public static String play() {
+        return PLAY;
+    }
+
+    public static String pause() {
+        return PAUSE;
+    }
+
+    public static String stop() {
+        return STOP;
+    }
+
+    private static String action(String name, String arguments) {
+        return ENVELOPE_START
+            + "<u:" + name + " xmlns:u=\"" + AV_TRANSPORT_SERVICE + "\">"
+            + arguments
+            + "</u:" + name + ">"
+            + ENVELOPE_END;
+    }
+}
@@ -0,0 +1,45 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+/**
+ * Outcome of one AVTransport action. A renderer that rejects an action answers
+ * HTTP 500 with a UPnPError code (e.g. 714 illegal MIME type, 716 resource not found).
+ */
+public final class SoapResult {
+    public final int httpStatus;
+    // -1 when the response carried no UPnPError
+    public final int upnpErrorCode;
+    public final String upnpErrorDescription;
+
+    SoapResult(int httpStatus, int upnpErrorCode, String upnpErrorDescription) {
+        this.httpStatus = httpStatus;
+        this.upnpErrorCode = upnpErrorCode;
+        this.upnpErrorDescription = upnpErrorDescription;
+    }
+
+    public boolean isSuccess() {
+        return httpStatus == 200;
+    }
+
+    static SoapResult from(HttpTransport.Result response) {
+        if (response.status == 200 || response.body == null) {
+            return new SoapResult(response.status, -1, null);
+        }
+        String body = response.body;
+        int code = -1;
+        String errorCode = XmlScanner.text(body, "errorCode", 0, body.length());
+        if (errorCode != null) {
+            try {
+                code = Integer.parseInt(errorCode);
+            } catch (NumberFormatException ignored) {
+                // Keep -1
+            }
+        }
+        return new SoapResult(response.status, code, XmlScanner.text(body, "errorDescription", 0, body.length()));
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "OK" : "HTTP " + httpStatus
+            + (upnpErrorCode >= 0 ? " UPnPError " + upnpErrorCode + " " + upnpErrorDescription : "");
+    }
+}
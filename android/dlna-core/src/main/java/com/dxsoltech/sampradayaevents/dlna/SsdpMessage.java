@@ -0,0 +1,59 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+/**
+ * Headers of one SSDP datagram that discovery acts on. Fields are null (or -1 for
+ * maxAgeSeconds) when the header is missing.
+ */
+public final class SsdpMessage {
+    public enum Kind {
+        // Unicast answer to our M-SEARCH
+        RESPONSE,
+        // Multicast ssdp:alive / ssdp:byebye / ssdp:update announcement
+        NOTIFY,
+        // Another control point searching
+        SEARCH
+    }
+
+    public static final String NTS_ALIVE = "ssdp:alive";
+    public static final String NTS_BYEBYE = "ssdp:byebye";
+    public static final String NTS_UPDATE = "ssdp:update";
+
+    public final Kind kind;
+    public final String location;
+    public final String usn;
+    // ST for responses and searches, NT for notifications
+    public final String target;
+    // NTS, notifications only
+    public final String notificationSubType;
+    public final String server;
+    // CACHE-CONTROL max-age
+    public final int maxAgeSeconds;
+
+    SsdpMessage(Kind kind, String location, String usn, String target, String notificationSubType,
+                String server, int maxAgeSeconds) {
+        this.kind = kind;
+        this.location = location;
+        this.usn = usn;
+        this.target = target;
+        this.notificationSubType = notificationSubType;
+        this.server = server;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    public boolean isAlive() {
+        return kind == Kind.RESPONSE || (kind == Kind.NOTIFY && NTS_ALIVE.equals(notificationSubType));
+    }
+
+    public boolean isByeBye() {
+        return kind == Kind.NOTIFY && NTS_BYEBYE.equals(notificationSubType);
+    }
+
+    /**
+     * Device UDN from the USN ("uuid:...::urn:..." -> "uuid:..."), null without a USN
+     */
+    public String udn() {
+        if (usn == null) return null;
+        int separator = usn.indexOf("::");
+        return separator >= 0 ? usn.substring(0, separator) : usn;
+    }
+}
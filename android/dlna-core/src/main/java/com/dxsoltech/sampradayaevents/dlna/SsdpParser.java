@@ -0,0 +1,150 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses SSDP datagrams straight from the receive buffer. Header names are matched
+ * in place, so the only allocations are the strings of the headers discovery keeps
+ * and the message itself; unknown headers and the rest of the packet cost nothing.
+ * Accepts CRLF and bare LF line endings, as some renderers send the latter.
+ */
+public final class SsdpParser {
+    private SsdpParser() {}
+
+    /**
+     * Null when the datagram is not an SSDP response, NOTIFY or M-SEARCH
+     */
+    public static SsdpMessage parse(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int lineEnd = lineEnd(data, offset, end);
+        SsdpMessage.Kind kind;
+        if (startsWith(data, offset, lineEnd, "HTTP/1.1 200") || startsWith(data, offset, lineEnd, "HTTP/1.0 200")) {
+            kind = SsdpMessage.Kind.RESPONSE;
+        } else if (startsWith(data, offset, lineEnd, "NOTIFY ")) {
+            kind = SsdpMessage.Kind.NOTIFY;
+        } else if (startsWith(data, offset, lineEnd, "M-SEARCH ")) {
+            kind = SsdpMessage.Kind.SEARCH;
+        } else {
+            return null;
+        }
+
+        String location = null;
+        String usn = null;
+        String target = null;
+        String notificationSubType = null;
+        String server = null;
+        int maxAgeSeconds = -1;
+
+        int pos = nextLine(data, lineEnd, end);
+        while (pos < end) {
+            lineEnd = lineEnd(data, pos, end);
+            if (lineEnd == pos) break;
+            int colon = indexOf(data, pos, lineEnd, (byte) ':');
+            if (colon > pos) {
+                int nameEnd = trimEnd(data, pos, colon);
+                int valueStart = skipSpaces(data, colon + 1, lineEnd);
+                int valueEnd = trimEnd(data, valueStart, lineEnd);
+                if (nameEquals(data, pos, nameEnd, "LOCATION")) {
+                    location = string(data, valueStart, valueEnd);
+                } else if (nameEquals(data, pos, nameEnd, "USN")) {
+                    usn = string(data, valueStart, valueEnd);
+                } else if (nameEquals(data, pos, nameEnd, "ST") || nameEquals(data, pos, nameEnd, "NT")) {
+                    target = string(data, valueStart, valueEnd);
+                } else if (nameEquals(data, pos, nameEnd, "NTS")) {
+                    notificationSubType = string(data, valueStart, valueEnd);
+                } else if (nameEquals(data, pos, nameEnd, "SERVER")) {
+                    server = string(data, valueStart, valueEnd);
+                } else if (nameEquals(data, pos, nameEnd, "CACHE-CONTROL")) {
+                    maxAgeSeconds = parseMaxAge(data, valueStart, valueEnd);
+                }
+            }
+            pos = nextLine(data, lineEnd, end);
+        }
+        return new SsdpMessage(kind, location, usn, target, notificationSubType, server, maxAgeSeconds);
+    }
+
+    public static SsdpMessage parse(byte[] data) {
+        return parse(data, 0, data.length);
+    }
+
+    /**
+     * "max-age = 1800" anywhere in the value, -1 if absent
+     */
+    private static int parseMaxAge(byte[] data, int start, int end) {
+        String key = "MAX-AGE";
+        for (int i = start; i + key.length() <= end; i++) {
+            if (!nameEquals(data, i, i + key.length(), key)) continue;
+            int pos = skipSpaces(data, i + key.length(), end);
+            if (pos >= end || data[pos] != '=') return -1;
+            pos = skipSpaces(data, pos + 1, end);
+            int value = 0;
+            int digits = 0;
+            while (pos < end && data[pos] >= '0' && data[pos] <= '9' && digits < 9) {
+                value = value * 10 + (data[pos] - '0');
+                pos++;
+                digits++;
+            }
+            return digits > 0 ? value : -1;
+        }
+        return -1;
+    }
+
+    private static int lineEnd(byte[] data, int pos, int end) {
+        while (pos < end && data[pos] != '\r' && data[pos] != '\n') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int nextLine(byte[] data, int lineEnd, int end) {
+        if (lineEnd < end && data[lineEnd] == '\r') lineEnd++;
+        if (lineEnd < end && data[lineEnd] == '\n') lineEnd++;
+        return lineEnd;
+    }
+
+    private static int indexOf(byte[] data, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (data[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(byte[] data, int pos, int end) {
+        while (pos < end && (data[pos] == ' ' || data[pos] == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int trimEnd(byte[] data, int start, int end) {
+        while (end > start && (data[end - 1] == ' ' || data[end - 1] == '\t')) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean startsWith(byte[] data, int start, int end, String prefix) {
+        if (end - start < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[start + i] != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * ASCII case-insensitive comparison against an upper-case name
+     */
+    private static boolean nameEquals(byte[] data, int start, int end, String upperName) {
+        if (end - start != upperName.length()) return false;
+        for (int i = 0; i < upperName.length(); i++) {
+            int b = data[start + i];
+            if (b >= 'a' && b <= 'z') b -= 'a' - 'A';
+            if (b != upperName.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static String string(byte[] data, int start, int end) {
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+}
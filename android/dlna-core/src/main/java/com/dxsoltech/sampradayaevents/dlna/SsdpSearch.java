@@ -0,0 +1,41 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SSDP addressing and M-SEARCH requests
+ */
+public final class SsdpSearch {
+    public static final String MULTICAST_ADDRESS = "239.255.255.250";
+    public static final int PORT = 1900;
+    public static final String ST_AV_TRANSPORT = "urn:schemas-upnp-org:service:AVTransport:1";
+    public static final String ST_MEDIA_RENDERER = "urn:schemas-upnp-org:device:MediaRenderer:1";
+    // Steady-state re-search; NOTIFY announcements carry liveness in between
+    public static final long REFRESH_INTERVAL_MS = 120_000;
+
+    private SsdpSearch() {}
+
+    /**
+     * M-SEARCH for a search target; renderers answer within mxSeconds (1-5)
+     */
+    public static byte[] build(String searchTarget, int mxSeconds) {
+        String message =
+            "M-SEARCH * HTTP/1.1\r\n" +
+            "HOST: " + MULTICAST_ADDRESS + ":" + PORT + "\r\n" +
+            "MAN: \"ssdp:discover\"\r\n" +
+            "MX: " + Math.max(1, Math.min(5, mxSeconds)) + "\r\n" +
+            "ST: " + searchTarget + "\r\n" +
+            "\r\n";
+        return message.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Delay after the searchesSent-th M-SEARCH of a round: two quick repeats cover UDP
+     * loss, then REFRESH_INTERVAL_MS. jitter in [0, 1) stretches each delay by up to a
+     * quarter so control points started together don't search in lockstep.
+     */
+    public static long searchDelayMs(int searchesSent, double jitter) {
+        long base = searchesSent <= 2 ? 1000L * Math.max(1, searchesSent) : REFRESH_INTERVAL_MS;
+        return base + (long) (base * 0.25 * jitter);
+    }
+}
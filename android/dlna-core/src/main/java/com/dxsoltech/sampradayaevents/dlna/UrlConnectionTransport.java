@@ -0,0 +1,73 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HttpTransport on HttpURLConnection, for running the protocol code off-device
+ */
+public final class UrlConnectionTransport implements HttpTransport {
+    private final int timeoutMs;
+
+    public UrlConnectionTransport(int timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public Result get(String url) throws IOException {
+        HttpURLConnection connection = open(url);
+        try {
+            return read(connection);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public Result postSoap(String url, String soapAction, String body) throws IOException {
+        HttpURLConnection connection = open(url);
+        try {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", SoapEnvelopes.CONTENT_TYPE);
+            connection.setRequestProperty("SOAPACTION", soapAction);
+            connection.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+            return read(connection);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(timeoutMs);
+        connection.setReadTimeout(timeoutMs);
+        return connection;
+    }
+
+    private static Result read(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        InputStream stream = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (stream == null) {
+            return new Result(status, null);
+        }
+        try (InputStream in = stream) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new Result(status, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+}
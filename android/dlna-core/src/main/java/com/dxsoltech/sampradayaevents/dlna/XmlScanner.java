@@ -0,0 +1,151 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+/**
+ * Forward-only element lookup over the small, flat XML documents UPnP devices serve.
+ * Works on indexes into the original string: the only strings created are the text
+ * values asked for. Namespace prefixes on element names are ignored.
+ */
+final class XmlScanner {
+    private XmlScanner() {}
+
+    /**
+     * Index of the '<' of the first start tag named name in [from, to), or -1
+     */
+    static int findStartTag(String xml, String name, int from, int to) {
+        int pos = from;
+        while (pos < to) {
+            int index = xml.indexOf(name, pos);
+            if (index < 0 || index + name.length() > to) return -1;
+            pos = index + 1;
+            if (!isNameEnd(xml, index + name.length())) continue;
+            int open = tagOpen(xml, index);
+            if (open >= from && xml.charAt(open + 1) != '/' && xml.charAt(open + 1) != '?') {
+                return open;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Index of the '<' of the first end tag named name in [from, to), or -1
+     */
+    static int findEndTag(String xml, String name, int from, int to) {
+        int pos = from;
+        while (pos < to) {
+            int index = xml.indexOf(name, pos);
+            if (index < 0 || index + name.length() > to) return -1;
+            pos = index + 1;
+            if (!isNameEnd(xml, index + name.length())) continue;
+            int open = tagOpen(xml, index);
+            if (open >= from && xml.charAt(open + 1) == '/') {
+                return open;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Trimmed, unescaped text of the first element named name in [from, to), or null
+     */
+    static String text(String xml, String name, int from, int to) {
+        int tag = findStartTag(xml, name, from, to);
+        if (tag < 0) return null;
+        int close = xml.indexOf('>', tag);
+        if (close < 0 || close >= to) return null;
+        if (xml.charAt(close - 1) == '/') return "";
+        int start = close + 1;
+        int end = xml.indexOf('<', start);
+        if (end < 0 || end > to) end = to;
+        while (start < end && Character.isWhitespace(xml.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(xml.charAt(end - 1))) end--;
+        return unescape(xml.substring(start, end));
+    }
+
+    /**
+     * Start of the tag holding the name at index: '<' directly, or '<prefix:'
+     */
+    private static int tagOpen(String xml, int nameIndex) {
+        int i = nameIndex - 1;
+        if (i < 0) return -1;
+        if (xml.charAt(i) == '<') return i;
+        if (i > 0 && xml.charAt(i) == '/' && xml.charAt(i - 1) == '<') return i - 1;
+        if (xml.charAt(i) != ':') return -1;
+        i--;
+        while (i >= 0 && isNameChar(xml.charAt(i))) i--;
+        if (i < 0) return -1;
+        if (xml.charAt(i) == '<') return i;
+        if (xml.charAt(i) == '/' && i > 0 && xml.charAt(i - 1) == '<') return i - 1;
+        return -1;
+    }
+
+    private static boolean isNameEnd(String xml, int index) {
+        if (index >= xml.length()) return false;
+        char c = xml.charAt(index);
+        return c == '>' || c == '/' || c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-' || c == '.';
+    }
+
+    static String unescape(String text) {
+        int amp = text.indexOf('&');
+        if (amp < 0) return text;
+        StringBuilder out = new StringBuilder(text.length());
+        out.append(text, 0, amp);
+        int i = amp;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int semicolon = c == '&' ? text.indexOf(';', i) : -1;
+            if (semicolon < 0 || semicolon - i > 10) {
+                out.append(c);
+                i++;
+                continue;
+            }
+            String entity = text.substring(i + 1, semicolon);
+            switch (entity) {
+                case "amp": out.append('&'); break;
+                case "lt": out.append('<'); break;
+                case "gt": out.append('>'); break;
+                case "quot": out.append('"'); break;
+                case "apos": out.append('\''); break;
+                default:
+                    int codePoint = parseCharReference(entity);
+                    if (codePoint < 0) {
+                        out.append(text, i, semicolon + 1);
+                    } else {
+                        out.appendCodePoint(codePoint);
+                    }
+                    break;
+            }
+            i = semicolon + 1;
+        }
+        return out.toString();
+    }
+
+    private static int parseCharReference(String entity) {
+        if (entity.length() < 2 || entity.charAt(0) != '#') return -1;
+        try {
+            int codePoint = entity.charAt(1) == 'x' || entity.charAt(1) == 'X'
+                ? Integer.parseInt(entity.substring(2), 16)
+                : Integer.parseInt(entity.substring(1));
+            return Character.isValidCodePoint(codePoint) ? codePoint : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static void appendEscaped(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&': out.append("&amp;"); break;
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '"': out.append("&quot;"); break;
+                case '\'': out.append("&apos;"); break;
+                default: out.append(c); break;
+            }
+        }
+    }
+}
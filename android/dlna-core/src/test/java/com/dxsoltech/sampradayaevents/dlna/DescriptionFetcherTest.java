@@ -0,0 +1,182 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class DescriptionFetcherTest {
+    private static final String SAMSUNG = "http://192.168.1.23:9197/dmr";
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private long now = 0;
+    private final List<Object> results = new ArrayList<>();
+
+    private final HttpTransport transport = new HttpTransport() {
+        @Override
+        public Result get(String url) {
+            requests.incrementAndGet();
+            if (url.contains("broken")) return new Result(500, null);
+            return new Result(200, Fixtures.description("samsung-tizen.xml"));
+        }
+
+        @Override
+        public Result postSoap(String url, String soapAction, String body) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private final DescriptionFetcher fetcher = new DescriptionFetcher(
+        new RendererClient(transport), tasks::add, 60_000, 5_000, () -> now);
+
+    private final DescriptionFetcher.Callback recorder = new DescriptionFetcher.Callback() {
+        @Override
+        public void onDescription(DeviceDescription description) {
+            results.add(description);
+        }
+
+        @Override
+        public void onError(IOException error) {
+            results.add(error);
+        }
+    };
+
+    @Test
+    public void concurrentRequestsForOneLocationShareAFetch() {
+        fetcher.fetch(SAMSUNG, recorder);
+        fetcher.fetch(SAMSUNG, recorder);
+        fetcher.fetch(SAMSUNG, recorder);
+
+        assertEquals(1, tasks.size());
+        runAll();
+        assertEquals(1, requests.get());
+        assertEquals(3, results.size());
+        assertTrue(results.get(2) instanceof DeviceDescription);
+    }
+
+    @Test
+    public void servesCachedDescriptionUntilExpiry() {
+        fetcher.fetch(SAMSUNG, recorder);
+        runAll();
+
+        now = 59_999;
+        fetcher.fetch(SAMSUNG, recorder);
+        assertTrue(tasks.isEmpty());
+        assertEquals(2, results.size());
+
+        now = 60_000;
+        fetcher.fetch(SAMSUNG, recorder);
+        runAll();
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void cachesFailuresBriefly() {
+        fetcher.fetch("http://192.168.1.66/broken.xml", recorder);
+        runAll();
+        fetcher.fetch("http://192.168.1.66/broken.xml", recorder);
+
+        assertEquals(1, requests.get());
+        assertTrue(results.get(1) instanceof IOException);
+
+        now = 5_000;
+        fetcher.fetch("http://192.168.1.66/broken.xml", recorder);
+        runAll();
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void invalidateForcesRefetch() {
+        fetcher.fetch(SAMSUNG, recorder);
+        runAll();
+
+        fetcher.invalidate(SAMSUNG);
+        fetcher.fetch(SAMSUNG, recorder);
+        runAll();
+
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void transportRuntimeFailureReachesCallback() {
+        DescriptionFetcher throwing = new DescriptionFetcher(new RendererClient(new HttpTransport() {
+            @Override
+            public Result get(String url) {
+                throw new IllegalArgumentException("unexpected url " + url);
+            }
+
+            @Override
+            public Result postSoap(String url, String soapAction, String body) {
+                throw new UnsupportedOperationException();
+            }
+        }), tasks::add, 60_000, 5_000, () -> now);
+
+        throwing.fetch("not a url", recorder);
+        runAll();
+
+        assertEquals(1, results.size());
+        assertTrue(results.get(0) instanceof IOException);
+    }
+
+    @Test
+    public void boundsConcurrentFetches() throws InterruptedException {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+        HttpTransport slow = new HttpTransport() {
+            @Override
+            public Result get(String url) {
+                peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                active.decrementAndGet();
+                return new Result(200, Fixtures.description("kodi.xml"));
+            }
+
+            @Override
+            public Result postSoap(String url, String soapAction, String body) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        DescriptionFetcher bounded = new DescriptionFetcher(new RendererClient(slow), 2, 60_000, 5_000,
+            System::currentTimeMillis);
+        DescriptionFetcher.Callback countDown = new DescriptionFetcher.Callback() {
+            @Override
+            public void onDescription(DeviceDescription description) {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(IOException error) {
+                done.countDown();
+            }
+        };
+
+        for (int i = 0; i < 8; i++) {
+            bounded.fetch("http://192.168.1." + (100 + i) + ":1673/", countDown);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, peak.get());
+        assertEquals(8, bounded.cachedLocations());
+    }
+
+    private void runAll() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
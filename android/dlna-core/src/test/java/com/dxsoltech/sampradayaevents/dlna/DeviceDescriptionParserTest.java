@@ -0,0 +1,98 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DeviceDescriptionParserTest {
+    @Test
+    public void parsesSamsungTizen() {
+        DeviceDescription device = DeviceDescriptionParser.parse(
+            Fixtures.description("samsung-tizen.xml"), "http://192.168.1.23:9197/dmr");
+
+        assertEquals("urn:schemas-upnp-org:device:MediaRenderer:1", device.deviceType);
+        assertEquals("[TV] Samsung Q60 Series (55)", device.friendlyName);
+        assertEquals("Samsung Electronics", device.manufacturer);
+        assertEquals("QE55Q60TAUXXU", device.modelName);
+        assertEquals("uuid:0a8e9b46-00ab-1000-a7c3-5c497d1ea3b1", device.udn);
+        assertEquals("http://192.168.1.23:9197/upnp/control/AVTransport1", device.avTransportControlUrl);
+        assertEquals("http://192.168.1.23:9197/upnp/control/RenderingControl1", device.renderingControlUrl);
+        assertTrue(device.canPlayMedia());
+    }
+
+    @Test
+    public void resolvesRelativeControlUrlsAgainstLocation() {
+        DeviceDescription device = DeviceDescriptionParser.parse(
+            Fixtures.description("lg-webos.xml"), "http://192.168.1.41:1527/");
+
+        assertEquals("[LG] webOS TV OLED55C1", device.friendlyName);
+        assertEquals("http://192.168.1.41:1527/AVTransport/3d8b2f70-5e4c-a2b1-8c9f-60ab14f0c2d1/control.xml",
+            device.avTransportControlUrl);
+        assertEquals("http://192.168.1.41:1527/RenderingControl/3d8b2f70-5e4c-a2b1-8c9f-60ab14f0c2d1/control.xml",
+            device.renderingControlUrl);
+    }
+
+    @Test
+    public void ignoresNamespacedVendorElements() {
+        DeviceDescription device = DeviceDescriptionParser.parse(
+            Fixtures.description("sony-bravia.xml"), "http://192.168.1.57:52323/dmr.xml");
+
+        assertEquals("KDL-50W805C", device.friendlyName);
+        assertEquals("Sony Corporation", device.manufacturer);
+        assertEquals("http://192.168.1.57:52323/upnp/control/AVTransport", device.avTransportControlUrl);
+    }
+
+    @Test
+    public void prefersUrlBaseAndUnescapesText() {
+        DeviceDescription device = DeviceDescriptionParser.parse(
+            Fixtures.description("kodi.xml"), "http://192.168.1.80:1673/description.xml");
+
+        assertEquals("Kodi (Living Room & Kitchen)", device.friendlyName);
+        assertEquals("XBMC Foundation", device.manufacturer);
+        assertEquals("http://192.168.1.80:1673/AVTransport/9b6ee6d8-4f3c-11ec-a3f1-b827eb5a6c01/control.xml",
+            device.avTransportControlUrl);
+    }
+
+    @Test
+    public void findsServicesOnEmbeddedRenderer() {
+        DeviceDescription device = DeviceDescriptionParser.parse(
+            Fixtures.description("embedded-renderer.xml"), "http://192.168.1.90:8080/desc.xml");
+
+        // Identity is the root device's
+        assertEquals("Living Room Receiver", device.friendlyName);
+        assertEquals("uuid:5f9ec1b3-ed59-1900-4530-00a0ded41bb7", device.udn);
+        assertEquals("urn:schemas-upnp-org:device:Basic:1", device.deviceType);
+        assertEquals("http://192.168.1.90:8080/AVTransport/ctrl", device.avTransportControlUrl);
+        assertEquals("http://192.168.1.90:8080/RenderingControl/ctrl", device.renderingControlUrl);
+    }
+
+    @Test
+    public void deviceWithoutAvTransportCannotPlay() {
+        String xml = "<root><device><friendlyName>Bridge</friendlyName><serviceList><service>"
+            + "<serviceType>urn:schemas-upnp-org:service:ContentDirectory:1</serviceType>"
+            + "<controlURL>/cd</controlURL></service></serviceList></device></root>";
+
+        DeviceDescription device = DeviceDescriptionParser.parse(xml, "http://10.0.0.2/desc.xml");
+
+        assertEquals("Bridge", device.friendlyName);
+        assertNull(device.avTransportControlUrl);
+        assertFalse(device.canPlayMedia());
+    }
+
+    @Test
+    public void returnsNullWithoutDevice() {
+        assertNull(DeviceDescriptionParser.parse("<html><body>404</body></html>", "http://10.0.0.2/"));
+    }
+
+    @Test
+    public void resolvesReferences() {
+        assertEquals("http://h:1/a/c", DeviceDescriptionParser.resolve("http://h:1/a/b.xml", "c"));
+        assertEquals("http://h:1/c", DeviceDescriptionParser.resolve("http://h:1/a/b.xml", "/c"));
+        assertEquals("http://h:1/c", DeviceDescriptionParser.resolve("http://h:1", "c"));
+        assertEquals("http://x/c", DeviceDescriptionParser.resolve("http://h:1/a/", "http://x/c"));
+        assertNull(DeviceDescriptionParser.resolve("http://h:1/", ""));
+    }
+}
@@ -0,0 +1,60 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class DeviceRecordTest {
+    @Test
+    public void buildsFromDescription() {
+        DeviceDescription description = DeviceDescriptionParser.parse(
+            Fixtures.description("samsung-tizen.xml"), "http://192.168.1.23:9197/dmr");
+
+        DeviceRecord record = DeviceRecord.from(description, 1_760_000_000_000L);
+
+        assertEquals("uuid:0a8e9b46-00ab-1000-a7c3-5c497d1ea3b1", record.udn);
+        assertEquals("http://192.168.1.23:9197/upnp/control/AVTransport1", record.controlUrl);
+        assertTrue(record.has(DeviceRecord.CAPABILITY_AV_TRANSPORT));
+        assertTrue(record.has(DeviceRecord.CAPABILITY_RENDERING_CONTROL));
+        assertEquals(1_760_000_000_000L, record.lastSeenMs);
+    }
+
+    @Test
+    public void roundTripsIncludingEscapesAndNulls() {
+        DeviceRecord tv = new DeviceRecord("uuid:a", "[TV] Samsung\tQ60\\Lounge", "Samsung Electronics",
+            "http://192.168.1.23:9197/dmr", "http://192.168.1.23:9197/upnp/control/AVTransport1",
+            DeviceRecord.CAPABILITY_AV_TRANSPORT, 1_760_000_000_000L);
+        DeviceRecord kodi = new DeviceRecord("uuid:b", "Kodi\nRenderer", null,
+            "http://192.168.1.80:1673/", null, 0, 42L);
+
+        List<DeviceRecord> decoded = DeviceRecord.decodeAll(DeviceRecord.encodeAll(Arrays.asList(tv, kodi)));
+
+        assertEquals(2, decoded.size());
+        assertEquals(tv.name, decoded.get(0).name);
+        assertEquals(tv.controlUrl, decoded.get(0).controlUrl);
+        assertEquals(tv.lastSeenMs, decoded.get(0).lastSeenMs);
+        assertEquals("Kodi\nRenderer", decoded.get(1).name);
+        assertNull(decoded.get(1).manufacturer);
+        assertNull(decoded.get(1).controlUrl);
+        assertFalse(decoded.get(1).has(DeviceRecord.CAPABILITY_AV_TRANSPORT));
+    }
+
+    @Test
+    public void skipsMalformedLinesAndUnknownVersions() {
+        String encoded = DeviceRecord.encodeAll(Arrays.asList(
+            new DeviceRecord("uuid:a", "TV", "LG", "http://h/", "http://h/c", 1, 7L)));
+
+        List<DeviceRecord> decoded = DeviceRecord.decodeAll(encoded + "uuid:x\tbroken\n" + "uuid:y\t\t\t\t\t1\tnot-a-number\n");
+
+        assertEquals(1, decoded.size());
+        assertEquals("uuid:a", decoded.get(0).udn);
+        assertTrue(DeviceRecord.decodeAll("dlna-devices/0\n" + encoded).isEmpty());
+        assertTrue(DeviceRecord.decodeAll(null).isEmpty());
+        assertTrue(DeviceRecord.decodeAll("").isEmpty());
+    }
+}
@@ -0,0 +1,128 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class DeviceTableTest {
+    private final List<DeviceTable.Entry<String>> seen = new ArrayList<>();
+    private final List<DeviceTable.Entry<String>> gone = new ArrayList<>();
+    private final DeviceTable<String> table = new DeviceTable<>(new DeviceTable.Listener<String>() {
+        @Override
+        public void onDeviceSeen(DeviceTable.Entry<String> entry) {
+            seen.add(entry);
+        }
+
+        @Override
+        public void onDeviceGone(DeviceTable.Entry<String> entry) {
+            gone.add(entry);
+        }
+    }, SsdpSearch.ST_AV_TRANSPORT, SsdpSearch.ST_MEDIA_RENDERER);
+
+    @Test
+    public void searchResponseAddsDeviceOnce() {
+        SsdpMessage response = SsdpParser.parse(Fixtures.ssdp("samsung-tizen-response.txt"));
+
+        table.observe(response, 0);
+        table.observe(response, 1000);
+
+        assertEquals(1, seen.size());
+        assertEquals("uuid:0a8e9b46-00ab-1000-a7c3-5c497d1ea3b1", seen.get(0).udn);
+        assertEquals("http://192.168.1.23:9197/dmr", seen.get(0).location);
+        assertEquals(1000 + 1800_000L, seen.get(0).expiresAtMs());
+    }
+
+    @Test
+    public void byeByeRemovesDeviceWithAttachedValue() {
+        table.observe(SsdpParser.parse(Fixtures.ssdp("kodi-notify-alive.txt")), 0);
+        assertTrue(table.attach(seen.get(0), "Kodi"));
+        assertEquals(List.of("Kodi"), table.values());
+
+        table.observe(SsdpParser.parse(Fixtures.ssdp("kodi-notify-byebye.txt")), 5000);
+
+        assertEquals(1, gone.size());
+        assertEquals("Kodi", gone.get(0).value());
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void expiresAfterMaxAge() {
+        table.observe(notify("uuid:a", "http://10.0.0.2/d.xml", 60), 0);
+
+        table.expire(59_999);
+        assertTrue(gone.isEmpty());
+        table.observe(notify("uuid:a", "http://10.0.0.2/d.xml", 60), 30_000);
+        table.expire(60_000);
+        assertTrue(gone.isEmpty());
+
+        table.expire(90_000);
+        assertEquals(1, gone.size());
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void movedDeviceIsSeenAgainAndLateAttachIsRejected() {
+        table.observe(notify("uuid:a", "http://10.0.0.2/d.xml", 1800), 0);
+        DeviceTable.Entry<String> first = seen.get(0);
+
+        table.observe(notify("uuid:a", "http://10.0.0.9/d.xml", 1800), 1000);
+
+        assertEquals(2, seen.size());
+        assertEquals("http://10.0.0.9/d.xml", seen.get(1).location);
+        assertFalse(table.attach(first, "stale"));
+        assertTrue(table.values().isEmpty());
+    }
+
+    @Test
+    public void discardedEntryIsSeenAgainOnNextAnnouncement() {
+        table.observe(notify("uuid:a", "http://10.0.0.2/d.xml", 1800), 0);
+        table.discard(seen.get(0));
+
+        table.observe(notify("uuid:a", "http://10.0.0.2/d.xml", 1800), 1000);
+
+        assertEquals(2, seen.size());
+        assertTrue(gone.isEmpty());
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void ignoresUnrelatedDevices() {
+        table.observe(SsdpParser.parse(bytes(
+            "NOTIFY * HTTP/1.1\r\n"
+            + "NT: urn:schemas-upnp-org:device:InternetGatewayDevice:1\r\n"
+            + "NTS: ssdp:alive\r\n"
+            + "LOCATION: http://10.0.0.1:5000/rootDesc.xml\r\n"
+            + "USN: uuid:router::urn:schemas-upnp-org:device:InternetGatewayDevice:1\r\n\r\n")), 0);
+        table.observe(SsdpParser.parse(SsdpSearch.build(SsdpSearch.ST_AV_TRANSPORT, 3)), 0);
+
+        assertTrue(seen.isEmpty());
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void searchDelaysBurstThenBackOff() {
+        assertEquals(1000, SsdpSearch.searchDelayMs(1, 0));
+        assertEquals(2000, SsdpSearch.searchDelayMs(2, 0));
+        assertEquals(SsdpSearch.REFRESH_INTERVAL_MS, SsdpSearch.searchDelayMs(3, 0));
+        assertEquals(SsdpSearch.REFRESH_INTERVAL_MS * 5 / 4, SsdpSearch.searchDelayMs(10, 0.9999999), 1);
+    }
+
+    private static SsdpMessage notify(String udn, String location, int maxAge) {
+        return SsdpParser.parse(bytes(
+            "NOTIFY * HTTP/1.1\r\n"
+            + "CACHE-CONTROL: max-age=" + maxAge + "\r\n"
+            + "LOCATION: " + location + "\r\n"
+            + "NT: " + SsdpSearch.ST_MEDIA_RENDERER + "\r\n"
+            + "NTS: ssdp:alive\r\n"
+            + "USN: " + udn + "::" + SsdpSearch.ST_MEDIA_RENDERER + "\r\n\r\n"));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,46 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Recorded renderer traffic under src/test/resources. SSDP fixtures are stored with
+ * LF line endings for readability and converted to the CRLF renderers put on the wire.
+ */
+public final class Fixtures {
+    private Fixtures() {}
+
+    public static byte[] ssdp(String name) {
+        String text = new String(read("/ssdp/" + name), StandardCharsets.UTF_8);
+        return text.replace("\r\n", "\n").replace("\n", "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] ssdpWithBareLineFeeds(String name) {
+        String text = new String(read("/ssdp/" + name), StandardCharsets.UTF_8);
+        return text.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static String description(String name) {
+        return new String(read("/description/" + name), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] read(String path) {
+        try (InputStream in = Fixtures.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Missing fixture " + path);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
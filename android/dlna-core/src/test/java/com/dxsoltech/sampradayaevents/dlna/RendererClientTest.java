@@ -0,0 +1,134 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * RendererClient against a loopback HTTP server serving a recorded Samsung description
+ * and answering AVTransport actions the way a renderer does
+ */
+public class RendererClientTest {
+    private static final String UPNP_ERROR_716 =
+        "<?xml version=\"1.0\"?>"
+        + "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\"><s:Body><s:Fault>"
+        + "<faultcode>s:Client</faultcode><faultstring>UPnPError</faultstring><detail>"
+        + "<UPnPError xmlns=\"urn:schemas-upnp-org:control-1-0\">"
+        + "<errorCode>716</errorCode><errorDescription>Resource not found</errorDescription>"
+        + "</UPnPError></detail></s:Fault></s:Body></s:Envelope>";
+
+    private HttpServer server;
+    private String origin;
+    private final List<String> soapActions = new ArrayList<>();
+    private final List<String> soapBodies = new ArrayList<>();
+    private RendererClient client;
+
+    @Before
+    public void startRenderer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        origin = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext("/dmr", exchange ->
+            respond(exchange, 200, Fixtures.description("samsung-tizen.xml")));
+        server.createContext("/upnp/control/AVTransport1", exchange -> {
+            String body = readBody(exchange);
+            synchronized (soapActions) {
+                soapActions.add(exchange.getRequestHeaders().getFirst("SOAPACTION"));
+                soapBodies.add(body);
+            }
+            if (body.contains("missing.m3u8")) {
+                respond(exchange, 500, UPNP_ERROR_716);
+            } else {
+                respond(exchange, 200, "<s:Envelope><s:Body/></s:Envelope>");
+            }
+        });
+        server.start();
+        client = new RendererClient(new UrlConnectionTransport(2000));
+    }
+
+    @After
+    public void stopRenderer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void describesRenderer() throws IOException {
+        DeviceDescription device = client.describe(origin + "/dmr");
+
+        assertEquals("[TV] Samsung Q60 Series (55)", device.friendlyName);
+        assertEquals(origin + "/upnp/control/AVTransport1", device.avTransportControlUrl);
+    }
+
+    @Test
+    public void missingDescriptionThrows() {
+        try {
+            client.describe(origin + "/nothing-here");
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("404"));
+        }
+    }
+
+    @Test
+    public void sendsActionsWithSoapActionHeader() throws IOException {
+        String controlUrl = client.describe(origin + "/dmr").avTransportControlUrl;
+
+        assertTrue(client.setAvTransportUri(controlUrl, "http://10.0.0.5:8089/live.m3u8", "").isSuccess());
+        assertTrue(client.play(controlUrl).isSuccess());
+        assertTrue(client.stop(controlUrl).isSuccess());
+
+        assertEquals(3, soapActions.size());
+        assertEquals(SoapEnvelopes.soapAction("SetAVTransportURI"), soapActions.get(0));
+        assertEquals(SoapEnvelopes.soapAction("Play"), soapActions.get(1));
+        assertEquals(SoapEnvelopes.soapAction("Stop"), soapActions.get(2));
+        assertTrue(soapBodies.get(0).contains("<CurrentURI>http://10.0.0.5:8089/live.m3u8</CurrentURI>"));
+        assertEquals(SoapEnvelopes.play(), soapBodies.get(1));
+    }
+
+    @Test
+    public void reportsUpnpError() throws IOException {
+        SoapResult result = client.setAvTransportUri(
+            origin + "/upnp/control/AVTransport1", "http://10.0.0.5:8089/missing.m3u8", null);
+
+        assertFalse(result.isSuccess());
+        assertEquals(500, result.httpStatus);
+        assertEquals(716, result.upnpErrorCode);
+        assertEquals("Resource not found", result.upnpErrorDescription);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=\"utf-8\"");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
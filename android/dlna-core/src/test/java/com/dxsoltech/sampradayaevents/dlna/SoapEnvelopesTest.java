@@ -0,0 +1,42 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SoapEnvelopesTest {
+    @Test
+    public void soapActionIsQuoted() {
+        assertEquals("\"urn:schemas-upnp-org:service:AVTransport:1#Play\"", SoapEnvelopes.soapAction("Play"));
+    }
+
+    @Test
+    public void setAvTransportUriEscapesUriAndMetadata() {
+        String envelope = SoapEnvelopes.setAvTransportUri(
+            "http://192.168.1.5:8089/hls/master.m3u8?a=1&b=2", "<DIDL-Lite title=\"x\"/>");
+
+        String body = XmlScanner.text(envelope, "CurrentURI", 0, envelope.length());
+        assertEquals("http://192.168.1.5:8089/hls/master.m3u8?a=1&b=2", body);
+        assertTrue(envelope.contains("?a=1&amp;b=2"));
+        assertEquals("<DIDL-Lite title=\"x\"/>",
+            XmlScanner.text(envelope, "CurrentURIMetaData", 0, envelope.length()));
+        assertTrue(envelope.contains("<u:SetAVTransportURI xmlns:u=\"" + SoapEnvelopes.AV_TRANSPORT_SERVICE + "\">"));
+    }
+
+    @Test
+    public void nullMetadataIsEmpty() {
+        String envelope = SoapEnvelopes.setAvTransportUri("http://h/v.mp4", null);
+
+        assertTrue(envelope.contains("<CurrentURIMetaData></CurrentURIMetaData>"));
+    }
+
+    @Test
+    public void argumentlessEnvelopesAreShared() {
+        assertSame(SoapEnvelopes.play(), SoapEnvelopes.play());
+        assertTrue(SoapEnvelopes.play().contains("<InstanceID>0</InstanceID><Speed>1</Speed>"));
+        assertTrue(SoapEnvelopes.pause().contains("<u:Pause "));
+        assertTrue(SoapEnvelopes.stop().contains("<u:Stop "));
+    }
+}
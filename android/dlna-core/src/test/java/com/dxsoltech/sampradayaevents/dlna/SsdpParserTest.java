@@ -0,0 +1,102 @@
+package com.dxsoltech.sampradayaevents.dlna;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class SsdpParserTest {
+    @Test
+    public void parsesSamsungSearchResponse() {
+        SsdpMessage message = SsdpParser.parse(Fixtures.ssdp("samsung-tizen-response.txt"));
+
+        assertEquals(SsdpMessage.Kind.RESPONSE, message.kind);
+        assertEquals("http://192.168.1.23:9197/dmr", message.location);
+        assertEquals(SsdpSearch.ST_AV_TRANSPORT, message.target);
+        assertEquals("uuid:0a8e9b46-00ab-1000-a7c3-5c497d1ea3b1", message.udn());
+        assertEquals("SHP, UPnP/1.0, Samsung UPnP SDK/1.0", message.server);
+        assertEquals(1800, message.maxAgeSeconds);
+        assertTrue(message.isAlive());
+    }
+
+    @Test
+    public void headerNamesAreCaseInsensitive() {
+        SsdpMessage message = SsdpParser.parse(Fixtures.ssdp("lg-webos-response.txt"));
+
+        assertEquals("http://192.168.1.41:1527/", message.location);
+        assertEquals("uuid:3d8b2f70-5e4c-a2b1-8c9f-60ab14f0c2d1", message.udn());
+        assertEquals(1800, message.maxAgeSeconds);
+    }
+
+    @Test
+    public void acceptsHeadersWithoutSpaceAfterColon() {
+        SsdpMessage message = SsdpParser.parse(Fixtures.ssdp("sony-bravia-response.txt"));
+
+        assertEquals("http://192.168.1.57:52323/dmr.xml", message.location);
+        assertEquals("Linux/4.9 UPnP/1.0 KDL-50W805C/1.0", message.server);
+        assertEquals(1800, message.maxAgeSeconds);
+    }
+
+    @Test
+    public void acceptsBareLineFeeds() {
+        SsdpMessage message = SsdpParser.parse(Fixtures.ssdpWithBareLineFeeds("samsung-tizen-response.txt"));
+
+        assertEquals("http://192.168.1.23:9197/dmr", message.location);
+        assertEquals(SsdpSearch.ST_AV_TRANSPORT, message.target);
+    }
+
+    @Test
+    public void parsesAliveNotification() {
+        SsdpMessage message = SsdpParser.parse(Fixtures.ssdp("kodi-notify-alive.txt"));
+
+        assertEquals(SsdpMessage.Kind.NOTIFY, message.kind);
+        assertEquals(SsdpSearch.ST_MEDIA_RENDERER, message.target);
+        assertEquals(SsdpMessage.NTS_ALIVE, message.notificationSubType);
+        assertEquals("http://192.168.1.80:1673/", message.location);
+        // "max-age = 1800" with spaces around '='
+        assertEquals(1800, message.maxAgeSeconds);
+        assertTrue(message.isAlive());
+        assertFalse(message.isByeBye());
+    }
+
+    @Test
+    public void parsesByeByeNotification() {
+        SsdpMessage message = SsdpParser.parse(Fixtures.ssdp("kodi-notify-byebye.txt"));
+
+        assertTrue(message.isByeBye());
+        assertFalse(message.isAlive());
+        assertNull(message.location);
+        assertEquals(-1, message.maxAgeSeconds);
+        assertEquals("uuid:9b6ee6d8-4f3c-11ec-a3f1-b827eb5a6c01", message.udn());
+    }
+
+    @Test
+    public void parsesWithinLargerReceiveBuffer() {
+        byte[] packet = Fixtures.ssdp("samsung-tizen-response.txt");
+        byte[] buffer = new byte[2048];
+        System.arraycopy(packet, 0, buffer, 100, packet.length);
+
+        SsdpMessage message = SsdpParser.parse(buffer, 100, packet.length);
+
+        assertEquals("http://192.168.1.23:9197/dmr", message.location);
+    }
+
+    @Test
+    public void recognisesOwnSearch() {
+        SsdpMessage message = SsdpParser.parse(SsdpSearch.build(SsdpSearch.ST_AV_TRANSPORT, 3));
+
+        assertEquals(SsdpMessage.Kind.SEARCH, message.kind);
+        assertEquals(SsdpSearch.ST_AV_TRANSPORT, message.target);
+        assertFalse(message.isAlive());
+    }
+
+    @Test
+    public void rejectsNonSsdpDatagrams() {
+        assertNull(SsdpParser.parse("HTTP/1.1 404 Not Found\r\n\r\n".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(SsdpParser.parse("garbage".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(SsdpParser.parse(new byte[0]));
+    }
+}
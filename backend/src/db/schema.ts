@@ -147,6 +147,36 @@ export async function ensureSchema() {
     CREATE INDEX IF NOT EXISTS idx_viewing_sessions_heartbeat ON viewing_sessions(last_heartbeat);
   `);
 
+  // Playback QoE table - one row per player session, totals updated by each upload
+  await pool.query(`
+    CREATE TABLE IF NOT EXISTS playback_qoe_sessions (
+      id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+      session_id TEXT NOT NULL,
+      user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+      event_id UUID NOT NULL REFERENCES events(id) ON DELETE CASCADE,
+      platform TEXT NOT NULL,
+      is_live BOOLEAN NOT NULL DEFAULT FALSE,
+      buffer_profile TEXT,
+      startup_ms INTEGER,
+      play_ms BIGINT NOT NULL DEFAULT 0,
+      rebuffer_ms BIGINT NOT NULL DEFAULT 0,
+      rebuffer_count INTEGER NOT NULL DEFAULT 0,
+      bitrate_switches INTEGER NOT NULL DEFAULT 0,
+      avg_bitrate INTEGER NOT NULL DEFAULT 0,
+      dropped_frames INTEGER NOT NULL DEFAULT 0,
+      fatal_errors INTEGER NOT NULL DEFAULT 0,
+      last_error TEXT,
+      ended BOOLEAN NOT NULL DEFAULT FALSE,
+      started_at TIMESTAMPTZ NOT NULL,
+      updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+      UNIQUE(session_id, user_id)
+    );
+  `);
+
+  await pool.query(`
+    CREATE INDEX IF NOT EXISTS idx_playback_qoe_sessions_event_id ON playback_qoe_sessions(event_id);
+  `);
+
   // Password reset tokens table
   await pool.query(`
     CREATE TABLE IF NOT EXISTS password_reset_tokens (
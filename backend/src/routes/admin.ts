@@ -80,6 +80,43 @@ router.get('/events/:id/viewer-stats', requireAuth, requireRole(['admin', 'super
   }
 });
 
+// GET /admin/events/:id/qoe-stats - Get playback QoE summary for an event
+router.get('/events/:id/qoe-stats', requireAuth, requireRole(['admin', 'superadmin', 'finance-admin', 'content-admin']), async (req, res) => {
+  const eventId = req.params.id;
+
+  try {
+    const { rows: summaryRows } = await pool.query(
+      `SELECT
+         COUNT(*)::int as sessions,
+         ROUND(AVG(startup_ms))::int as avg_startup_ms,
+         PERCENTILE_CONT(0.95) WITHIN GROUP (ORDER BY startup_ms)::int as p95_startup_ms,
+         COALESCE(SUM(rebuffer_ms)::float / NULLIF(SUM(play_ms + rebuffer_ms), 0), 0) as rebuffer_ratio,
+         COALESCE(SUM(rebuffer_count), 0)::int as rebuffer_count,
+         COALESCE(SUM(avg_bitrate::bigint * play_ms) / NULLIF(SUM(play_ms), 0), 0)::int as avg_bitrate,
+         COALESCE(SUM(bitrate_switches), 0)::int as bitrate_switches,
+         COALESCE(SUM(dropped_frames), 0)::int as dropped_frames,
+         COUNT(*) FILTER (WHERE fatal_errors > 0)::int as failed_sessions
+       FROM playback_qoe_sessions
+       WHERE event_id = $1`,
+      [eventId]
+    );
+
+    const { rows: errorRows } = await pool.query(
+      `SELECT last_error as error, COUNT(*)::int as sessions
+       FROM playback_qoe_sessions
+       WHERE event_id = $1 AND last_error IS NOT NULL
+       GROUP BY last_error
+       ORDER BY sessions DESC`,
+      [eventId]
+    );
+
+    return res.json({ summary: summaryRows[0], errors: errorRows });
+  } catch (err: any) {
+    console.error('Failed to get QoE stats:', err);
+    return res.status(500).json({ error: 'Failed to get QoE stats' });
+  }
+});
+
 // GET /admin/subscriptions
 router.get('/subscriptions', requireAuth, requireRole(['admin']), async (_req, res) => {
   // Cross join users with events to show all possible combinations
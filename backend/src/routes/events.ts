@@ -476,6 +476,7 @@ router.delete('/:id', requireAuth, requireAdmin, async (req, res) => {
     await pool.query('DELETE FROM tickets WHERE event_id = $1', [eventId]);
     await pool.query('DELETE FROM event_comments WHERE event_id = $1', [eventId]);
     await pool.query('DELETE FROM event_viewer_stats WHERE event_id = $1', [eventId]);
+    await pool.query('DELETE FROM playback_qoe_sessions WHERE event_id = $1', [eventId]);
     await pool.query('DELETE FROM ivs_access_logs WHERE event_id = $1', [eventId]);
     await pool.query('DELETE FROM payments WHERE event_id = $1', [eventId]);
     await pool.query('DELETE FROM events WHERE id = $1', [eventId]);
@@ -0,0 +1,104 @@
+import { Router } from 'express';
+import { z } from 'zod';
+import { pool } from '../db/pool';
+import { requireAuth } from '../middleware/auth';
+
+const router = Router();
+
+// Upper bound on sessions per upload (the app sends a few per batch)
+const MAX_SESSIONS_PER_BATCH = 20;
+
+const qoeSessionSchema = z.object({
+  sessionId: z.string().min(1).max(100),
+  startedAt: z.number().int().positive(),
+  isLive: z.boolean(),
+  bufferProfile: z.string().max(50).nullable().optional(),
+  startupMs: z.number().int().min(0).nullable().optional(),
+  playMs: z.number().int().min(0),
+  rebufferMs: z.number().int().min(0),
+  rebufferCount: z.number().int().min(0),
+  bitrateSwitches: z.number().int().min(0),
+  avgBitrate: z.number().int().min(0),
+  droppedFrames: z.number().int().min(0),
+  fatalErrors: z.number().int().min(0),
+  lastError: z.string().max(100).nullable().optional(),
+  ended: z.boolean(),
+});
+
+const batchSchema = z.object({
+  eventId: z.string().uuid(),
+  platform: z.string().min(1).max(20),
+  sessions: z.array(qoeSessionSchema).min(1).max(MAX_SESSIONS_PER_BATCH),
+});
+
+// POST /playback-qoe/batch - Store player QoE totals; re-sent sessions overwrite their row
+router.post('/batch', requireAuth, async (req, res) => {
+  const parsed = batchSchema.safeParse(req.body);
+  if (!parsed.success) {
+    return res.status(400).json({ error: 'Invalid request' });
+  }
+
+  const { eventId, platform, sessions } = parsed.data;
+  const userId = (req as any).user!.id;
+
+  try {
+    // Checked up front so an unknown or deleted event is a 404, not a foreign key error
+    const existing = await pool.query('SELECT id FROM events WHERE id = $1', [eventId]);
+    if (existing.rows.length === 0) {
+      return res.status(404).json({ error: 'Event not found' });
+    }
+
+    for (const s of sessions) {
+      await pool.query(
+        `INSERT INTO playback_qoe_sessions (
+           session_id, user_id, event_id, platform, is_live, buffer_profile, startup_ms,
+           play_ms, rebuffer_ms, rebuffer_count, bitrate_switches, avg_bitrate,
+           dropped_frames, fatal_errors, last_error, ended, started_at, updated_at
+         )
+         VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, $12, $13, $14, $15, $16, to_timestamp($17 / 1000.0), NOW())
+         ON CONFLICT (session_id, user_id) DO UPDATE SET
+           startup_ms = EXCLUDED.startup_ms,
+           play_ms = EXCLUDED.play_ms,
+           rebuffer_ms = EXCLUDED.rebuffer_ms,
+           rebuffer_count = EXCLUDED.rebuffer_count,
+           bitrate_switches = EXCLUDED.bitrate_switches,
+           avg_bitrate = EXCLUDED.avg_bitrate,
+           dropped_frames = EXCLUDED.dropped_frames,
+           fatal_errors = EXCLUDED.fatal_errors,
+           last_error = EXCLUDED.last_error,
+           ended = EXCLUDED.ended,
+           updated_at = NOW()`,
+        [
+          s.sessionId,
+          userId,
+          eventId,
+          platform,
+          s.isLive,
+          s.bufferProfile ?? null,
+          s.startupMs ?? null,
+          s.playMs,
+          s.rebufferMs,
+          s.rebufferCount,
+          s.bitrateSwitches,
+          s.avgBitrate,
+          s.droppedFrames,
+          s.fatalErrors,
+          s.lastError ?? null,
+          s.ended,
+          s.startedAt,
+        ]
+      );
+    }
+
+    return res.json({ ok: true, stored: sessions.length });
+  } catch (err: any) {
+    // The event was deleted between the check and the insert
+    if (err?.code === '23503') {
+      return res.status(404).json({ error: 'Event not found' });
+    }
+    console.error('Failed to store playback QoE:', err);
+    return res.status(500).json({ error: 'Failed to store playback QoE' });
+  }
+});
+
+export default router;
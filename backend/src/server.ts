@@ -14,6 +14,7 @@ import adminRoutes from './routes/admin';
 import uploadsRoutes from './routes/uploads';
 import razorpayRoutes from './routes/razorpay';
 import viewingSessionsRoutes from './routes/viewing-sessions';
+import playbackQoeRoutes from './routes/playback-qoe';
 import recordingsRoutes from './routes/recordings';
 import invoicesRoutes from './routes/invoices';
 import streamProxyRoutes from './routes/stream-proxy';
@@ -71,6 +72,7 @@ async function main() {
   app.use('/api/uploads', uploadsRoutes);
   app.use('/api/razorpay', razorpayRoutes);
   app.use('/api/viewing-sessions', viewingSessionsRoutes);
+  app.use('/api/playback-qoe', playbackQoeRoutes);
   app.use('/api/recordings', recordingsRoutes);
   app.use('/api/invoices', invoicesRoutes);
   app.use('/api/stream-proxy', streamProxyRoutes);
@@ -1,19 +1,220 @@
 import { Injectable } from '@angular/core';
-import { Capacitor, registerPlugin } from '@capacitor/core';
+import { Capacitor, PluginListenerHandle, registerPlugin } from '@capacitor/core';
 
 export interface IvsVideoPlayerPlugin {
-  initialize(options: { url: string; playerId?: string; autoplay?: boolean }): Promise<{ success: boolean }>;
-  play(): Promise<{ success: boolean }>;
-  pause(): Promise<{ success: boolean }>;
-  toggleFullscreen(): Promise<{ success: boolean; isFullscreen: boolean }>;
-  destroy(): Promise<{ success: boolean }>;
-  getCurrentTime(): Promise<{ currentTime: number }>;
-  getDuration(): Promise<{ duration: number }>;
-  seekTo(options: { seekTime: number }): Promise<{ success: boolean }>;
+  initialize(options: InitializeOptions): Promise<{ success: boolean }>;
+  preload(options: { url: string }): Promise<PreloadResult>;
+  play(options?: PlayerTarget): Promise<{ success: boolean }>;
+  pause(options?: PlayerTarget): Promise<{ success: boolean }>;
+  toggleFullscreen(options?: PlayerTarget): Promise<{ success: boolean; isFullscreen: boolean }>;
+  destroy(options?: PlayerTarget): Promise<{ success: boolean }>;
+  setFocusedPlayer(options: { playerId: string }): Promise<{ success: boolean }>;
+  setPlayerPriority(options: { playerId: string; priority: number }): Promise<{ success: boolean }>;
+  getPlayers(): Promise<{ players: PlayerInfo[] }>;
+  setQueue(options: { items: QueueItem[]; startIndex?: number } & PlayerTarget): Promise<{ success: boolean; currentItemId: string | null }>;
+  switchToQueueItem(options: { itemId: string } & PlayerTarget): Promise<{ success: boolean }>;
+  refreshPlaybackUrl(options: { url: string; expiresAt?: number } & PlayerTarget): Promise<{ success: boolean }>;
+  getQueue(options?: PlayerTarget): Promise<{ items: QueueItem[]; currentItemId: string | null }>;
+  prewarm(options: { lowLatency?: boolean; bufferProfile?: BufferProfile; idleTimeoutMs?: number; dedicatedPlaybackThread?: boolean }): Promise<{ success: boolean }>;
+  getStartupMetrics(options?: PlayerTarget): Promise<StartupMetrics>;
+  getBandwidthInfo(): Promise<BandwidthInfo>;
+  setDataSaver(options: { enabled: boolean }): Promise<{ success: boolean }>;
+  getNetworkStatus(): Promise<NetworkStatus>;
+  drainQoeSessions(): Promise<{ sessions: QoeSession[] }>;
+  setBackgroundPlayback(options: { enabled: boolean }): Promise<{ success: boolean; enabled: boolean }>;
+  enterPictureInPicture(): Promise<{ success: boolean; supported: boolean }>;
+  setAutoPictureInPicture(options: { enabled: boolean }): Promise<{ success: boolean; supported: boolean }>;
+  configureNetwork(options: { connectTimeoutMs: number; readTimeoutMs: number }): Promise<{ success: boolean; connectionCount: number; idleConnectionCount: number }>;
+  getCacheStats(): Promise<CacheStats>;
+  clearCache(): Promise<{ success: boolean }>;
+  downloadRecording(options: { eventId: string; url: string; expiresAt?: number; maxHeight?: number }): Promise<{ success: boolean }>;
+  removeDownload(options: { eventId: string }): Promise<{ success: boolean }>;
+  getDownloads(): Promise<{ downloads: RecordingDownload[] }>;
+  addListener(eventName: 'downloadProgress' | 'downloadStateChanged', listenerFunc: (download: RecordingDownload) => void): Promise<PluginListenerHandle>;
+  addListener<K extends PlayerEventName>(eventName: K, listenerFunc: (event: PlayerEvent<K>) => void): Promise<PluginListenerHandle>;
+  setEventRates(options: PlayerEventRates): Promise<Record<PlayerEventName, number>>;
+  getCurrentTime(options?: PlayerTarget): Promise<{ currentTime: number }>;
+  getDuration(options?: PlayerTarget): Promise<{ duration: number }>;
+  getLiveLatency(options?: PlayerTarget): Promise<LiveLatencyInfo>;
+  getPlayerState(options?: PlayerTarget): Promise<PlayerState>;
+  seekTo(options: { seekTime: number } & PlayerTarget): Promise<{ success: boolean }>;
   handleBackPress(): Promise<{ handled: boolean }>;
-  setPlayerBounds(options: { x: number; y: number; width: number; height: number }): Promise<{ success: boolean }>;
-  showBadge(options: { text: string; isLive: boolean }): Promise<{ success: boolean }>;
-  hideBadge(): Promise<{ success: boolean }>;
+  setPlayerBounds(options: { x: number; y: number; width: number; height: number } & PlayerTarget): Promise<{ success: boolean }>;
+  getBoundsSyncStats(options?: { reset?: boolean } & PlayerTarget): Promise<BoundsSyncStats>;
+  showBadge(options: { text: string; isLive: boolean } & PlayerTarget): Promise<{ success: boolean }>;
+  hideBadge(options?: PlayerTarget): Promise<{ success: boolean }>;
+}
+
+// url is required unless downloadId names a completed download; expiresAt is epoch ms.
+// eventId (defaults to downloadId) tags the player's QoE sessions.
+export interface InitializeOptions {
+  url?: string;
+  playerId?: string;
+  autoplay?: boolean;
+  lowLatency?: boolean;
+  bufferProfile?: BufferProfile;
+  isRecording?: boolean;
+  downloadId?: string;
+  eventId?: string;
+  // Player and its listeners on their own thread; swaps StyledPlayerView for minimal play/pause/seek controls
+  dedicatedPlaybackThread?: boolean;
+  focused?: boolean;
+  fullscreen?: boolean;
+  priority?: number;
+  expiresAt?: number;
+}
+
+export type BufferProfile = 'live-fast-start' | 'live-stable' | 'vod-deep-buffer' | 'vod-metered';
+
+export interface PlayerEventMap {
+  playbackState: { state: 'idle' | 'buffering' | 'ready' | 'ended'; isPlaying: boolean };
+  position: { currentTime: number; duration: number };
+  bufferedRange: { start: number; end: number };
+  liveLatency: { liveLatency: number; targetOffset: number; playbackSpeed: number };
+  playerError: { code: number; codeName: string; message: string };
+  renditionChanged: { width: number; height: number; bitrate: number; frameRate: number };
+  pictureInPicture: { active: boolean; dismissed: boolean };
+  queueItemChanged: { itemId: string };
+  recovery: { action: RecoveryAction; reason: string; attempt: number; delayMs: number };
+  // Answer with refreshPlaybackUrl; expiresAt is 0 when the URL carries no expiry
+  urlRefreshRequired: { url: string; reason: 'expiring' | 'forbidden'; expiresAt: number };
+}
+
+// needsNewUrl: the stream URL was rejected (401/403/410) and must be re-signed
+export type RecoveryAction = 'liveEdge' | 'retry' | 'needsNewUrl' | 'gaveUp' | 'recovered';
+
+export type PlayerEventName = keyof PlayerEventMap;
+
+// Every player event says which player it came from; sampled types follow the focused player
+export type PlayerEvent<K extends PlayerEventName> = PlayerEventMap[K] & { playerId: string };
+
+// Calls without a playerId go to the focused player
+export interface PlayerTarget {
+  playerId?: string;
+}
+
+export interface QueueItem {
+  id: string;
+  url: string;
+  isRecording?: boolean;
+  // QoE sessions for this item are stored against it
+  eventId?: string;
+}
+
+export interface PlayerInfo {
+  playerId: string;
+  focused: boolean;
+  priority: number;
+  // Bitrate cap from the shared budget, -1 when uncapped (focused)
+  bitrateCap: number;
+  state: 'idle' | 'buffering' | 'ready' | 'ended';
+  videoBitrate: number;
+}
+
+// Minimum interval in ms per event type; negative turns the type off
+export type PlayerEventRates = Partial<Record<PlayerEventName, number>>;
+
+export interface PlayerState {
+  state: 'idle' | 'buffering' | 'ready' | 'ended';
+  isPlaying: boolean;
+  currentTime: number;
+  duration: number;
+  bufferedPosition: number;
+  liveLatency: number;
+  playbackSpeed: number;
+  videoWidth: number;
+  videoHeight: number;
+  videoBitrate: number;
+}
+
+export interface LiveLatencyInfo {
+  liveLatency: number;
+  targetOffset: number;
+  playbackSpeed: number;
+  lowLatency: boolean;
+}
+
+export interface PreloadResult {
+  success: boolean;
+  isLive: boolean;
+  variantBitrate: number;
+  segmentsCached: number;
+}
+
+export interface CacheStats {
+  hitRate: number;
+  cacheSize: number;
+  maxCacheSize: number;
+  cacheBytesRead: number;
+  networkBytesRead: number;
+}
+
+export type DownloadState = 'queued' | 'stopped' | 'downloading' | 'completed' | 'failed' | 'removing' | 'restarting' | 'removed' | 'unknown';
+
+export interface RecordingDownload {
+  eventId: string;
+  state: DownloadState;
+  percent?: number;
+  bytesDownloaded?: number;
+  expiresAt?: number;
+  error?: string;
+  // Failed on an expired signed URL; downloadRecording with a fresh URL resumes it
+  urlRefreshRequired?: boolean;
+}
+
+// stored/default: still the seed for this network type; measured: from this session's transfers
+export type EstimateSource = 'stored' | 'default' | 'measured';
+
+export interface BandwidthInfo {
+  networkType: string;
+  initialEstimate: number;
+  initialEstimateSource: EstimateSource;
+  storedEstimate: number;
+  currentEstimate: number;
+  currentEstimateSource: EstimateSource;
+}
+
+export interface NetworkStatus {
+  online: boolean;
+  metered: boolean;
+  dataSaver: boolean;
+  networkType: string;
+  // Profile in effect after network adaptation, null for the player default
+  bufferProfile: BufferProfile | null;
+  // Rendition cap from the network policy, 0 when uncapped
+  bitrateCap: number;
+}
+
+export interface BoundsSyncStats {
+  updatesReceived: number;
+  framesApplied: number;
+  relayouts: number;
+  avgApplyMicros: number;
+  maxApplyMicros: number;
+}
+
+export interface StartupMetrics {
+  timeToFirstFrame: number;
+  warmStart: boolean;
+}
+
+export interface QoeSession {
+  sessionId: string;
+  // Null when the player was not told its event
+  eventId: string | null;
+  startedAt: number;
+  isLive: boolean;
+  bufferProfile?: BufferProfile;
+  startupMs?: number;
+  playMs: number;
+  rebufferMs: number;
+  rebufferCount: number;
+  bitrateSwitches: number;
+  avgBitrate: number;
+  droppedFrames: number;
+  fatalErrors: number;
+  lastError?: string;
+  ended: boolean;
 }
 
 const IvsVideoPlayer = registerPlugin<IvsVideoPlayerPlugin>('IvsVideoPlayer');
@@ -32,13 +233,13 @@ export class IvsVideoPlayerService {
     return this.isNativePlatform;
   }
 
-  async initialize(url: string, playerId: string = 'ivs-native-player', autoplay: boolean = true): Promise<void> {
+  async initialize(options: InitializeOptions): Promise<void> {
     if (!this.isNativePlatform) {
       throw new Error('Native player only available on Android/iOS');
     }
 
     try {
-      await IvsVideoPlayer.initialize({ url, playerId, autoplay });
+      await IvsVideoPlayer.initialize({ playerId: 'ivs-native-player', autoplay: true, ...options });
       console.log('[IvsVideoPlayer] Player initialized successfully');
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to initialize:', error);
@@ -46,33 +247,146 @@ export class IvsVideoPlayerService {
     }
   }
 
-  async play(): Promise<void> {
+  /**
+   * Start another player next to the focused one (second camera angle, preview wall).
+   * It plays muted and embedded until focused, and shares the bandwidth left by the
+   * focused player with the other secondary players in proportion to its priority.
+   */
+  async initializeSecondary(options: InitializeOptions & { url: string; playerId: string }): Promise<void> {
+    if (!this.isNativePlatform) {
+      throw new Error('Native player only available on Android/iOS');
+    }
+
+    try {
+      await IvsVideoPlayer.initialize({ autoplay: true, focused: false, fullscreen: false, priority: 1, ...options });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to initialize secondary player:', error);
+      throw error;
+    }
+  }
+
+  /**
+   * Move audio, lockscreen controls and the uncapped rendition to another player
+   */
+  async setFocusedPlayer(playerId: string): Promise<void> {
     if (!this.isNativePlatform) return;
     
     try {
-      await IvsVideoPlayer.play();
+      await IvsVideoPlayer.setFocusedPlayer({ playerId });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to focus player:', error);
+    }
+  }
+
+  async setPlayerPriority(playerId: string, priority: number): Promise<void> {
+    if (!this.isNativePlatform) return;
+    
+    try {
+      await IvsVideoPlayer.setPlayerPriority({ playerId, priority });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to set player priority:', error);
+    }
+  }
+
+  async getPlayers(): Promise<PlayerInfo[]> {
+    if (!this.isNativePlatform) return [];
+    
+    try {
+      const result = await IvsVideoPlayer.getPlayers();
+      return result.players || [];
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to get players:', error);
+      return [];
+    }
+  }
+
+  /**
+   * Queue several event streams on one player. Queued streams load in the background,
+   * so switchToQueueItem moves between them without rebuilding the player. The stream
+   * playing now keeps playing if it is part of the queue.
+   */
+  async setQueue(items: QueueItem[], startIndex: number = 0, playerId?: string): Promise<boolean> {
+    if (!this.isNativePlatform) return false;
+    
+    try {
+      const result = await IvsVideoPlayer.setQueue({ items, startIndex, playerId });
+      return result.success;
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to set queue:', error);
+      return false;
+    }
+  }
+
+  /**
+   * Hand the player a freshly signed URL for what it is playing; later playlist and
+   * segment requests use it without rebuffering. False when the URL matches no stream.
+   * expiresAt is epoch ms, as in InitializeOptions.
+   */
+  async refreshPlaybackUrl(url: string, expiresAt?: number, playerId?: string): Promise<boolean> {
+    if (!this.isNativePlatform) return false;
+    
+    try {
+      const result = await IvsVideoPlayer.refreshPlaybackUrl({ url, expiresAt, playerId });
+      return result.success;
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to refresh playback URL:', error);
+      return false;
+    }
+  }
+
+  async switchToQueueItem(itemId: string, playerId?: string): Promise<boolean> {
+    if (!this.isNativePlatform) return false;
+    
+    try {
+      const result = await IvsVideoPlayer.switchToQueueItem({ itemId, playerId });
+      return result.success;
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to switch queue item:', error);
+      return false;
+    }
+  }
+
+  /**
+   * Warm DNS, connection, playlists and first segments for a stream the user is likely to open
+   */
+  async preload(url: string): Promise<PreloadResult | null> {
+    if (!this.isNativePlatform) return null;
+    
+    try {
+      return await IvsVideoPlayer.preload({ url });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to preload:', error);
+      return null;
+    }
+  }
+
+  async play(playerId?: string): Promise<void> {
+    if (!this.isNativePlatform) return;
+    
+    try {
+      await IvsVideoPlayer.play({ playerId });
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to play:', error);
       throw error;
     }
   }
 
-  async pause(): Promise<void> {
+  async pause(playerId?: string): Promise<void> {
     if (!this.isNativePlatform) return;
     
     try {
-      await IvsVideoPlayer.pause();
+      await IvsVideoPlayer.pause({ playerId });
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to pause:', error);
       throw error;
     }
   }
 
-  async toggleFullscreen(): Promise<boolean> {
+  async toggleFullscreen(playerId?: string): Promise<boolean> {
     if (!this.isNativePlatform) return false;
     
     try {
-      const result = await IvsVideoPlayer.toggleFullscreen();
+      const result = await IvsVideoPlayer.toggleFullscreen({ playerId });
       return result.isFullscreen;
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to toggle fullscreen:', error);
@@ -80,11 +394,11 @@ export class IvsVideoPlayerService {
     }
   }
 
-  async destroy(): Promise<void> {
+  async destroy(playerId?: string): Promise<void> {
     if (!this.isNativePlatform) return;
     
     try {
-      await IvsVideoPlayer.destroy();
+      await IvsVideoPlayer.destroy({ playerId });
       console.log('[IvsVideoPlayer] Player destroyed');
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to destroy:', error);
@@ -92,11 +406,235 @@ export class IvsVideoPlayerService {
     }
   }
 
-  async getCurrentTime(): Promise<number> {
+  /**
+   * Build the native player ahead of time so the next initialize starts warm
+   */
+  async prewarm(lowLatency: boolean = false, bufferProfile?: BufferProfile, idleTimeoutMs?: number, dedicatedPlaybackThread: boolean = false): Promise<void> {
+    if (!this.isNativePlatform) return;
+    
+    try {
+      await IvsVideoPlayer.prewarm({ lowLatency, bufferProfile, idleTimeoutMs, dedicatedPlaybackThread });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to prewarm:', error);
+    }
+  }
+
+  async getStartupMetrics(playerId?: string): Promise<StartupMetrics | null> {
+    if (!this.isNativePlatform) return null;
+    
+    try {
+      return await IvsVideoPlayer.getStartupMetrics({ playerId });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to get startup metrics:', error);
+      return null;
+    }
+  }
+
+  /**
+   * Keep audio playing (video off, lowest rendition) when the app goes to the background
+   */
+  async setBackgroundPlayback(enabled: boolean): Promise<void> {
+    if (!this.isNativePlatform) return;
+    
+    try {
+      await IvsVideoPlayer.setBackgroundPlayback({ enabled });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to set background playback:', error);
+    }
+  }
+
+  /**
+   * Shrink the player into a picture-in-picture window (Android 8+)
+   */
+  async enterPictureInPicture(): Promise<boolean> {
+    if (!this.isNativePlatform) return false;
+    
+    try {
+      const result = await IvsVideoPlayer.enterPictureInPicture();
+      return result.success;
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to enter picture-in-picture:', error);
+      return false;
+    }
+  }
+
+  /**
+   * Enter picture-in-picture automatically when the user leaves the app during playback
+   */
+  async setAutoPictureInPicture(enabled: boolean): Promise<void> {
+    if (!this.isNativePlatform) return;
+    
+    try {
+      await IvsVideoPlayer.setAutoPictureInPicture({ enabled });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to set auto picture-in-picture:', error);
+    }
+  }
+
+  async drainQoeSessions(): Promise<QoeSession[]> {
+    if (!this.isNativePlatform) return [];
+    
+    try {
+      const result = await IvsVideoPlayer.drainQoeSessions();
+      return result.sessions || [];
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to drain QoE sessions:', error);
+      return [];
+    }
+  }
+
+  async getCacheStats(): Promise<CacheStats | null> {
+    if (!this.isNativePlatform) return null;
+    
+    try {
+      return await IvsVideoPlayer.getCacheStats();
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to get cache stats:', error);
+      return null;
+    }
+  }
+
+  async clearCache(): Promise<void> {
+    if (!this.isNativePlatform) return;
+    
+    try {
+      await IvsVideoPlayer.clearCache();
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to clear cache:', error);
+    }
+  }
+
+  /**
+   * Download a recording for offline playback. expiresAt comes from /api/recordings/expiry-info.
+   * Called again for the same event it resumes the existing download with the new signed URL.
+   */
+  async downloadRecording(eventId: string, url: string, expiresAt: string, maxHeight?: number): Promise<void> {
+    if (!this.isNativePlatform) return;
+    
+    try {
+      await IvsVideoPlayer.downloadRecording({ eventId, url, expiresAt: new Date(expiresAt).getTime(), maxHeight });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to download recording:', error);
+      throw error;
+    }
+  }
+
+  /**
+   * Play the downloaded copy of a recording from the device. Rejects when the download
+   * is not complete yet or has expired.
+   */
+  async initializeDownload(eventId: string, playerId: string = 'ivs-native-player', autoplay: boolean = true): Promise<void> {
+    if (!this.isNativePlatform) {
+      throw new Error('Native player only available on Android/iOS');
+    }
+
+    try {
+      await IvsVideoPlayer.initialize({ downloadId: eventId, playerId, autoplay, bufferProfile: 'vod-deep-buffer', isRecording: true });
+      console.log('[IvsVideoPlayer] Offline player initialized successfully');
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to initialize offline playback:', error);
+      throw error;
+    }
+  }
+
+  async removeDownload(eventId: string): Promise<void> {
+    if (!this.isNativePlatform) return;
+    
+    try {
+      await IvsVideoPlayer.removeDownload({ eventId });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to remove download:', error);
+    }
+  }
+
+  async getDownloads(): Promise<RecordingDownload[]> {
+    if (!this.isNativePlatform) return [];
+    
+    try {
+      const result = await IvsVideoPlayer.getDownloads();
+      return result.downloads;
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to get downloads:', error);
+      return [];
+    }
+  }
+
+  async addDownloadListener(listener: (download: RecordingDownload) => void): Promise<PluginListenerHandle[]> {
+    if (!this.isNativePlatform) return [];
+    
+    return Promise.all([
+      IvsVideoPlayer.addListener('downloadProgress', listener),
+      IvsVideoPlayer.addListener('downloadStateChanged', listener),
+    ]);
+  }
+
+  async addPlayerEventListener<K extends PlayerEventName>(
+    eventName: K,
+    listener: (event: PlayerEvent<K>) => void
+  ): Promise<PluginListenerHandle | null> {
+    if (!this.isNativePlatform) return null;
+    
+    return IvsVideoPlayer.addListener(eventName, listener);
+  }
+
+  async setEventRates(rates: PlayerEventRates): Promise<Record<PlayerEventName, number> | null> {
+    if (!this.isNativePlatform) return null;
+    
+    try {
+      return await IvsVideoPlayer.setEventRates(rates);
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to set event rates:', error);
+      return null;
+    }
+  }
+
+  async configureNetwork(connectTimeoutMs: number, readTimeoutMs: number): Promise<void> {
+    if (!this.isNativePlatform) return;
+    
+    try {
+      await IvsVideoPlayer.configureNetwork({ connectTimeoutMs, readTimeoutMs });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to configure network:', error);
+    }
+  }
+
+  async getBandwidthInfo(): Promise<BandwidthInfo | null> {
+    if (!this.isNativePlatform) return null;
+    
+    try {
+      return await IvsVideoPlayer.getBandwidthInfo();
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to get bandwidth info:', error);
+      return null;
+    }
+  }
+
+  async setDataSaver(enabled: boolean): Promise<void> {
+    if (!this.isNativePlatform) return;
+    
+    try {
+      await IvsVideoPlayer.setDataSaver({ enabled });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to set data saver:', error);
+    }
+  }
+
+  async getNetworkStatus(): Promise<NetworkStatus | null> {
+    if (!this.isNativePlatform) return null;
+    
+    try {
+      return await IvsVideoPlayer.getNetworkStatus();
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to get network status:', error);
+      return null;
+    }
+  }
+
+  async getCurrentTime(playerId?: string): Promise<number> {
     if (!this.isNativePlatform) return 0;
     
     try {
-      const result = await IvsVideoPlayer.getCurrentTime();
+      const result = await IvsVideoPlayer.getCurrentTime({ playerId });
       return result.currentTime;
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to get current time:', error);
@@ -104,11 +642,11 @@ export class IvsVideoPlayerService {
     }
   }
 
-  async getDuration(): Promise<number> {
+  async getDuration(playerId?: string): Promise<number> {
     if (!this.isNativePlatform) return 0;
     
     try {
-      const result = await IvsVideoPlayer.getDuration();
+      const result = await IvsVideoPlayer.getDuration({ playerId });
       return result.duration;
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to get duration:', error);
@@ -116,11 +654,33 @@ export class IvsVideoPlayerService {
     }
   }
 
-  async seekTo(timeMs: number): Promise<void> {
+  async getLiveLatency(playerId?: string): Promise<LiveLatencyInfo | null> {
+    if (!this.isNativePlatform) return null;
+    
+    try {
+      return await IvsVideoPlayer.getLiveLatency({ playerId });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to get live latency:', error);
+      return null;
+    }
+  }
+
+  async getPlayerState(playerId?: string): Promise<PlayerState | null> {
+    if (!this.isNativePlatform) return null;
+    
+    try {
+      return await IvsVideoPlayer.getPlayerState({ playerId });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to get player state:', error);
+      return null;
+    }
+  }
+
+  async seekTo(timeMs: number, playerId?: string): Promise<void> {
     if (!this.isNativePlatform) return;
     
     try {
-      await IvsVideoPlayer.seekTo({ seekTime: timeMs });
+      await IvsVideoPlayer.seekTo({ seekTime: timeMs, playerId });
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to seek:', error);
       throw error;
@@ -145,31 +705,42 @@ export class IvsVideoPlayerService {
     }
   }
 
-  async setPlayerBounds(x: number, y: number, width: number, height: number): Promise<void> {
+  async setPlayerBounds(x: number, y: number, width: number, height: number, playerId?: string): Promise<void> {
     if (!this.isNativePlatform) return;
     
     try {
-      await IvsVideoPlayer.setPlayerBounds({ x, y, width, height });
+      await IvsVideoPlayer.setPlayerBounds({ x, y, width, height, playerId });
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to set player bounds:', error);
     }
   }
 
-  async showBadge(text: string, isLive: boolean): Promise<void> {
+  async getBoundsSyncStats(reset = false, playerId?: string): Promise<BoundsSyncStats | null> {
+    if (!this.isNativePlatform) return null;
+    
+    try {
+      return await IvsVideoPlayer.getBoundsSyncStats({ reset, playerId });
+    } catch (error) {
+      console.error('[IvsVideoPlayer] Failed to get bounds sync stats:', error);
+      return null;
+    }
+  }
+
+  async showBadge(text: string, isLive: boolean, playerId?: string): Promise<void> {
     if (!this.isNativePlatform) return;
     
     try {
-      await IvsVideoPlayer.showBadge({ text, isLive });
+      await IvsVideoPlayer.showBadge({ text, isLive, playerId });
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to show badge:', error);
     }
   }
 
-  async hideBadge(): Promise<void> {
+  async hideBadge(playerId?: string): Promise<void> {
     if (!this.isNativePlatform) return;
     
     try {
-      await IvsVideoPlayer.hideBadge();
+      await IvsVideoPlayer.hideBadge({ playerId });
     } catch (error) {
       console.error('[IvsVideoPlayer] Failed to hide badge:', error);
     }
@@ -0,0 +1,142 @@
+import { Injectable } from '@angular/core';
+import { HttpClient } from '@angular/common/http';
+import { Capacitor } from '@capacitor/core';
+import { firstValueFrom } from 'rxjs';
+import { environment } from '../../environments/environment';
+import { IvsVideoPlayerService, QoeSession } from './ivs-video-player.service';
+
+// The backend rejects larger batches (MAX_SESSIONS_PER_BATCH in routes/playback-qoe.ts)
+const MAX_SESSIONS_PER_BATCH = 20;
+// Sessions held for retry after failed uploads; the oldest are dropped past this
+const MAX_PENDING_SESSIONS = 100;
+// Client errors that can succeed on a later attempt; any other 4xx is never retried
+const RETRYABLE_CLIENT_STATUSES = [401, 408, 429];
+
+@Injectable({
+  providedIn: 'root',
+})
+export class PlaybackQoeService {
+  private uploadInterval: any = null;
+  private currentEventId: string | null = null;
+  // Drained natively but not stored yet, by sessionId
+  private pending = new Map<string, QoeSession>();
+  private uploading = false;
+
+  constructor(
+    private http: HttpClient,
+    private ivsVideoPlayer: IvsVideoPlayerService
+  ) {}
+
+  start(eventId: string): void {
+    this.stopTimer();
+    this.currentEventId = eventId;
+
+    // Upload native player QoE every 60 seconds
+    this.uploadInterval = setInterval(() => {
+      this.upload();
+    }, 60000);
+  }
+
+  /**
+   * Stop the timer and send what is left (call after the player was destroyed)
+   */
+  async stop(): Promise<void> {
+    this.stopTimer();
+    await this.upload();
+    this.currentEventId = null;
+  }
+
+  private stopTimer(): void {
+    if (this.uploadInterval) {
+      clearInterval(this.uploadInterval);
+      this.uploadInterval = null;
+    }
+  }
+
+  private async upload(): Promise<void> {
+    const eventId = this.currentEventId;
+    if (!eventId || this.uploading) return;
+    this.uploading = true;
+
+    try {
+      // Drained sessions are gone from the native side, so they wait here until stored.
+      // A session still running is drained again with newer totals and replaces its copy.
+      for (const session of await this.ivsVideoPlayer.drainQoeSessions()) {
+        this.pending.delete(session.sessionId);
+        this.pending.set(session.sessionId, session);
+      }
+      this.trimPending();
+
+      const url = `${environment.apiBaseUrl}/playback-qoe/batch`;
+      for (const [sessionEventId, sessions] of this.groupByEvent(eventId)) {
+        for (let i = 0; i < sessions.length; i += MAX_SESSIONS_PER_BATCH) {
+          const batch = sessions.slice(i, i + MAX_SESSIONS_PER_BATCH);
+          await this.postBatch(url, sessionEventId, batch);
+        }
+      }
+    } finally {
+      this.uploading = false;
+    }
+  }
+
+  /**
+   * Secondary players and queue items play other events than the page's; sessions
+   * the native player could not attribute fall back to the page's event
+   */
+  private groupByEvent(fallbackEventId: string): Map<string, QoeSession[]> {
+    const groups = new Map<string, QoeSession[]>();
+    for (const session of this.pending.values()) {
+      const eventId = session.eventId ?? fallbackEventId;
+      const group = groups.get(eventId);
+      if (group) {
+        group.push(session);
+      } else {
+        groups.set(eventId, [session]);
+      }
+    }
+    return groups;
+  }
+
+  private async postBatch(url: string, eventId: string, batch: QoeSession[]): Promise<void> {
+    try {
+      await firstValueFrom(
+        this.http.post(url, {
+          eventId,
+          platform: Capacitor.getPlatform(),
+          // The batch's eventId applies to all of them; undefined is left out of the JSON
+          sessions: batch.map((session) => ({ ...session, eventId: undefined })),
+        })
+      );
+      this.removePending(batch);
+    } catch (error: any) {
+      const status = error?.status ?? 0;
+      if (status >= 400 && status < 500 && !RETRYABLE_CLIENT_STATUSES.includes(status)) {
+        // Rejected as sent (e.g. 404 for a deleted event): sending it again cannot succeed
+        console.warn(`[PlaybackQoe] Upload of ${batch.length} session(s) for ${eventId} rejected (${status}), dropping`);
+        this.removePending(batch);
+        return;
+      }
+      // Telemetry is best effort - never affects playback; the batch is retried next time
+      console.warn(`[PlaybackQoe] Upload of ${batch.length} session(s) for ${eventId} failed, will retry:`, error);
+    }
+  }
+
+  private removePending(batch: QoeSession[]): void {
+    for (const session of batch) {
+      // Unless a newer copy arrived meanwhile
+      if (this.pending.get(session.sessionId) === session) {
+        this.pending.delete(session.sessionId);
+      }
+    }
+  }
+
+  private trimPending(): void {
+    const excess = this.pending.size - MAX_PENDING_SESSIONS;
+    if (excess <= 0) return;
+    console.warn(`[PlaybackQoe] Dropping ${excess} unsent session(s)`);
+    const oldest = [...this.pending.keys()].slice(0, excess);
+    for (const sessionId of oldest) {
+      this.pending.delete(sessionId);
+    }
+  }
+}
@@ -25,11 +25,12 @@ import { IvsVideoPlayerService } from '../services/ivs-video-player.service';
 import { EventCommentDto, EventDto, EventsApiService } from '../services/events-api.service';
 import { IvsApiService } from '../services/ivs-api.service';
 import { ViewingSessionService } from '../services/viewing-session.service';
+import { PlaybackQoeService } from '../services/playback-qoe.service';
 import { RecordingsApiService } from '../services/recordings-api.service';
 import { FooterComponent } from '../shared/footer/footer.component';
 import { AuthService } from '../services/auth.service';
 import { EventTimePipe } from '../pipes/event-time.pipe';
-import { Capacitor } from '@capacitor/core';
+import { Capacitor, PluginListenerHandle } from '@capacitor/core';
 import { ChromecastService, CastState, CastDevice } from '../services/chromecast.service';
 
 @Component({
@@ -107,6 +108,7 @@ export class WatchPage implements OnInit, OnDestroy, AfterViewInit {
   private recordingUrlRefreshTimer?: any;
   private resumeSubscription?: Subscription;
   private pauseSubscription?: Subscription;
+  private urlRefreshListener?: PluginListenerHandle | null;
 
   // Cached YouTube embed URL to prevent iframe re-rendering
   private cachedYouTubeEmbedUrl: SafeResourceUrl | null = null;
@@ -177,6 +179,7 @@ export class WatchPage implements OnInit, OnDestroy, AfterViewInit {
     private eventsApi: EventsApiService,
     private ivsApi: IvsApiService,
     private viewingSession: ViewingSessionService,
+    private playbackQoe: PlaybackQoeService,
     private recordingsApi: RecordingsApiService,
     private sanitizer: DomSanitizer,
     private ngZone: NgZone,
@@ -346,8 +349,18 @@ export class WatchPage implements OnInit, OnDestroy, AfterViewInit {
         // Use native player (ExoPlayer on Android, AVPlayer on iOS)
         console.log('[Watch] Initializing native player for mobile platform');
         try {
-          await this.ivsVideoPlayer.initialize(urlWithToken, 'ivs-native-player', true);
+          await this.ivsVideoPlayer.initialize({
+            url: urlWithToken,
+            eventId: this.eventId ?? undefined,
+            lowLatency: true,
+            bufferProfile: 'live-fast-start',
+            expiresAt: new Date(expiresAt).getTime()
+          });
           this.nativePlayerInitialized = true;
+          await this.listenForUrlRefresh();
+          this.playbackQoe.start(this.eventId);
+          // Keep the stream in a PiP window when the viewer switches to another app
+          await this.ivsVideoPlayer.setAutoPictureInPicture(true);
           // Player starts in fullscreen landscape mode automatically
           console.log('[Watch] Native player initialized in fullscreen mode');
           
@@ -495,8 +508,16 @@ export class WatchPage implements OnInit, OnDestroy, AfterViewInit {
       if (this.useNativePlayer) {
         // Use native player for mobile
         console.log('[Watch] Initializing native player for recording');
-        await this.ivsVideoPlayer.initialize(this.playbackUrl, 'ivs-native-player', true);
+        await this.ivsVideoPlayer.initialize({
+          url: this.playbackUrl,
+          eventId: this.eventId ?? undefined,
+          bufferProfile: 'vod-deep-buffer',
+          isRecording: true,
+          expiresAt: this.recordingUrlExpiresAt ? new Date(this.recordingUrlExpiresAt).getTime() : undefined
+        });
         this.nativePlayerInitialized = true;
+        await this.listenForUrlRefresh();
+        this.playbackQoe.start(this.eventId);
         // Player starts in fullscreen landscape mode automatically
         console.log('[Watch] Native player initialized for recording in fullscreen mode');
 
@@ -649,6 +670,32 @@ export class WatchPage implements OnInit, OnDestroy, AfterViewInit {
     }
   }
 
+  /**
+   * The native player asks for a new signed URL shortly before the current one expires
+   * or when the CDN rejects it, and applies the answer without restarting playback.
+   */
+  private async listenForUrlRefresh(): Promise<void> {
+    this.urlRefreshListener?.remove();
+    this.urlRefreshListener = await this.ivsVideoPlayer.addPlayerEventListener('urlRefreshRequired', (event) => {
+      this.ngZone.run(async () => {
+        if (!this.eventId) return;
+        console.log(`[Watch] Native player needs a new playback URL (${event.reason})`);
+        if (this.isRecordingMode) {
+          await this.refreshRecordingUrl();
+          return;
+        }
+        if (!this.playbackUrl) return;
+        try {
+          const { token, expiresAt } = await this.ivsApi.getPlaybackToken(this.eventId);
+          const urlWithToken = `${this.playbackUrl}?token=${encodeURIComponent(token)}`;
+          await this.ivsVideoPlayer.refreshPlaybackUrl(urlWithToken, new Date(expiresAt).getTime());
+        } catch {
+          this.errorMessage = 'Session expired. Please reopen the stream.';
+        }
+      });
+    });
+  }
+
   /**
    * Schedule automatic refresh of recording URL before it expires.
    */
@@ -679,9 +726,18 @@ export class WatchPage implements OnInit, OnDestroy, AfterViewInit {
 
       // Update player source
       if (this.useNativePlayer) {
-        // For native player, reinitialize with new URL
-        await this.ivsVideoPlayer.destroy();
-        await this.ivsVideoPlayer.initialize(recording.playbackUrl, 'ivs-native-player', true);
+        // Native player swaps the signature in place; reinitialize only if it is a different stream
+        const refreshed = await this.ivsVideoPlayer.refreshPlaybackUrl(recording.playbackUrl, new Date(recording.expiresAt).getTime());
+        if (!refreshed) {
+          await this.ivsVideoPlayer.destroy();
+          await this.ivsVideoPlayer.initialize({
+            url: recording.playbackUrl,
+            eventId: this.eventId ?? undefined,
+            bufferProfile: 'vod-deep-buffer',
+            isRecording: true,
+            expiresAt: new Date(recording.expiresAt).getTime()
+          });
+        }
       } else if (this.player && this.videoElRef?.nativeElement) {
         // For web player, reload source
         const currentTime = this.videoElRef.nativeElement.currentTime;
@@ -1053,6 +1109,9 @@ export class WatchPage implements OnInit, OnDestroy, AfterViewInit {
       this.refreshTimer = undefined;
     }
 
+    // The native player asks for a new token itself (urlRefreshRequired)
+    if (this.useNativePlayer) return;
+
     const expiresAt = new Date(expiresAtIso).getTime();
     const now = Date.now();
 
@@ -1116,6 +1175,10 @@ export class WatchPage implements OnInit, OnDestroy, AfterViewInit {
       this.pauseSubscription.unsubscribe();
       this.pauseSubscription = undefined;
     }
+    if (this.urlRefreshListener) {
+      this.urlRefreshListener.remove();
+      this.urlRefreshListener = undefined;
+    }
     if (this.castSubscription) {
       this.castSubscription.unsubscribe();
       this.castSubscription = undefined;
@@ -1129,6 +1192,8 @@ export class WatchPage implements OnInit, OnDestroy, AfterViewInit {
     if (this.useNativePlayer) {
       // destroy() is safe to call multiple times
       this.ivsVideoPlayer.destroy();
+      // Queued after destroy, so the final upload includes the ended session
+      this.playbackQoe.stop();
     } else {
       this.ivsPlayer.destroyPlayer(this.player);
       this.player = undefined;